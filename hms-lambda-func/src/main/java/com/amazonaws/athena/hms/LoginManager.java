@@ -0,0 +1,155 @@
+/*-
+ * #%L
+ * hms-lambda-func
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.metastore.MetaStoreUtils;
+import org.apache.hadoop.hive.shims.Utils;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.security.auth.login.LoginException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.security.PrivilegedExceptionAction;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Authenticates once per Lambda container and caches the UGI and the SASL properties so that new
+// connections don't pay for a login. With Kerberos, the TGT is still checked before every new
+// connection, and a background thread renews it from the keytab before it expires so that the
+// inline check rarely has to wait for a KDC round trip. The renewer could be frozen for a long
+// time together with the Lambda container, thus it is only an optimization.
+public class LoginManager
+{
+  private static final Logger LOG = LoggerFactory.getLogger(LoginManager.class);
+  private static final String HIVE_SITE = "hive-site.xml";
+  private static final String CORE_SITE = "core-site.xml";
+  private static final String HADOOP_RPC_PROTECTION = "hadoop.rpc.protection";
+
+  private final boolean kerberosEnabled;
+  private final UserGroupInformation ugi;
+  private final Map<String, String> saslProperties;
+  private final ScheduledExecutorService renewer;
+
+  public LoginManager(HiveConf conf, boolean kerberosEnabled, long renewIntervalMs)
+      throws IOException, LoginException
+  {
+    this.kerberosEnabled = kerberosEnabled;
+    if (kerberosEnabled) {
+      Configuration hadoopConf = new Configuration();
+      addResourceFromClassPath(hadoopConf, CORE_SITE);
+      addResourceFromClassPath(hadoopConf, HIVE_SITE);
+
+      System.out.println(HADOOP_RPC_PROTECTION + ": " + hadoopConf.get(HADOOP_RPC_PROTECTION));
+      if (hadoopConf.get(HADOOP_RPC_PROTECTION) != null) {
+        conf.set(HADOOP_RPC_PROTECTION, hadoopConf.get(HADOOP_RPC_PROTECTION));
+      }
+
+      UserGroupInformation.setConfiguration(hadoopConf);
+      this.ugi = UserGroupInformation.getLoginUser();
+      ugi.checkTGTAndReloginFromKeytab();
+      this.renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hms-kerberos-renewer");
+        thread.setDaemon(true);
+        return thread;
+      });
+      // checkTGTAndReloginFromKeytab() only contacts the KDC when the TGT is close to its expiry
+      renewer.scheduleWithFixedDelay(this::renew, renewIntervalMs, renewIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    else {
+      this.ugi = Utils.getUGI();
+      this.renewer = null;
+    }
+    this.saslProperties = MetaStoreUtils.getMetaStoreSaslProperties(conf);
+  }
+
+  private void addResourceFromClassPath(Configuration conf, String fileName)
+  {
+    InputStream in = getClass().getResourceAsStream("/" + fileName);
+    if (in != null) {
+      conf.addResource(in);
+    }
+  }
+
+  private void renew()
+  {
+    try {
+      ugi.checkTGTAndReloginFromKeytab();
+    }
+    catch (IOException | RuntimeException e) {
+      // keep the schedule, the next run or the next connection will retry
+      LOG.warn("Failed to renew the Kerberos TGT", e);
+    }
+  }
+
+  public UserGroupInformation getUGI()
+  {
+    return ugi;
+  }
+
+  public Map<String, String> getSaslProperties()
+  {
+    return saslProperties;
+  }
+
+  public interface Action<T>
+  {
+    T run() throws TException, IOException, LoginException;
+  }
+
+  // run the action as the login user so that SASL connections use its Kerberos credentials
+  public <T> T doAs(Action<T> action) throws TException, IOException, InterruptedException, LoginException
+  {
+    if (!kerberosEnabled) {
+      return action.run();
+    }
+    // a no-op unless the TGT is close to its expiry, e.g., the renewer has not run for a while
+    ugi.checkTGTAndReloginFromKeytab();
+    try {
+      return ugi.doAs((PrivilegedExceptionAction<T>) action::run);
+    }
+    catch (UndeclaredThrowableException e) {
+      // doAs() wraps the checked exceptions that are not IOException or InterruptedException
+      Throwable cause = e.getCause();
+      if (cause instanceof TException) {
+        throw (TException) cause;
+      }
+      if (cause instanceof LoginException) {
+        throw (LoginException) cause;
+      }
+      throw e;
+    }
+  }
+
+  public void close()
+  {
+    if (renewer != null) {
+      renewer.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/*-
+ * #%L
+ * hms-lambda-func
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Routes calls to the Hive Metastore instance that currently responds the fastest. It tracks an
+// exponentially weighted moving average (EWMA) of the call latency of each URI, and puts a URI at
+// the end of the list for a while after a transport failure. It also keeps a window of recent
+// latencies per read operation, e.g., get_table, to decide after how long a slow read should be
+// hedged on a second instance, since a fast get_database says nothing about how long a get_table
+// should take. Bulk reads, e.g., all the partition names of a table, take as long as their result is
+// large and are not recorded here, they would make the instances look slow and are never hedged.
+public class MetastoreRouter
+{
+  // the weight of the latest sample in the moving average
+  private static final double EWMA_ALPHA = 0.3;
+  // how long a URI is considered unhealthy after a transport failure
+  private static final long UNHEALTHY_COOLDOWN_MS = 30 * 1000L;
+  // the number of recent read latencies used to compute the hedging threshold
+  private static final int LATENCY_WINDOW_SIZE = 128;
+  // do not hedge before there are enough samples for a meaningful percentile
+  private static final int MIN_LATENCY_SAMPLES = 20;
+
+  private static class Stats
+  {
+    // -1 means that there is no sample yet
+    private double ewmaMillis = -1;
+    private long unhealthyUntilMillis;
+  }
+
+  private static class LatencyWindow
+  {
+    private final long[] latencies = new long[LATENCY_WINDOW_SIZE];
+    private long numSamples;
+
+    private void add(long latencyMillis)
+    {
+      latencies[(int) (numSamples++ % LATENCY_WINDOW_SIZE)] = latencyMillis;
+    }
+
+    private long getPercentile(double percentile)
+    {
+      int size = (int) Math.min(numSamples, LATENCY_WINDOW_SIZE);
+      long[] sorted = Arrays.copyOf(latencies, size);
+      Arrays.sort(sorted);
+      int index = (int) Math.ceil(percentile / 100 * size) - 1;
+      return sorted[Math.max(0, Math.min(index, size - 1))];
+    }
+  }
+
+  private final List<URI> uris;
+  private final Map<URI, Stats> stats = new HashMap<>();
+  // the percentile of the read latency after which a read is hedged, 0 to disable hedging
+  private final double hedgePercentile;
+  // the recent latencies of each read operation
+  private final Map<String, LatencyWindow> latencyWindows = new HashMap<>();
+
+  public MetastoreRouter(List<URI> uris, double hedgePercentile)
+  {
+    this.uris = new ArrayList<>(uris);
+    this.hedgePercentile = hedgePercentile;
+    for (URI uri : uris) {
+      stats.put(uri, new Stats());
+    }
+  }
+
+  public boolean isHedgingEnabled()
+  {
+    return hedgePercentile > 0 && hedgePercentile < 100 && uris.size() > 1;
+  }
+
+  // the URIs ordered by preference: healthy ones before unhealthy ones, and then the fastest first.
+  // A URI without any sample yet comes first so that it gets some traffic to be measured.
+  public synchronized List<URI> rank()
+  {
+    long now = System.currentTimeMillis();
+    List<URI> ranked = new ArrayList<>(uris);
+    ranked.sort(Comparator
+        .comparing((URI uri) -> stats.get(uri).unhealthyUntilMillis > now)
+        .thenComparingDouble(uri -> stats.get(uri).ewmaMillis));
+    return ranked;
+  }
+
+  // record the latency of a successful read operation
+  public synchronized void recordSuccess(URI uri, String operation, long latencyMillis)
+  {
+    Stats uriStats = stats.get(uri);
+    if (uriStats == null) {
+      return;
+    }
+    uriStats.ewmaMillis = uriStats.ewmaMillis < 0 ? latencyMillis
+        : EWMA_ALPHA * latencyMillis + (1 - EWMA_ALPHA) * uriStats.ewmaMillis;
+    uriStats.unhealthyUntilMillis = 0;
+    latencyWindows.computeIfAbsent(operation, k -> new LatencyWindow()).add(latencyMillis);
+  }
+
+  // a call that is not recorded by its latency, e.g., a bulk read or a write, still shows that
+  // the instance is healthy again
+  public synchronized void recordSuccess(URI uri)
+  {
+    Stats uriStats = stats.get(uri);
+    if (uriStats != null) {
+      uriStats.unhealthyUntilMillis = 0;
+    }
+  }
+
+  public synchronized void recordFailure(URI uri)
+  {
+    Stats uriStats = stats.get(uri);
+    if (uriStats != null) {
+      uriStats.unhealthyUntilMillis = System.currentTimeMillis() + UNHEALTHY_COOLDOWN_MS;
+    }
+  }
+
+  // the delay after which a read operation should be hedged, i.e., the configured percentile of its
+  // recent latencies, or -1 if hedging is disabled or there are not enough samples of it yet
+  public synchronized long getHedgeDelayMillis(String operation)
+  {
+    if (!isHedgingEnabled()) {
+      return -1;
+    }
+    LatencyWindow window = latencyWindows.get(operation);
+    if (window == null || window.numSamples < MIN_LATENCY_SAMPLES) {
+      return -1;
+    }
+    return window.getPercentile(hedgePercentile);
+  }
+}
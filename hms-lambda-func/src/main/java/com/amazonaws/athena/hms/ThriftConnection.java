@@ -0,0 +1,111 @@
+/*-
+ * #%L
+ * hms-lambda-func
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.apache.hadoop.hive.metastore.api.ThriftHiveMetastore;
+import org.apache.thrift.transport.TSocket;
+import org.apache.thrift.transport.TTransport;
+
+import java.net.URI;
+
+// a single thrift connection to one of the Hive Metastore URIs, it is not thread safe and
+// should only be used by one caller at a time, i.e., borrowed from and returned to ThriftConnectionPool
+public class ThriftConnection
+{
+  private final URI uri;
+  // the underlying socket, which could be wrapped by SASL or framed transports
+  private final TSocket socket;
+  private final TTransport transport;
+  private final ThriftHiveMetastore.Iface client;
+  // the read timeout the socket was opened with, which a pooled connection goes back to
+  private final int defaultTimeoutMs;
+  private int timeoutMs;
+  // the last time this connection was known to be healthy, i.e., opened or successfully used
+  private long lastUsedMillis;
+
+  public ThriftConnection(URI uri, TSocket socket, TTransport transport, ThriftHiveMetastore.Iface client,
+                          int defaultTimeoutMs)
+  {
+    this.uri = uri;
+    this.socket = socket;
+    this.transport = transport;
+    this.client = client;
+    this.defaultTimeoutMs = defaultTimeoutMs;
+    this.timeoutMs = defaultTimeoutMs;
+    this.lastUsedMillis = System.currentTimeMillis();
+  }
+
+  public URI getURI()
+  {
+    return uri;
+  }
+
+  public ThriftHiveMetastore.Iface getClient()
+  {
+    return client;
+  }
+
+  // the read timeout of the next calls on this connection
+  public void setTimeout(int timeoutMs)
+  {
+    if (timeoutMs != this.timeoutMs) {
+      socket.setTimeout(timeoutMs);
+      this.timeoutMs = timeoutMs;
+    }
+  }
+
+  public int getTimeout()
+  {
+    return timeoutMs;
+  }
+
+  // undo a timeout shortened by the deadline of a request, so that the next borrower, e.g., a
+  // request without a deadline or the validation on borrow, does not inherit it
+  public void resetTimeout()
+  {
+    setTimeout(defaultTimeoutMs);
+  }
+
+  public boolean isOpen()
+  {
+    return transport.isOpen();
+  }
+
+  public long getIdleMillis()
+  {
+    return System.currentTimeMillis() - lastUsedMillis;
+  }
+
+  public void touch()
+  {
+    lastUsedMillis = System.currentTimeMillis();
+  }
+
+  public void close()
+  {
+    transport.close();
+  }
+
+  @Override
+  public String toString()
+  {
+    return uri.toString();
+  }
+}
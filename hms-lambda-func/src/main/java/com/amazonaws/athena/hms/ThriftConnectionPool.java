@@ -0,0 +1,270 @@
+/*-
+ * #%L
+ * hms-lambda-func
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.apache.thrift.TException;
+import org.apache.thrift.transport.TTransportException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+// A bounded pool of thrift connections to the Hive Metastore. New connections are spread over all
+// the configured URIs in a round robin way and fail over to the next URI if one cannot be reached.
+// Idle connections are validated with a cheap fb303 getStatus() call before they are reused, and
+// connections with a broken transport are evicted so that a restarted HMS node or a socket dropped
+// by a NAT gateway does not break a warm Lambda container.
+public class ThriftConnectionPool
+{
+  private static final Logger LOG = LoggerFactory.getLogger(ThriftConnectionPool.class);
+  // the read timeout of the health check, which only waits for a trivial reply
+  static final int VALIDATION_TIMEOUT_MS = 5000;
+
+  // creates a new connection to the given URI
+  public interface ConnectionFactory
+  {
+    ThriftConnection connect(URI uri) throws TException;
+  }
+
+  private final List<URI> uris;
+  private final int maxSize;
+  private final long validationIntervalMs;
+  private final long borrowTimeoutMs;
+  private final ConnectionFactory factory;
+
+  // idle connections, the most recently used one first since it is the most likely to be alive
+  private final Deque<ThriftConnection> idleConnections = new ArrayDeque<>();
+  // number of connections created by this pool that are not closed yet, i.e., idle or borrowed
+  private int numConnections;
+  // the index of the URI to use for the next new connection
+  private int nextUriIndex;
+
+  public ThriftConnectionPool(List<URI> uris, int maxSize, long validationIntervalMs,
+                              long borrowTimeoutMs, ConnectionFactory factory)
+  {
+    if (uris == null || uris.isEmpty()) {
+      throw new IllegalArgumentException("No Hive Metastore URI is provided");
+    }
+    this.uris = new ArrayList<>(uris);
+    this.maxSize = Math.max(1, maxSize);
+    this.validationIntervalMs = validationIntervalMs;
+    this.borrowTimeoutMs = borrowTimeoutMs;
+    this.factory = factory;
+  }
+
+  public List<URI> getURIs()
+  {
+    return uris;
+  }
+
+  public int getMaxSize()
+  {
+    return maxSize;
+  }
+
+  // get a healthy connection from the pool, or create a new one if the pool is not full yet.
+  // The caller must hand the connection back by either release() or invalidate()
+  public ThriftConnection borrow() throws TException
+  {
+    return borrow(null, borrowTimeoutMs);
+  }
+
+  // prefer a connection to the given URI if it is not null, the caller could still get a connection
+  // to another URI if the pool is full or the preferred URI cannot be reached
+  public ThriftConnection borrow(URI preferredUri, long timeoutMs) throws TException
+  {
+    long deadline = System.currentTimeMillis() + Math.min(timeoutMs, borrowTimeoutMs);
+    while (true) {
+      ThriftConnection connection = null;
+      synchronized (this) {
+        while (idleConnections.isEmpty() && numConnections >= maxSize) {
+          long waitMs = deadline - System.currentTimeMillis();
+          if (waitMs <= 0) {
+            throw new TTransportException(TTransportException.TIMED_OUT,
+                "Timed out waiting for a connection to Hive Metastore, pool size: " + maxSize);
+          }
+          try {
+            wait(waitMs);
+          }
+          catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TTransportException(TTransportException.UNKNOWN, "Interrupted while waiting for a connection", e);
+          }
+        }
+        connection = pollIdle(preferredUri);
+        if (connection == null) {
+          // reserve a slot for the new connection
+          numConnections++;
+        }
+      }
+
+      if (connection == null) {
+        try {
+          return connect(preferredUri);
+        }
+        catch (TException | RuntimeException e) {
+          release(null, true);
+          throw e;
+        }
+      }
+      if (validate(connection)) {
+        return connection;
+      }
+      // the idle connection is broken, drop it and try the next one
+      invalidate(connection);
+    }
+  }
+
+  // an idle connection to the preferred URI if any, otherwise any idle connection if the pool
+  // is full, or null to open a new connection to the preferred URI
+  private ThriftConnection pollIdle(URI preferredUri)
+  {
+    if (preferredUri != null) {
+      Iterator<ThriftConnection> iterator = idleConnections.iterator();
+      while (iterator.hasNext()) {
+        ThriftConnection connection = iterator.next();
+        if (connection.getURI().equals(preferredUri)) {
+          iterator.remove();
+          return connection;
+        }
+      }
+      if (numConnections < maxSize) {
+        return null;
+      }
+    }
+    return idleConnections.pollFirst();
+  }
+
+  // return a healthy connection to the pool with its default read timeout
+  public void release(ThriftConnection connection)
+  {
+    release(connection, false);
+  }
+
+  // close a connection whose transport might be broken and remove it from the pool
+  public void invalidate(ThriftConnection connection)
+  {
+    connection.close();
+    release(connection, true);
+  }
+
+  // close the idle connections to the given URI, e.g., after a transport failure which most
+  // likely means that HMS instance has been restarted and its other connections are dead too
+  public synchronized void invalidateIdle(URI uri)
+  {
+    Iterator<ThriftConnection> iterator = idleConnections.iterator();
+    while (iterator.hasNext()) {
+      ThriftConnection connection = iterator.next();
+      if (connection.getURI().equals(uri)) {
+        iterator.remove();
+        connection.close();
+        numConnections--;
+      }
+    }
+    notifyAll();
+  }
+
+  // close all the idle connections
+  public synchronized void close()
+  {
+    for (ThriftConnection connection : idleConnections) {
+      connection.close();
+    }
+    numConnections -= idleConnections.size();
+    idleConnections.clear();
+    notifyAll();
+  }
+
+  private synchronized void release(ThriftConnection connection, boolean evicted)
+  {
+    if (evicted) {
+      numConnections--;
+    }
+    else {
+      connection.resetTimeout();
+      connection.touch();
+      idleConnections.addFirst(connection);
+    }
+    notifyAll();
+  }
+
+  // open a connection to the preferred URI, or the next URI in a round robin way if there is no
+  // preference, and fail over to the remaining URIs if it does not work
+  private ThriftConnection connect(URI preferredUri) throws TException
+  {
+    int start = preferredUri == null ? -1 : uris.indexOf(preferredUri);
+    if (start < 0) {
+      synchronized (this) {
+        start = nextUriIndex;
+        nextUriIndex = (nextUriIndex + 1) % uris.size();
+      }
+    }
+    TException lastException = null;
+    for (int i = 0; i < uris.size(); i++) {
+      URI uri = uris.get((start + i) % uris.size());
+      try {
+        return factory.connect(uri);
+      }
+      catch (TException e) {
+        LOG.warn("Failed to connect to Hive Metastore {}: {}", uri, e.getMessage());
+        lastException = e;
+      }
+    }
+    throw new TTransportException(TTransportException.NOT_OPEN,
+        "Failed to connect to any Hive Metastore in " + uris, lastException);
+  }
+
+  // an idle connection is validated before reuse only if it has not been used recently,
+  // so the health check does not add a round trip to every call under steady load. A socket
+  // silently dropped, e.g., by a NAT gateway, never answers, so the check has a short timeout
+  // of its own, capped by the deadline of the request, and a connection that times out is
+  // dropped like a broken one
+  private boolean validate(ThriftConnection connection)
+  {
+    if (!connection.isOpen()) {
+      return false;
+    }
+    if (connection.getIdleMillis() < validationIntervalMs) {
+      return true;
+    }
+    long timeoutMs = Deadline.remainingMillis(VALIDATION_TIMEOUT_MS);
+    if (timeoutMs <= 0) {
+      // no time left to check it, the call on it fails on the deadline anyway
+      return true;
+    }
+    connection.setTimeout((int) timeoutMs);
+    try {
+      connection.getClient().getStatus();
+      return true;
+    }
+    catch (TException | RuntimeException e) {
+      LOG.info("Evicting stale connection to {}: {}", connection, e.getMessage());
+      return false;
+    }
+    finally {
+      connection.resetTimeout();
+    }
+  }
+}
@@ -23,18 +23,30 @@ import com.google.common.base.Joiner;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.metastore.MetaStoreUtils;
+import org.apache.hadoop.hive.metastore.Warehouse;
+import org.apache.hadoop.hive.metastore.api.AddPartitionsRequest;
+import org.apache.hadoop.hive.metastore.api.AggrStats;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.DropPartitionsRequest;
 import org.apache.hadoop.hive.metastore.api.DropPartitionsResult;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
+import org.apache.hadoop.hive.metastore.api.NotificationEvent;
+import org.apache.hadoop.hive.metastore.api.NotificationEventRequest;
 import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.PartitionsStatsRequest;
 import org.apache.hadoop.hive.metastore.api.RequestPartsSpec;
 import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.metastore.api.TableMeta;
+import org.apache.hadoop.hive.metastore.api.TableStatsRequest;
 import org.apache.hadoop.hive.metastore.api.ThriftHiveMetastore;
 import org.apache.hadoop.hive.shims.ShimLoader;
 import org.apache.hadoop.hive.shims.Utils;
 import org.apache.hadoop.hive.thrift.HadoopThriftAuthBridge;
 import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.thrift.TBase;
 import org.apache.thrift.TException;
 import org.apache.thrift.protocol.TBinaryProtocol;
 import org.apache.thrift.protocol.TCompactProtocol;
@@ -42,103 +54,590 @@ import org.apache.thrift.protocol.TProtocol;
 import org.apache.thrift.transport.TFastFramedTransport;
 import org.apache.thrift.transport.TSocket;
 import org.apache.thrift.transport.TTransport;
+import org.apache.thrift.transport.TTransportException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.security.auth.login.LoginException;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 // The thrift client to communicate with Hive Metastore via Thrift APIs
 public class ThriftHiveMetaStoreClient implements HiveMetaStoreClient
 {
-  private static final String HIVE_SITE = "hive-site.xml";
-  private static final String CORE_SITE = "core-site.xml";
-  private static final String HADOOP_RPC_PROTECTION = "hadoop.rpc.protection";
+  private static final Logger LOG = LoggerFactory.getLogger(ThriftHiveMetaStoreClient.class);
   private static final long SOCKET_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(600);
+  // alternatives of literal name characters and ".*" wildcards
+  private static final Pattern METASTORE_PATTERN_REGEX =
+      Pattern.compile("(?:[A-Za-z0-9_]|\\.\\*)+(?:\\|(?:[A-Za-z0-9_]|\\.\\*)+)*");
+  // the classes of operations with comparable latencies, a bulk read is expected to be much slower
+  // than a point read, so the limiter tracks the latency of each class separately
+  private static final String READ = "read";
+  private static final String BULK_READ = "bulkRead";
+  private static final String WRITE = "write";
 
-  private ThriftHiveMetastore.Iface client;
-  private TTransport transport;
-  private URI serverURI;
+  private final ThriftConnectionPool pool;
+  // the max number of attempts of idempotent read calls
+  private final int maxAttempts;
+  // the base delay between two attempts of idempotent read calls
+  private final long backoffMs;
+  // fetches many objects concurrently over the pooled connections
+  private final ParallelExecutor parallelExecutor;
+  // the max number of partitions fetched by names in one call
+  private final int partitionBatchSize;
+  // the max number of partitions added, altered or dropped in one call
+  private final int partitionWriteBatchSize;
+  // caches the results of dbExists and tableExists for a short time
+  private final ExistenceCache existenceCache;
+  // the cached login user, which is used to open all the connections
+  private final LoginManager loginManager;
+  // picks the HMS instance for each call and decides when to hedge a read
+  private final MetastoreRouter router;
+  // runs the attempts of hedged reads, null if hedging is disabled
+  private final ExecutorService hedgeExecutor;
+  // bounds the concurrent calls to what HMS could serve without queueing
+  private final AdaptiveLimiter limiter;
+  // fails the calls fast while HMS is failing
+  private final CircuitBreaker circuitBreaker;
+  // invalidates the cached metadata changed by other HMS clients
+  private final NotificationTracker notificationTracker;
 
   public URI getServerURI()
   {
-    return serverURI;
+    return pool.getURIs().get(0);
   }
 
   @Override
   public String toString()
   {
-    return serverURI.toString();
+    return pool.getURIs().toString();
   }
 
   public ThriftHiveMetaStoreClient(HiveConf conf)
       throws TException, IOException, InterruptedException, LoginException, URISyntaxException
   {
-    String metastoreUri = conf.getVar(HiveConf.ConfVars.METASTOREURIS);
-    getClient(new URI(metastoreUri), conf);
+    this(null, conf);
   }
 
   public ThriftHiveMetaStoreClient(URI uri, HiveConf conf)
       throws TException, IOException, InterruptedException, LoginException, URISyntaxException
   {
-    getClient(uri, conf);
+    this(conf, uri != null ? Collections.singletonList(uri) : getURIs(conf), createLoginManager(conf), null);
   }
 
-  private void getClient(URI uri, HiveConf conf)
-      throws TException, IOException, InterruptedException, URISyntaxException, LoginException
+  // a client of the given URIs, the connection factory could be replaced in tests, otherwise it is
+  // null to open thrift connections as the login user
+  ThriftHiveMetaStoreClient(HiveConf conf, List<URI> uris, LoginManager loginManager,
+                            ThriftConnectionPool.ConnectionFactory connectionFactory) throws TException
   {
-    getClient(uri, conf, false);
+    this.maxAttempts = Math.max(1, conf.getInt(HiveMetaStoreConf.HMS_CLIENT_RETRY_MAX_ATTEMPTS,
+        HiveMetaStoreConf.DEFAULT_HMS_CLIENT_RETRY_MAX_ATTEMPTS));
+    this.backoffMs = conf.getLong(HiveMetaStoreConf.HMS_CLIENT_RETRY_BACKOFF_MS,
+        HiveMetaStoreConf.DEFAULT_HMS_CLIENT_RETRY_BACKOFF_MS);
+    this.parallelExecutor = new ParallelExecutor(conf.getInt(HiveMetaStoreConf.HMS_CLIENT_PARALLELISM,
+        HiveMetaStoreConf.DEFAULT_HMS_CLIENT_PARALLELISM));
+    this.partitionBatchSize = Math.max(1, conf.getInt(HiveMetaStoreConf.HMS_CLIENT_PARTITION_BATCH_SIZE,
+        HiveMetaStoreConf.DEFAULT_HMS_CLIENT_PARTITION_BATCH_SIZE));
+    this.partitionWriteBatchSize = Math.max(1, conf.getInt(HiveMetaStoreConf.HMS_CLIENT_PARTITION_WRITE_BATCH_SIZE,
+        HiveMetaStoreConf.DEFAULT_HMS_CLIENT_PARTITION_WRITE_BATCH_SIZE));
+    this.existenceCache = new ExistenceCache(conf.getLong(HiveMetaStoreConf.HMS_CLIENT_EXISTENCE_CACHE_TTL_MS,
+        HiveMetaStoreConf.DEFAULT_HMS_CLIENT_EXISTENCE_CACHE_TTL_MS));
+    this.loginManager = loginManager;
+    this.router = new MetastoreRouter(uris, conf.getDouble(HiveMetaStoreConf.HMS_CLIENT_HEDGE_PERCENTILE,
+        HiveMetaStoreConf.DEFAULT_HMS_CLIENT_HEDGE_PERCENTILE));
+    this.hedgeExecutor = router.isHedgingEnabled() ? Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "hms-hedged-read");
+      thread.setDaemon(true);
+      return thread;
+    }) : null;
+    int poolSize = conf.getInt(HiveMetaStoreConf.HMS_CLIENT_POOL_SIZE, HiveMetaStoreConf.DEFAULT_HMS_CLIENT_POOL_SIZE);
+    this.limiter = new AdaptiveLimiter(poolSize, conf.getDouble(HiveMetaStoreConf.HMS_CLIENT_LIMITER_LATENCY_TOLERANCE,
+        HiveMetaStoreConf.DEFAULT_HMS_CLIENT_LIMITER_LATENCY_TOLERANCE));
+    this.circuitBreaker = new CircuitBreaker(
+        conf.getDouble(HiveMetaStoreConf.HMS_CLIENT_CIRCUIT_BREAKER_FAILURE_RATE,
+            HiveMetaStoreConf.DEFAULT_HMS_CLIENT_CIRCUIT_BREAKER_FAILURE_RATE),
+        conf.getLong(HiveMetaStoreConf.HMS_CLIENT_CIRCUIT_BREAKER_OPEN_MS,
+            HiveMetaStoreConf.DEFAULT_HMS_CLIENT_CIRCUIT_BREAKER_OPEN_MS));
+    this.pool = new ThriftConnectionPool(uris,
+        poolSize,
+        conf.getLong(HiveMetaStoreConf.HMS_CLIENT_POOL_VALIDATION_INTERVAL_MS,
+            HiveMetaStoreConf.DEFAULT_HMS_CLIENT_POOL_VALIDATION_INTERVAL_MS),
+        SOCKET_TIMEOUT_MS,
+        connectionFactory != null ? connectionFactory : serverURI -> getClient(serverURI, conf));
+    this.notificationTracker = new NotificationTracker(new NotificationTracker.Source()
+    {
+      @Override
+      public long getCurrentEventId() throws TException
+      {
+        return getCurrentNotificationId();
+      }
+
+      @Override
+      public List<NotificationEvent> getNextEvents(long lastEventId, int maxEvents) throws TException
+      {
+        return getNextNotifications(lastEventId, maxEvents);
+      }
+    }, conf.getLong(HiveMetaStoreConf.HMS_CLIENT_NOTIFICATION_POLL_INTERVAL_MS,
+        HiveMetaStoreConf.DEFAULT_HMS_CLIENT_NOTIFICATION_POLL_INTERVAL_MS));
+    notificationTracker.addListener(new ExistenceCacheInvalidator());
+    // open the first connection eagerly so that a wrong configuration fails fast
+    pool.release(pool.borrow());
   }
 
-  private void getClient(URI uri, HiveConf conf, boolean kerberosEnabled)
-      throws TException, IOException, InterruptedException, URISyntaxException, LoginException
+  // drops the existence checks of the databases and tables changed by other HMS clients
+  private class ExistenceCacheInvalidator implements MetadataChangeListener
   {
-    // Pick up the first URI from the list of available URIs
-    serverURI = uri != null ?
-        uri :
-        new URI(conf.getVar(HiveConf.ConfVars.METASTOREURIS).split(",")[0]);
+    @Override
+    public void onDatabaseChanged(String dbName)
+    {
+      invalidateDatabase(dbName);
+    }
 
-    if (kerberosEnabled) {
-      String principal = conf.getVar(HiveConf.ConfVars.METASTORE_KERBEROS_PRINCIPAL);
-      if (principal == null) {
-        open(conf, serverURI);
-        return;
+    @Override
+    public void onTableChanged(String dbName, String tableName)
+    {
+      if (tableName != null) {
+        existenceCache.invalidate(tableKey(dbName, tableName));
       }
+    }
+
+    @Override
+    public void onPartitionsChanged(String dbName, String tableName)
+    {
+    }
+
+    @Override
+    public void onReset()
+    {
+      existenceCache.clear();
+    }
+  }
+
+  public void addChangeListener(MetadataChangeListener listener)
+  {
+    notificationTracker.addListener(listener);
+  }
 
-      // Kerberos magic
-      Configuration hadoopConf = new Configuration();
-      addResourceFromClassPath(hadoopConf, CORE_SITE);
-      addResourceFromClassPath(hadoopConf, HIVE_SITE);
+  public void pollChanges()
+  {
+    try {
+      notificationTracker.poll();
+    }
+    catch (TException | RuntimeException e) {
+      // the caches still expire by their TTLs
+      LOG.warn("Failed to poll the notification log from event {}", notificationTracker.getLastEventId(), e);
+    }
+  }
 
-      System.out.println(HADOOP_RPC_PROTECTION + ": " + hadoopConf.get(HADOOP_RPC_PROTECTION));
-      conf.set(HADOOP_RPC_PROTECTION, hadoopConf.get(HADOOP_RPC_PROTECTION));
+  // the limiter never allows more calls than the pool has connections, so half of its current
+  // limit in flight means the pool is half borrowed as well
+  public boolean isBusy()
+  {
+    return circuitBreaker.isOpen() || limiter.getInFlight() * 2 >= limiter.getLimit();
+  }
 
-      UserGroupInformation.setConfiguration(hadoopConf);
-      UserGroupInformation loginUser = UserGroupInformation.getLoginUser();
-      loginUser.checkTGTAndReloginFromKeytab();
+  private static LoginManager createLoginManager(HiveConf conf) throws IOException, LoginException
+  {
+    // Kerberos is only used when the HMS principal is configured
+    boolean kerberosEnabled = conf.getBoolean(HiveMetaStoreConf.HMS_KERBEROS_ENABLED, false)
+        && conf.getVar(HiveConf.ConfVars.METASTORE_KERBEROS_PRINCIPAL) != null;
+    return new LoginManager(conf, kerberosEnabled,
+        conf.getLong(HiveMetaStoreConf.HMS_KERBEROS_RENEW_INTERVAL_MS, HiveMetaStoreConf.DEFAULT_HMS_KERBEROS_RENEW_INTERVAL_MS));
+  }
 
-      loginUser.doAs((PrivilegedExceptionAction<TTransport>)
-          () -> open(conf, serverURI));
+  // all the URIs in hive.metastore.uris, the pool fails over between them
+  private static List<URI> getURIs(HiveConf conf) throws URISyntaxException
+  {
+    List<URI> uris = new ArrayList<>();
+    for (String metastoreUri : conf.getVar(HiveConf.ConfVars.METASTOREURIS).split(",")) {
+      if (!metastoreUri.trim().isEmpty()) {
+        uris.add(new URI(metastoreUri.trim()));
+      }
+    }
+    return uris;
+  }
 
-      String keytab = conf.getVar(HiveConf.ConfVars.METASTORE_KERBEROS_KEYTAB_FILE);
+  private ThriftConnection getClient(URI serverURI, HiveConf conf) throws TException
+  {
+    try {
+      // the login happened once when the client was created, the TGT is renewed in the background
+      return loginManager.doAs(() -> open(conf, serverURI));
     }
-    else {
-      open(conf, serverURI);
+    catch (IOException | LoginException e) {
+      throw new TTransportException(TTransportException.NOT_OPEN, "Failed to connect to " + serverURI, e);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TTransportException(TTransportException.NOT_OPEN, "Interrupted while connecting to " + serverURI, e);
+    }
+  }
+
+  // a call to the Hive Metastore with a pooled connection
+  private interface ThriftCall<T>
+  {
+    T call(ThriftHiveMetastore.Iface client) throws TException;
+  }
+
+  // One attempt of a call on a borrowed connection. A hedged read cancels the attempt that lost the
+  // race by closing its connection, which unblocks its pending socket read.
+  private static class Attempt
+  {
+    // the read operation whose latency is recorded by the router, null for bulk reads and writes
+    private final String operation;
+    // the class of operations whose latencies the limiter compares with each other
+    private final String operationClass;
+    private ThriftConnection connection;
+    private boolean cancelled;
+    private boolean finished;
+
+    private Attempt(String operation, String operationClass)
+    {
+      this.operation = operation;
+      this.operationClass = operationClass;
+    }
+
+    // return false if the attempt has been cancelled before it started
+    private synchronized boolean start(ThriftConnection connection)
+    {
+      this.connection = connection;
+      return !cancelled;
+    }
+
+    // return false if the attempt has been cancelled, i.e., its connection has been closed
+    private synchronized boolean finish()
+    {
+      finished = true;
+      return !cancelled;
+    }
+
+    private synchronized boolean isCancelled()
+    {
+      return cancelled;
+    }
+
+    private synchronized void cancel()
+    {
+      if (!finished && !cancelled) {
+        cancelled = true;
+        if (connection != null) {
+          connection.close();
+        }
+      }
+    }
+  }
+
+  // the state of a hedged read, which completes with the first successful attempt, or with the
+  // failure of the first attempt once all the started attempts failed
+  private static class HedgedRead<T>
+  {
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private int running;
+    private Throwable failure;
+
+    private synchronized boolean launch()
+    {
+      if (result.isDone()) {
+        return false;
+      }
+      running++;
+      return true;
+    }
+
+    private synchronized void succeed(T value)
+    {
+      running--;
+      result.complete(value);
+    }
+
+    private synchronized void fail(Throwable e)
+    {
+      running--;
+      if (failure == null) {
+        failure = e;
+      }
+      if (running == 0) {
+        result.completeExceptionally(failure);
+      }
+    }
+  }
+
+  // a read, or a hedged read, that could be retried
+  private interface Read<T>
+  {
+    T run() throws TException;
+  }
+
+  // Every HMS operation goes through either read(), bulkRead() or write(). A read is idempotent, so if
+  // its transport breaks, e.g., during a rolling restart of HMS, it is retried on a new connection
+  // with jittered exponential backoff within the same invocation. A write might have been applied
+  // before the transport broke, so its error is surfaced to the caller unchanged.
+  private <T> T read(String operation, ThriftCall<T> call) throws TException
+  {
+    return retry(() -> hedgedCall(operation, call));
+  }
+
+  // A read whose result could be large, e.g., all the partition names of a table or a batch of
+  // partitions. It takes as long as its result is large rather than as HMS is healthy, thus it is
+  // neither hedged, which would double the load of the most expensive calls, nor used to rank
+  // the instances.
+  private <T> T bulkRead(ThriftCall<T> call) throws TException
+  {
+    return retry(() -> call(router.rank().get(0), call, new Attempt(null, BULK_READ)));
+  }
+
+  private <T> T retry(Read<T> read) throws TException
+  {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return read.run();
+      }
+      catch (TTransportException e) {
+        if (attempt >= maxAttempts) {
+          throw e;
+        }
+        Deadline deadline = Deadline.current();
+        if (deadline != null && deadline.isExpired()) {
+          // most likely the call was cut by the socket timeout derived from the deadline
+          throw new DeadlineExceededException("Deadline of the request exceeded", e);
+        }
+        LOG.warn("Retrying read after transport failure, attempt {}: {}", attempt, e.getMessage());
+        backoff(attempt);
+      }
+    }
+  }
+
+  private <T> T write(ThriftCall<T> call) throws TException
+  {
+    return call(router.rank().get(0), call, new Attempt(null, WRITE));
+  }
+
+  // "full jitter" backoff, i.e., a random delay between 0 and backoffMs * 2^(attempt - 1)
+  private void backoff(int attempt) throws TTransportException
+  {
+    // never sleep past the deadline of the request
+    long maxDelayMs = Math.max(0, Deadline.remainingMillis(backoffMs << Math.min(attempt - 1, 10)));
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(maxDelayMs + 1));
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TTransportException(TTransportException.UNKNOWN, "Interrupted while waiting to retry", e);
+    }
+  }
+
+  // Send a read to the fastest healthy HMS instance. If it takes longer than the configured percentile
+  // of the recent latencies of the same operation, send a duplicate to the second fastest instance,
+  // use whichever answers first and cancel the other one. A single slow instance, e.g., during a GC
+  // pause, then doesn't set the tail latency.
+  private <T> T hedgedCall(String operation, ThriftCall<T> call) throws TException
+  {
+    List<URI> ranked = router.rank();
+    long hedgeDelayMs = router.getHedgeDelayMillis(operation);
+    if (hedgeDelayMs < 0) {
+      return call(ranked.get(0), call, new Attempt(operation, READ));
+    }
+
+    Deadline deadline = Deadline.current();
+    HedgedRead<T> hedgedRead = new HedgedRead<>();
+    Attempt primary = new Attempt(operation, READ);
+    Attempt hedge = new Attempt(operation, READ);
+    hedgedRead.launch();
+    hedgeExecutor.execute(() -> runAttempt(ranked.get(0), call, primary, hedgedRead, deadline));
+    try {
+      try {
+        return hedgedRead.result.get(hedgeDelayMs, TimeUnit.MILLISECONDS);
+      }
+      catch (TimeoutException e) {
+        if (hedgedRead.launch()) {
+          hedgeExecutor.execute(() -> runAttempt(ranked.get(1), call, hedge, hedgedRead, deadline));
+        }
+        return hedgedRead.result.get();
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TTransportException(TTransportException.UNKNOWN, "Interrupted while waiting for a read", e);
+    }
+    catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof TException) {
+        throw (TException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new TException(cause);
+    }
+    finally {
+      // cancel the loser, a finished attempt is not affected
+      primary.cancel();
+      hedge.cancel();
+    }
+  }
+
+  private <T> void runAttempt(URI uri, ThriftCall<T> call, Attempt attempt, HedgedRead<T> hedgedRead,
+                              Deadline deadline)
+  {
+    Deadline.set(deadline);
+    try {
+      hedgedRead.succeed(call(uri, call, attempt));
+    }
+    catch (Throwable e) {
+      hedgedRead.fail(e);
+    }
+    finally {
+      Deadline.clear();
+    }
+  }
+
+  // Admission control in front of HMS: a call fails fast while the circuit breaker is open, and waits
+  // for a slot of the adaptive limiter otherwise. The outcome of the call then feeds both of them.
+  private <T> T call(URI uri, ThriftCall<T> call, Attempt attempt) throws TException
+  {
+    // bound the call by the time left before the deadline of the request
+    long timeoutMs = Deadline.remainingMillis(SOCKET_TIMEOUT_MS);
+    if (timeoutMs <= 0) {
+      throw new DeadlineExceededException("Deadline of the request exceeded");
+    }
+    CircuitBreaker.Permit permit = circuitBreaker.allowRequest();
+    if (permit == null) {
+      throw new MetastoreOverloadedException("Too many recent metastore calls failed, try again later");
+    }
+    try {
+      if (!limiter.acquire(timeoutMs)) {
+        circuitBreaker.recordIgnored(permit);
+        throw new MetastoreOverloadedException("Timed out waiting for one of the " + limiter.getLimit() +
+            " concurrent metastore calls to finish, try again later");
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      circuitBreaker.recordIgnored(permit);
+      throw new TTransportException(TTransportException.UNKNOWN, "Interrupted while waiting to call the metastore", e);
+    }
+
+    ThriftConnection connection;
+    try {
+      connection = pool.borrow(uri, timeoutMs);
+    }
+    catch (TException | RuntimeException e) {
+      if (e instanceof TTransportException && ((TTransportException) e).getType() == TTransportException.NOT_OPEN) {
+        // no HMS instance could be reached
+        limiter.onDropped();
+        circuitBreaker.recordFailure(permit);
+      }
+      else {
+        limiter.onIgnored();
+        circuitBreaker.recordIgnored(permit);
+      }
+      throw e;
+    }
+    long startMillis = System.currentTimeMillis();
+    try {
+      T result = call(connection, call, attempt);
+      if (attempt.isCancelled()) {
+        limiter.onIgnored();
+        circuitBreaker.recordIgnored(permit);
+      }
+      else {
+        limiter.onSuccess(attempt.operationClass, System.currentTimeMillis() - startMillis);
+        circuitBreaker.recordSuccess(permit);
+      }
+      return result;
+    }
+    catch (TException | RuntimeException e) {
+      Deadline deadline = Deadline.current();
+      if (attempt.isCancelled()) {
+        limiter.onIgnored();
+        circuitBreaker.recordIgnored(permit);
+      }
+      else if (e instanceof TBase) {
+        // HMS answered, e.g., NoSuchObjectException
+        limiter.onSuccess(attempt.operationClass, System.currentTimeMillis() - startMillis);
+        circuitBreaker.recordSuccess(permit);
+      }
+      else if (e instanceof TTransportException && (deadline == null || !deadline.isExpired())) {
+        limiter.onDropped();
+        circuitBreaker.recordFailure(permit);
+      }
+      else {
+        // a call cut by the deadline of the request says little about the health of HMS
+        limiter.onIgnored();
+        circuitBreaker.recordIgnored(permit);
+      }
+      throw e;
+    }
+  }
+
+  private <T> T call(ThriftConnection connection, ThriftCall<T> call, Attempt attempt) throws TException
+  {
+    if (!attempt.start(connection)) {
+      pool.release(connection);
+      throw new TTransportException(TTransportException.UNKNOWN, "The call has been cancelled");
+    }
+    long startMillis = System.currentTimeMillis();
+    try {
+      // a zero timeout would mean no timeout at all
+      connection.setTimeout((int) Math.max(1, Deadline.remainingMillis(SOCKET_TIMEOUT_MS)));
+      T result = call.call(connection.getClient());
+      if (attempt.finish()) {
+        pool.release(connection);
+        if (attempt.operation != null) {
+          router.recordSuccess(connection.getURI(), attempt.operation, System.currentTimeMillis() - startMillis);
+        }
+        else {
+          router.recordSuccess(connection.getURI());
+        }
+      }
+      else {
+        pool.invalidate(connection);
+      }
+      return result;
+    }
+    catch (TException | RuntimeException e) {
+      if (!attempt.finish()) {
+        // cancelled by a hedged read, the connection has been closed on purpose
+        pool.invalidate(connection);
+      }
+      else if (e instanceof TBase) {
+        // exceptions declared in the thrift IDL, e.g., NoSuchObjectException, are fully
+        // read from the wire and the connection is still usable
+        pool.release(connection);
+      }
+      else {
+        // transport or protocol errors, the connection state is unknown and it must not be reused
+        pool.invalidate(connection);
+        Deadline deadline = Deadline.current();
+        // a call cut by the deadline doesn't mean that the other connections to the URI are broken
+        if (e instanceof TTransportException && (deadline == null || !deadline.isExpired())) {
+          pool.invalidateIdle(connection.getURI());
+          router.recordFailure(connection.getURI());
+        }
+      }
+      throw e;
     }
   }
 
@@ -150,80 +649,129 @@ public class ThriftHiveMetaStoreClient implements HiveMetaStoreClient
     }
   }
 
-  private void addResourceFromClassPath(Configuration conf, String fileName) throws MalformedURLException
+  public boolean dbExists(String dbName) throws TException
+  {
+    String key = databaseKey(dbName);
+    Boolean exists = existenceCache.get(key);
+    if (exists == null) {
+      try {
+        getDatabase(dbName);
+        exists = true;
+      }
+      catch (NoSuchObjectException e) {
+        exists = false;
+      }
+      existenceCache.put(key, exists);
+    }
+    return exists;
+  }
+
+  public boolean tableExists(String dbName, String tableName) throws TException
   {
-    InputStream in = getClass().getResourceAsStream("/" + fileName);
-    conf.addResource(in);
+    String key = tableKey(dbName, tableName);
+    Boolean exists = existenceCache.get(key);
+    if (exists == null) {
+      try {
+        getTable(dbName, tableName);
+        exists = true;
+      }
+      catch (NoSuchObjectException e) {
+        exists = false;
+      }
+      existenceCache.put(key, exists);
+    }
+    return exists;
   }
 
-  public boolean dbExists(String dbName) throws TException
+  // HMS object names are case-insensitive
+  private static String databaseKey(String dbName)
   {
-    return getDatabaseNames(dbName).contains(dbName);
+    return dbName.toLowerCase();
   }
 
-  public boolean tableExists(String dbName, String tableName) throws TException
+  private static String tableKey(String dbName, String tableName)
+  {
+    return databaseKey(dbName) + "." + tableName.toLowerCase();
+  }
+
+  private void invalidateDatabase(String dbName)
   {
-    return getTableNames(dbName, tableName).contains(tableName);
+    String key = databaseKey(dbName);
+    existenceCache.invalidate(key);
+    // dropping a database drops its tables as well
+    existenceCache.invalidateIf(k -> k.startsWith(key + "."));
   }
 
   public Database getDatabase(String dbName) throws TException
   {
-    return client.get_database(dbName);
+    return read("get_database", client -> client.get_database(dbName));
   }
 
   public Set<String> getDatabaseNames(String filter) throws TException
   {
     if (filter == null || filter.isEmpty()) {
-      return new HashSet<>(client.get_all_databases());
+      return new HashSet<>(read("get_all_databases", client -> client.get_all_databases()));
     }
-    return client.get_all_databases()
-        .stream()
-        .filter(n -> n.matches(filter))
-        .collect(Collectors.toSet());
+    String pattern = toMetastorePattern(filter);
+    List<String> databaseNames = pattern == null ? read("get_all_databases", client -> client.get_all_databases())
+        : read("get_databases", client -> client.get_databases(pattern));
+    return filterNames(databaseNames, filter);
   }
 
   // fetch all database objects in one call to avoid multiple lambda apis calls
   public List<Database> getDatabases(String filter) throws TException
   {
-    List<Database> databases = new ArrayList<>();
     Set<String> databaseNames = getDatabaseNames(filter);
-    if (databaseNames != null && !databaseNames.isEmpty()) {
-      for (String databaseName : databaseNames) {
-        databases.add(getDatabase(databaseName));
-      }
+    if (databaseNames == null || databaseNames.isEmpty()) {
+      return new ArrayList<>();
     }
-
-    return databases;
+    return getDatabasesByNames(new ArrayList<>(databaseNames));
   }
 
+  // HMS has no batch API for databases, fetch them concurrently and keep the order of the names
   @Override
   public List<Database> getDatabasesByNames(List<String> dbNames) throws TException
   {
-    List<Database> databases = new ArrayList<>();
-    if (dbNames != null && !dbNames.isEmpty()) {
-      for (String databaseName : dbNames) {
-        databases.add(getDatabase(databaseName));
-      }
-    }
-
-    return databases;
+    return parallelExecutor.map(dbNames, this::getDatabase);
   }
 
   public Set<String> getTableNames(String dbName, String filter) throws TException
   {
     if (filter == null || filter.isEmpty()) {
-      return new HashSet<>(client.get_all_tables(dbName));
+      return new HashSet<>(bulkRead(client -> client.get_all_tables(dbName)));
     }
-    return client.get_all_tables(dbName)
+    String pattern = toMetastorePattern(filter);
+    List<String> tableNames = pattern == null ? bulkRead(client -> client.get_all_tables(dbName))
+        : read("get_tables", client -> client.get_tables(dbName, pattern));
+    return filterNames(tableNames, filter);
+  }
+
+  // HMS matches a name pattern case-insensitively against whole names, where "*" means any
+  // characters and "|" separates alternatives. A regex built only from literal name characters,
+  // ".*" and top level "|" is translated to such a pattern so that HMS only returns candidate names,
+  // otherwise return null to fetch all the names.
+  static String toMetastorePattern(String regex)
+  {
+    if (!METASTORE_PATTERN_REGEX.matcher(regex).matches()) {
+      return null;
+    }
+    return regex.replace(".*", "*");
+  }
+
+  // the regex is always applied on the names since HMS patterns are case-insensitive
+  private static Set<String> filterNames(List<String> names, String regex)
+  {
+    Pattern pattern = Pattern.compile(regex);
+    return names
         .stream()
-        .filter(n -> n.matches(filter))
+        .filter(n -> pattern.matcher(n).matches())
         .collect(Collectors.toSet());
   }
 
   public List<Table> getTablesByNames(String dbName, List<String> tableNames)
       throws TException
   {
-    return client.get_table_objects_by_name(dbName, tableNames);
+    return bulkRead(client -> client.get_table_objects_by_name(dbName, tableNames));
   }
 
   public boolean createDatabase(String name) throws TException
@@ -238,128 +786,470 @@ public class ThriftHiveMetaStoreClient implements HiveMetaStoreClient
       throws TException
   {
     Database db = new Database(name, description, location, params);
-    client.create_database(db);
-    return true;
+    return createDatabase(db);
   }
 
   public boolean createDatabase(Database db) throws TException
   {
-    client.create_database(db);
+    try {
+      write(client -> {
+        client.create_database(db);
+        return null;
+      });
+    }
+    finally {
+      invalidateDatabase(db.getName());
+    }
     return true;
   }
 
   public boolean dropDatabase(String dbName) throws TException
   {
-    client.drop_database(dbName, true, true);
+    try {
+      write(client -> {
+        client.drop_database(dbName, true, true);
+        return null;
+      });
+    }
+    finally {
+      invalidateDatabase(dbName);
+    }
     return true;
   }
 
   public boolean createTable(Table table) throws TException
   {
-    client.create_table(table);
+    try {
+      write(client -> {
+        client.create_table(table);
+        return null;
+      });
+    }
+    finally {
+      existenceCache.invalidate(tableKey(table.getDbName(), table.getTableName()));
+    }
     return true;
   }
 
-  public boolean dropTable(String dbName, String tableName) throws TException
+  // With dropPartitionsFirst, the partitions of a partitioned table are dropped in batches before the
+  // table, otherwise HMS drops all of them in the same transaction as the table. This is not atomic:
+  // the table must exist, but if drop_table fails afterwards, e.g., because the caller is not allowed
+  // to drop it, the partitions are already gone.
+  public boolean dropTable(String dbName, String tableName, boolean dropPartitionsFirst) throws TException
   {
-    client.drop_table(dbName, tableName, true);
+    try {
+      Table table = dropPartitionsFirst ? getTable(dbName, tableName) : null;
+      if (table != null && table.getPartitionKeysSize() > 0) {
+        DropPartitionsProgress progress = dropPartitions(dbName, tableName, null,
+            !MetaStoreUtils.isExternalTable(table), false);
+        if (!progress.isComplete()) {
+          throw new DeadlineExceededException("Deadline of the request exceeded after dropping " +
+              progress.getNumDropped() + " partitions of " + dbName + "." + tableName);
+        }
+      }
+      write(client -> {
+        client.drop_table(dbName, tableName, true);
+        return null;
+      });
+    }
+    finally {
+      existenceCache.invalidate(tableKey(dbName, tableName));
+    }
     return true;
   }
 
   public Table getTable(String dbName, String tableName) throws TException
   {
-    return client.get_table(dbName, tableName);
+    return read("get_table", client -> client.get_table(dbName, tableName));
   }
 
   public Partition createPartition(Table table, List<String> values) throws TException
   {
-    return client.add_partition(new PartitionBuilder(table).withValues(values).build());
+    return addPartition(new PartitionBuilder(table).withValues(values).build());
   }
 
   public Partition addPartition(Partition partition) throws TException
   {
-    return client.add_partition(partition);
+    return write(client -> client.add_partition(partition));
+  }
+
+  // Add the partitions of a table in batches so that a large backfill is not a single long HMS
+  // transaction. With ifNotExists, the partitions that already exist are skipped instead of
+  // failing their batch.
+  public List<BatchResult> addPartitions(List<Partition> partitions, boolean ifNotExists) throws TException
+  {
+    if (partitions == null || partitions.isEmpty()) {
+      return new ArrayList<>();
+    }
+    // all the partitions belong to the same table, as add_partitions requires
+    String dbName = partitions.get(0).getDbName();
+    String tableName = partitions.get(0).getTableName();
+    return writeBatches(partitions, batch -> {
+      AddPartitionsRequest request = new AddPartitionsRequest(dbName, tableName, batch, ifNotExists);
+      // don't send the added partitions back
+      request.setNeedResult(false);
+      write(client -> client.add_partitions_req(request));
+    });
+  }
+
+  // a write of one batch of partitions
+  private interface BatchCall
+  {
+    void call(List<Partition> batch) throws TException;
   }
 
-  public void addPartitions(List<Partition> partitions) throws TException
+  // Split the partitions into batches, which run concurrently. Each batch succeeds or fails on its
+  // own and none of them is retried, because a batch that broke the transport might have been
+  // applied. The batches not sent before the deadline are reported as failed.
+  private List<BatchResult> writeBatches(List<Partition> partitions, BatchCall call) throws TException
   {
-    client.add_partitions(partitions);
+    List<BatchResult> results = new ArrayList<>();
+    if (partitions == null || partitions.isEmpty()) {
+      return results;
+    }
+    List<Integer> offsets = new ArrayList<>();
+    for (int i = 0; i < partitions.size(); i += partitionWriteBatchSize) {
+      offsets.add(i);
+    }
+    BatchResult[] batchResults = new BatchResult[offsets.size()];
+    try {
+      parallelExecutor.map(offsets, offset -> {
+        List<Partition> batch = partitions.subList(offset,
+            Math.min(offset + partitionWriteBatchSize, partitions.size()));
+        Exception error = null;
+        try {
+          call.call(batch);
+        }
+        catch (TException | RuntimeException e) {
+          error = e;
+        }
+        batchResults[offset / partitionWriteBatchSize] = new BatchResult(offset, batch.size(), error);
+        return null;
+      });
+    }
+    catch (DeadlineExceededException e) {
+      // the remaining batches have not been sent
+    }
+    for (int i = 0; i < batchResults.length; i++) {
+      int offset = offsets.get(i);
+      results.add(batchResults[i] != null ? batchResults[i] : new BatchResult(offset,
+          Math.min(partitionWriteBatchSize, partitions.size() - offset),
+          new DeadlineExceededException("Deadline of the request exceeded before the batch was sent")));
+    }
+    return results;
   }
 
   public Long getCurrentNotificationId() throws TException
   {
-    return client.get_current_notificationEventId().getEventId();
+    return read("get_current_notificationEventId", client -> client.get_current_notificationEventId().getEventId());
+  }
+
+  public List<NotificationEvent> getNextNotifications(long lastEventId, int maxEvents) throws TException
+  {
+    NotificationEventRequest request = new NotificationEventRequest(lastEventId);
+    request.setMaxEvents(maxEvents);
+    return bulkRead(client -> client.get_next_notification(request).getEvents());
   }
 
   public List<String> getPartitionNames(String dbName, String tableName, short maxSize) throws TException
   {
-    return client.get_partition_names(dbName, tableName, maxSize);
+    return bulkRead(client -> client.get_partition_names(dbName, tableName, maxSize));
+  }
+
+  public NameSnapshot getPartitionNameSnapshot(String dbName, String tableName, boolean reuse) throws TException
+  {
+    return NameSnapshot.of(getPartitionNames(dbName, tableName, (short) -1));
   }
 
   public boolean dropPartition(String dbName, String tableName,
                                List<String> arguments)
       throws TException
   {
-    return client.drop_partition(dbName, tableName, arguments, true);
+    return write(client -> client.drop_partition(dbName, tableName, arguments, true));
   }
 
   public List<Partition> getPartitions(String dbName, String tableName, short maxSize) throws TException
   {
-    return client.get_partitions(dbName, tableName, maxSize);
+    return bulkRead(client -> client.get_partitions(dbName, tableName, maxSize));
+  }
+
+  // Drop the given partitions, or all the partitions of the table if partNames is null, in rounds of
+  // concurrent batches, each of which is a separate HMS transaction. Without partNames, every round
+  // fetches the first names left in the table, which HMS returns sorted, so that the names of a
+  // heavily partitioned table are never all in memory. A drop that runs out of time, or fails after
+  // some partitions were dropped, returns an incomplete progress, and sending it again resumes it
+  // since the dropped partitions are skipped. HMS only returns the dropped partitions if needResult
+  // is set, otherwise the sizes of the batches are counted, which overcounts the partitions that
+  // did not exist any more.
+  public DropPartitionsProgress dropPartitions(String dbName, String tableName, List<String> partNames,
+                                               boolean deleteData, boolean needResult) throws TException
+  {
+    int roundSize = Math.min(Short.MAX_VALUE, partitionWriteBatchSize * parallelExecutor.getConcurrency());
+    AtomicInteger numDropped = new AtomicInteger();
+    List<Partition> dropped = needResult ? Collections.synchronizedList(new ArrayList<>()) : null;
+    int offset = 0;
+    String lastFirstName = null;
+    while (true) {
+      List<String> names;
+      if (partNames != null) {
+        names = partNames.subList(offset, Math.min(offset + roundSize, partNames.size()));
+        offset += names.size();
+      }
+      else {
+        try {
+          names = getPartitionNames(dbName, tableName, (short) roundSize);
+        }
+        catch (DeadlineExceededException e) {
+          return new DropPartitionsProgress(numDropped.get(), toDropPartitionsResult(dropped), false);
+        }
+        catch (TException | RuntimeException e) {
+          return incompleteDrop(dbName, tableName, numDropped.get(), dropped, e);
+        }
+        // guard against looping forever if HMS keeps returning partitions that were dropped
+        if (!names.isEmpty() && names.get(0).equals(lastFirstName)) {
+          throw new TException("Partition " + lastFirstName + " of " + dbName + "." + tableName + " was not dropped");
+        }
+        lastFirstName = names.isEmpty() ? null : names.get(0);
+      }
+      if (names.isEmpty()) {
+        return new DropPartitionsProgress(numDropped.get(), toDropPartitionsResult(dropped), true);
+      }
+      List<List<String>> batches = new ArrayList<>();
+      for (int i = 0; i < names.size(); i += partitionWriteBatchSize) {
+        batches.add(names.subList(i, Math.min(i + partitionWriteBatchSize, names.size())));
+      }
+      try {
+        parallelExecutor.map(batches, batch -> {
+          DropPartitionsRequest request = new DropPartitionsRequest(dbName, tableName, RequestPartsSpec.names(batch));
+          request.setDeleteData(deleteData);
+          // the partitions dropped by a previous attempt are skipped
+          request.setNeedResult(needResult);
+          request.setIfExists(true);
+          DropPartitionsResult result = write(client -> client.drop_partitions_req(request));
+          if (!needResult) {
+            numDropped.addAndGet(batch.size());
+          }
+          else if (result != null && result.getPartitions() != null) {
+            numDropped.addAndGet(result.getPartitionsSize());
+            dropped.addAll(result.getPartitions());
+          }
+          return null;
+        });
+      }
+      catch (DeadlineExceededException e) {
+        return new DropPartitionsProgress(numDropped.get(), toDropPartitionsResult(dropped), false);
+      }
+      catch (TException | RuntimeException e) {
+        return incompleteDrop(dbName, tableName, numDropped.get(), dropped, e);
+      }
+    }
   }
 
-  public DropPartitionsResult dropPartitions(String dbName, String tableName,
-                                             List<String> partNames) throws TException
+  // the progress made before a batch failed, the error is only thrown if nothing was dropped
+  private static DropPartitionsProgress incompleteDrop(String dbName, String tableName, int numDropped,
+                                                       List<Partition> dropped, Exception e) throws TException
   {
-    if (partNames == null) {
-      return dropPartitions(dbName, tableName, getPartitionNames(dbName, tableName, (short) -1));
+    if (numDropped == 0) {
+      if (e instanceof TException) {
+        throw (TException) e;
+      }
+      throw (RuntimeException) e;
     }
-    if (partNames.isEmpty()) {
+    LOG.warn("Failed to drop the partitions of {}.{} after dropping {}", dbName, tableName, numDropped, e);
+    return new DropPartitionsProgress(numDropped, toDropPartitionsResult(dropped), false);
+  }
+
+  private static DropPartitionsResult toDropPartitionsResult(List<Partition> partitions)
+  {
+    if (partitions == null) {
       return null;
     }
-    return client.drop_partitions_req(new DropPartitionsRequest(dbName,
-        tableName, RequestPartsSpec.names(partNames)));
+    DropPartitionsResult result = new DropPartitionsResult();
+    result.setPartitions(new ArrayList<>(partitions));
+    return result;
   }
 
   public List<Partition> getPartitionsByNames(String dbName, String tableName,
                                               List<String> names) throws TException
   {
     if (names == null) {
-      return client.get_partitions_by_names(dbName, tableName,
-          getPartitionNames(dbName, tableName, (short) -1));
+      return getPartitionsByNames(dbName, tableName, getPartitionNames(dbName, tableName, (short) -1));
     }
-    return client.get_partitions_by_names(dbName, tableName, names);
+    if (names.size() <= partitionBatchSize) {
+      return bulkRead(client -> client.get_partitions_by_names(dbName, tableName, names));
+    }
+    // split a large name list into batches to bound the size of each response, HMS returns the
+    // partitions of a batch sorted by names so that concatenating the batches keeps the order
+    List<List<String>> batches = new ArrayList<>();
+    for (int i = 0; i < names.size(); i += partitionBatchSize) {
+      batches.add(names.subList(i, Math.min(i + partitionBatchSize, names.size())));
+    }
+    List<List<Partition>> results = parallelExecutor.map(batches,
+        batch -> bulkRead(client -> client.get_partitions_by_names(dbName, tableName, batch)));
+    List<Partition> partitions = new ArrayList<>(names.size());
+    for (List<Partition> result : results) {
+      partitions.addAll(result);
+    }
+    return partitions;
+  }
+
+  // the filter is evaluated by HMS, e.g., "dt >= '2020-01-01' and region = 'us'", so that only
+  // the matching partitions are sent back
+  public List<Partition> getPartitionsByFilter(String dbName, String tableName,
+                                               String filter, short maxSize) throws TException
+  {
+    return bulkRead(client -> client.get_partitions_by_filter(dbName, tableName, filter, maxSize));
+  }
+
+  public int getNumPartitionsByFilter(String dbName, String tableName, String filter) throws TException
+  {
+    return read("get_num_partitions_by_filter",
+        client -> client.get_num_partitions_by_filter(dbName, tableName, filter));
+  }
+
+  // the names, types and comments of the tables in all the matching databases in one call, the
+  // patterns are HMS patterns, e.g., "sales_*|marketing"
+  public List<TableMeta> getTableMeta(String dbPatterns, String tablePatterns,
+                                      List<String> tableTypes) throws TException
+  {
+    return bulkRead(client -> client.get_table_meta(dbPatterns, tablePatterns, tableTypes));
+  }
+
+  public List<ColumnStatisticsObj> getTableColumnStatistics(String dbName, String tableName,
+                                                            List<String> colNames) throws TException
+  {
+    return read("get_table_statistics_req", client -> client.get_table_statistics_req(
+        new TableStatsRequest(dbName, tableName, colNames)).getTableStats());
+  }
+
+  // the partitions without statistics are left out of the result, as HMS does
+  public Map<String, List<ColumnStatisticsObj>> getPartitionColumnStatistics(String dbName, String tableName,
+                                                                             List<String> partNames, List<String> colNames) throws TException
+  {
+    List<String> names = partNames == null ? getPartitionNames(dbName, tableName, (short) -1) : partNames;
+    if (names.size() <= partitionBatchSize) {
+      return bulkRead(client -> client.get_partitions_statistics_req(
+          new PartitionsStatsRequest(dbName, tableName, colNames, names)).getPartStats());
+    }
+    // the same batching as getPartitionsByNames(), the partition names of different batches
+    // never overlap so that the results are merged as they are
+    List<List<String>> batches = new ArrayList<>();
+    for (int i = 0; i < names.size(); i += partitionBatchSize) {
+      batches.add(names.subList(i, Math.min(i + partitionBatchSize, names.size())));
+    }
+    List<Map<String, List<ColumnStatisticsObj>>> results = parallelExecutor.map(batches,
+        batch -> bulkRead(client -> client.get_partitions_statistics_req(
+            new PartitionsStatsRequest(dbName, tableName, colNames, batch)).getPartStats()));
+    Map<String, List<ColumnStatisticsObj>> partStats = new HashMap<>();
+    for (Map<String, List<ColumnStatisticsObj>> result : results) {
+      if (result != null) {
+        partStats.putAll(result);
+      }
+    }
+    return partStats;
+  }
+
+  // not batched, the aggregation is done by HMS over all the partitions in one call because
+  // aggregates like the number of distinct values can't be merged across batches
+  public AggrStats getAggrColumnStatistics(String dbName, String tableName,
+                                           List<String> partNames, List<String> colNames) throws TException
+  {
+    List<String> names = partNames == null ? getPartitionNames(dbName, tableName, (short) -1) : partNames;
+    return bulkRead(client -> client.get_aggr_stats_for(
+        new PartitionsStatsRequest(dbName, tableName, colNames, names)));
+  }
+
+  // HMS 2.3 has no get_partition_values, which came with Hive 3, so the values are parsed from
+  // the partition names, which are much smaller than the partitions, and only a filter needs
+  // the partitions themselves
+  public List<List<String>> getPartitionValues(Table table, List<String> partitionKeys, String filter,
+                                               boolean applyDistinct, boolean ascending, int maxParts) throws TException
+  {
+    List<FieldSchema> tableKeys = table.getPartitionKeys();
+    List<String> keys = partitionKeys;
+    if (keys == null) {
+      keys = new ArrayList<>(tableKeys.size());
+      for (FieldSchema tableKey : tableKeys) {
+        keys.add(tableKey.getName());
+      }
+    }
+    int[] indexes = new int[keys.size()];
+    List<String> types = new ArrayList<>(keys.size());
+    for (int i = 0; i < keys.size(); i++) {
+      indexes[i] = -1;
+      for (int j = 0; j < tableKeys.size(); j++) {
+        if (tableKeys.get(j).getName().equalsIgnoreCase(keys.get(i))) {
+          indexes[i] = j;
+          types.add(tableKeys.get(j).getType());
+          break;
+        }
+      }
+      if (indexes[i] < 0) {
+        throw new MetaException("Unknown partition key " + keys.get(i) + " of table " +
+            table.getDbName() + "." + table.getTableName());
+      }
+    }
+    List<List<String>> rows = new ArrayList<>();
+    if (filter == null || filter.isEmpty()) {
+      for (String name : getPartitionNames(table.getDbName(), table.getTableName(), (short) -1)) {
+        rows.add(Warehouse.getPartValuesFromPartName(name));
+      }
+    }
+    else {
+      for (Partition partition : getPartitionsByFilter(table.getDbName(), table.getTableName(), filter, (short) -1)) {
+        rows.add(partition.getValues());
+      }
+    }
+    return PartitionValues.select(rows, indexes, types, applyDistinct, ascending, maxParts);
   }
 
   public boolean alterTable(String dbName, String tableName, Table newTable)
       throws TException
   {
-    client.alter_table(dbName, tableName, newTable);
+    try {
+      write(client -> {
+        client.alter_table(dbName, tableName, newTable);
+        return null;
+      });
+    }
+    finally {
+      // the table could be renamed
+      existenceCache.invalidate(tableKey(dbName, tableName));
+      existenceCache.invalidate(tableKey(newTable.getDbName(), newTable.getTableName()));
+    }
     return true;
   }
 
   public void alterPartition(String dbName, String tableName,
                              Partition partition) throws TException
   {
-    client.alter_partition(dbName, tableName, partition);
+    write(client -> {
+      client.alter_partition(dbName, tableName, partition);
+      return null;
+    });
   }
 
-  public void alterPartitions(String dbName, String tableName,
-                              List<Partition> partitions) throws TException
+  // alter the partitions in batches, each batch is a separate HMS transaction
+  public List<BatchResult> alterPartitions(String dbName, String tableName,
+                                           List<Partition> partitions) throws TException
   {
-    client.alter_partitions(dbName, tableName, partitions);
+    return writeBatches(partitions, batch -> write(client -> {
+      client.alter_partitions(dbName, tableName, batch);
+      return null;
+    }));
   }
 
   public void appendPartition(String dbName, String tableName,
                               List<String> partitionValues) throws TException
   {
-    client.append_partition_with_environment_context(dbName, tableName, partitionValues, null);
+    write(client -> client.append_partition_with_environment_context(dbName, tableName, partitionValues, null));
   }
 
-  private TTransport open(HiveConf conf, URI uri) throws
+  private ThriftConnection open(HiveConf conf, URI uri) throws
       TException, IOException, LoginException
   {
-    transport = new TSocket(uri.getHost(), uri.getPort(), (int) SOCKET_TIMEOUT_MS);
+    TSocket socket = new TSocket(uri.getHost(), uri.getPort(), (int) SOCKET_TIMEOUT_MS);
+    TTransport transport = socket;
     boolean useSasl = conf.getBoolVar(HiveConf.ConfVars.METASTORE_USE_THRIFT_SASL);
     boolean useFramedTransport = conf.getBoolVar(HiveConf.ConfVars.METASTORE_USE_THRIFT_FRAMED_TRANSPORT);
     boolean useCompactProtocol = conf.getBoolVar(HiveConf.ConfVars.METASTORE_USE_THRIFT_COMPACT_PROTOCOL);
@@ -373,13 +1263,13 @@ public class ThriftHiveMetaStoreClient implements HiveMetaStoreClient
       if (tokenStrForm != null) {
         // authenticate using delegation tokens via the "DIGEST" mechanism
         transport = authBridge.createClientTransport(null, uri.getHost(),
-            "DIGEST", tokenStrForm, transport, MetaStoreUtils.getMetaStoreSaslProperties(conf));
+            "DIGEST", tokenStrForm, transport, loginManager.getSaslProperties());
       }
       else {
         String principalConfig = conf.getVar(HiveConf.ConfVars.METASTORE_KERBEROS_PRINCIPAL);
         transport = authBridge.createClientTransport(
             principalConfig, uri.getHost(), "KERBEROS", null,
-            transport, MetaStoreUtils.getMetaStoreSaslProperties(conf));
+            transport, loginManager.getSaslProperties());
       }
     }
 
@@ -387,14 +1277,20 @@ public class ThriftHiveMetaStoreClient implements HiveMetaStoreClient
     TProtocol protocol = useCompactProtocol ?
         new TCompactProtocol(transport) :
         new TBinaryProtocol(transport);
-    client = new ThriftHiveMetastore.Client(protocol);
+    ThriftHiveMetastore.Iface client = new ThriftHiveMetastore.Client(protocol);
     transport.open();
-    if (!useSasl && conf.getBoolVar(HiveConf.ConfVars.METASTORE_EXECUTE_SET_UGI)) {
-      UserGroupInformation ugi = Utils.getUGI();
-      client.set_ugi(ugi.getUserName(), Arrays.asList(ugi.getGroupNames()));
+    try {
+      if (!useSasl && conf.getBoolVar(HiveConf.ConfVars.METASTORE_EXECUTE_SET_UGI)) {
+        UserGroupInformation ugi = loginManager.getUGI();
+        client.set_ugi(ugi.getUserName(), Arrays.asList(ugi.getGroupNames()));
+      }
+    }
+    catch (TException | RuntimeException e) {
+      transport.close();
+      throw e;
     }
 
-    return transport;
+    return new ThriftConnection(uri, socket, transport, client, (int) SOCKET_TIMEOUT_MS);
   }
 
   static class PartitionBuilder
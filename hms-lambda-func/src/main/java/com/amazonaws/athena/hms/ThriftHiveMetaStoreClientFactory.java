@@ -56,7 +56,15 @@ public class ThriftHiveMetaStoreClientFactory implements HiveMetaStoreClientFact
   @Override
   public HiveMetaStoreClient getHiveMetaStoreClient()
   {
-    return createClient();
+    HiveMetaStoreClient client = createClient();
+    if (conf.getClientMetadataCacheMaxBytes() > 0 || conf.getClientMetadataCachePartitionNamesMaxBytes() > 0) {
+      // cache the databases, tables and partition names in the Lambda container
+      return new CachingHiveMetaStoreClient(client, conf.getClientMetadataCacheMaxBytes(),
+          conf.getClientMetadataCachePartitionNamesMaxBytes(),
+          conf.getClientMetadataCacheDatabaseTtlMs(), conf.getClientMetadataCacheTableTtlMs(),
+          conf.getClientMetadataCachePartitionNamesTtlMs());
+    }
+    return client;
   }
 
   @Override
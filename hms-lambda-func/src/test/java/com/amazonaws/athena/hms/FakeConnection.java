@@ -0,0 +1,101 @@
+/*-
+ * #%L
+ * hms-lambda-func
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import com.facebook.fb303.fb_status;
+import org.apache.hadoop.hive.metastore.api.ThriftHiveMetastore;
+import org.apache.thrift.transport.TSocket;
+import org.apache.thrift.transport.TTransportException;
+
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// a connection without an open socket, whose metastore calls are answered by a handler
+class FakeConnection extends ThriftConnection {
+  static final int TIMEOUT_MS = 600000;
+
+  // answers a metastore call made on a connection
+  interface Handler {
+    Object call(FakeConnection connection, String method, Object[] args) throws Exception;
+  }
+
+  private final Handler handler;
+  private final CountDownLatch closed = new CountDownLatch(1);
+  volatile boolean open = true;
+  volatile boolean healthy = true;
+  volatile int statusCalls;
+  // the read timeout of the last status call
+  volatile int statusTimeoutMs;
+  // a socket silently dropped on the way, whose calls time out
+  volatile boolean unresponsive;
+
+  FakeConnection(URI uri, Handler handler) {
+    // the socket is never opened
+    super(uri, new TSocket(uri.getHost(), uri.getPort(), TIMEOUT_MS), null, null, TIMEOUT_MS);
+    this.handler = handler;
+  }
+
+  @Override
+  public ThriftHiveMetastore.Iface getClient() {
+    return (ThriftHiveMetastore.Iface) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {ThriftHiveMetastore.Iface.class}, (proxy, method, args) -> {
+          if (method.getName().equals("getStatus")) {
+            statusCalls++;
+            statusTimeoutMs = getTimeout();
+            if (unresponsive) {
+              throw new TTransportException(TTransportException.TIMED_OUT, "Read timed out");
+            }
+            if (!healthy) {
+              throw new TTransportException(TTransportException.END_OF_FILE, "broken pipe");
+            }
+            return fb_status.ALIVE;
+          }
+          if (handler == null) {
+            throw new UnsupportedOperationException(method.getName());
+          }
+          return handler.call(this, method.getName(), args);
+        });
+  }
+
+  @Override
+  public boolean isOpen() {
+    return open;
+  }
+
+  @Override
+  public void close() {
+    open = false;
+    closed.countDown();
+  }
+
+  // block like a pending socket read until the connection is closed, e.g., by a cancelled hedged
+  // read, and then fail like the read would
+  void blockUntilClosed(long timeoutMs) throws Exception {
+    if (closed.await(timeoutMs, TimeUnit.MILLISECONDS)) {
+      throw new TTransportException(TTransportException.END_OF_FILE, "Socket closed");
+    }
+  }
+
+  boolean awaitClosed(long timeoutMs) throws InterruptedException {
+    return closed.await(timeoutMs, TimeUnit.MILLISECONDS);
+  }
+}
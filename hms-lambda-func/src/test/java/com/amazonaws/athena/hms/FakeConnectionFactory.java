@@ -0,0 +1,56 @@
+/*-
+ * #%L
+ * hms-lambda-func
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.apache.thrift.TException;
+import org.apache.thrift.transport.TTransportException;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// records the opened connections and refuses to connect to the unreachable URIs
+class FakeConnectionFactory implements ThriftConnectionPool.ConnectionFactory {
+  final Set<URI> unreachable = ConcurrentHashMap.newKeySet();
+  final List<URI> attempts = new CopyOnWriteArrayList<>();
+  final List<FakeConnection> connections = new CopyOnWriteArrayList<>();
+  private final FakeConnection.Handler handler;
+
+  FakeConnectionFactory() {
+    this(null);
+  }
+
+  FakeConnectionFactory(FakeConnection.Handler handler) {
+    this.handler = handler;
+  }
+
+  @Override
+  public ThriftConnection connect(URI uri) throws TException {
+    attempts.add(uri);
+    if (unreachable.contains(uri)) {
+      throw new TTransportException(TTransportException.NOT_OPEN, "Connection refused: " + uri);
+    }
+    FakeConnection connection = new FakeConnection(uri, handler);
+    connections.add(connection);
+    return connection;
+  }
+}
@@ -0,0 +1,118 @@
+/*-
+ * #%L
+ * hms-lambda-func
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestMetastoreRouter {
+  private static final URI URI1 = URI.create("thrift://hms1:9083");
+  private static final URI URI2 = URI.create("thrift://hms2:9083");
+
+  @Test
+  public void testRankByLatency() {
+    MetastoreRouter router = new MetastoreRouter(Arrays.asList(URI1, URI2), 0);
+    router.recordSuccess(URI1, "get_table", 50L);
+    router.recordSuccess(URI2, "get_table", 10L);
+    assertEquals(Arrays.asList(URI2, URI1), router.rank());
+    // the moving average follows the recent latencies
+    for (int i = 0; i < 10; i++) {
+      router.recordSuccess(URI1, "get_table", 1L);
+    }
+    assertEquals(Arrays.asList(URI1, URI2), router.rank());
+  }
+
+  @Test
+  public void testUnmeasuredURIFirst() {
+    MetastoreRouter router = new MetastoreRouter(Arrays.asList(URI1, URI2), 0);
+    router.recordSuccess(URI1, "get_table", 1L);
+    assertEquals(Arrays.asList(URI2, URI1), router.rank());
+  }
+
+  @Test
+  public void testUnhealthyURILast() {
+    MetastoreRouter router = new MetastoreRouter(Arrays.asList(URI1, URI2), 0);
+    router.recordSuccess(URI1, "get_table", 1L);
+    router.recordSuccess(URI2, "get_table", 100L);
+    router.recordFailure(URI1);
+    assertEquals(Arrays.asList(URI2, URI1), router.rank());
+    // any successful call shows that it is healthy again
+    router.recordSuccess(URI1);
+    assertEquals(Arrays.asList(URI1, URI2), router.rank());
+  }
+
+  @Test
+  public void testHedgingDisabled() {
+    assertFalse(new MetastoreRouter(Arrays.asList(URI1, URI2), 0).isHedgingEnabled());
+    assertFalse(new MetastoreRouter(Arrays.asList(URI1, URI2), 100).isHedgingEnabled());
+    // nowhere to send the hedged read
+    assertFalse(new MetastoreRouter(Collections.singletonList(URI1), 95).isHedgingEnabled());
+    MetastoreRouter router = new MetastoreRouter(Arrays.asList(URI1, URI2), 0);
+    for (int i = 0; i < 100; i++) {
+      router.recordSuccess(URI1, "get_table", i);
+    }
+    assertEquals(-1L, router.getHedgeDelayMillis("get_table"));
+  }
+
+  @Test
+  public void testNoHedgeBeforeEnoughSamples() {
+    MetastoreRouter router = new MetastoreRouter(Arrays.asList(URI1, URI2), 95);
+    assertTrue(router.isHedgingEnabled());
+    for (int i = 0; i < 19; i++) {
+      router.recordSuccess(URI1, "get_table", 10L);
+    }
+    assertEquals(-1L, router.getHedgeDelayMillis("get_table"));
+    router.recordSuccess(URI1, "get_table", 10L);
+    assertEquals(10L, router.getHedgeDelayMillis("get_table"));
+  }
+
+  @Test
+  public void testHedgeDelayPerOperation() {
+    MetastoreRouter router = new MetastoreRouter(Arrays.asList(URI1, URI2), 90);
+    for (int i = 1; i <= 100; i++) {
+      router.recordSuccess(URI1, "get_database", i);
+      router.recordSuccess(URI2, "get_table", 1000L + i);
+    }
+    // the slow get_table calls don't delay the hedging of the fast get_database calls
+    assertEquals(90L, router.getHedgeDelayMillis("get_database"));
+    assertEquals(1090L, router.getHedgeDelayMillis("get_table"));
+    assertEquals(-1L, router.getHedgeDelayMillis("get_partition_names"));
+  }
+
+  @Test
+  public void testHedgeDelayOfRecentLatencies() {
+    MetastoreRouter router = new MetastoreRouter(Arrays.asList(URI1, URI2), 50);
+    for (int i = 0; i < 200; i++) {
+      router.recordSuccess(URI1, "get_table", 1000L);
+    }
+    // the old samples fall out of the window
+    for (int i = 0; i < 128; i++) {
+      router.recordSuccess(URI1, "get_table", 10L);
+    }
+    assertEquals(10L, router.getHedgeDelayMillis("get_table"));
+  }
+}
@@ -0,0 +1,212 @@
+/*-
+ * #%L
+ * hms-lambda-func
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.apache.thrift.TException;
+import org.apache.thrift.transport.TTransportException;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestThriftConnectionPool {
+  private static final URI URI1 = URI.create("thrift://hms1:9083");
+  private static final URI URI2 = URI.create("thrift://hms2:9083");
+
+  @Test
+  public void testRoundRobinOverURIs() throws TException {
+    FakeConnectionFactory factory = new FakeConnectionFactory();
+    ThriftConnectionPool pool = new ThriftConnectionPool(Arrays.asList(URI1, URI2), 4, 60000L, 1000L, factory);
+    assertEquals(URI1, pool.borrow().getURI());
+    assertEquals(URI2, pool.borrow().getURI());
+    assertEquals(URI1, pool.borrow().getURI());
+  }
+
+  @Test
+  public void testFailoverToNextURI() throws TException {
+    FakeConnectionFactory factory = new FakeConnectionFactory();
+    factory.unreachable.add(URI1);
+    ThriftConnectionPool pool = new ThriftConnectionPool(Arrays.asList(URI1, URI2), 4, 60000L, 1000L, factory);
+    ThriftConnection connection = pool.borrow();
+    assertEquals(URI2, connection.getURI());
+    assertEquals(Arrays.asList(URI1, URI2), factory.attempts);
+  }
+
+  @Test
+  public void testFailWhenNoURIReachable() {
+    FakeConnectionFactory factory = new FakeConnectionFactory();
+    factory.unreachable.add(URI1);
+    factory.unreachable.add(URI2);
+    ThriftConnectionPool pool = new ThriftConnectionPool(Arrays.asList(URI1, URI2), 1, 60000L, 1000L, factory);
+    try {
+      pool.borrow();
+      fail("Expected a TTransportException");
+    }
+    catch (TException e) {
+      assertTrue(e instanceof TTransportException);
+    }
+    // the reserved slot is given back, so the pool can connect once the URI is reachable again
+    factory.unreachable.clear();
+    try {
+      assertTrue(pool.borrow().isOpen());
+    }
+    catch (TException e) {
+      fail("The failed connection attempt leaked a pool slot: " + e.getMessage());
+    }
+  }
+
+  @Test
+  public void testReuseRecentlyUsedConnectionWithoutValidation() throws TException {
+    FakeConnectionFactory factory = new FakeConnectionFactory();
+    ThriftConnectionPool pool = new ThriftConnectionPool(Arrays.asList(URI1), 1, 60000L, 1000L, factory);
+    ThriftConnection connection = pool.borrow();
+    pool.release(connection);
+    assertSame(connection, pool.borrow());
+    assertEquals(0, factory.connections.get(0).statusCalls);
+  }
+
+  @Test
+  public void testValidateOnBorrow() throws TException {
+    FakeConnectionFactory factory = new FakeConnectionFactory();
+    // a zero validation interval makes every idle connection be validated on borrow
+    ThriftConnectionPool pool = new ThriftConnectionPool(Arrays.asList(URI1), 1, 0L, 1000L, factory);
+    ThriftConnection connection = pool.borrow();
+    pool.release(connection);
+    assertSame(connection, pool.borrow());
+    assertEquals(1, factory.connections.get(0).statusCalls);
+  }
+
+  @Test
+  public void testEvictStaleConnectionOnBorrow() throws TException {
+    FakeConnectionFactory factory = new FakeConnectionFactory();
+    ThriftConnectionPool pool = new ThriftConnectionPool(Arrays.asList(URI1), 1, 0L, 1000L, factory);
+    ThriftConnection stale = pool.borrow();
+    pool.release(stale);
+    factory.connections.get(0).healthy = false;
+
+    ThriftConnection connection = pool.borrow();
+    assertNotSame(stale, connection);
+    assertFalse(stale.isOpen());
+    assertEquals(2, factory.connections.size());
+  }
+
+  @Test
+  public void testValidateWithShortTimeout() throws TException {
+    FakeConnectionFactory factory = new FakeConnectionFactory();
+    ThriftConnectionPool pool = new ThriftConnectionPool(Arrays.asList(URI1, URI2), 1, 0L, 1000L, factory);
+    ThriftConnection dropped = pool.borrow();
+    pool.release(dropped);
+    factory.connections.get(0).unresponsive = true;
+
+    Deadline.set(Deadline.after(2000L));
+    try {
+      ThriftConnection connection = pool.borrow();
+      // the health check is bounded by the deadline rather than the default timeout
+      int statusTimeoutMs = factory.connections.get(0).statusTimeoutMs;
+      assertTrue(statusTimeoutMs > 0 && statusTimeoutMs <= 2000);
+      // the connection that timed out is dropped and the next URI is used
+      assertNotSame(dropped, connection);
+      assertFalse(dropped.isOpen());
+      assertEquals(URI2, connection.getURI());
+      assertEquals(FakeConnection.TIMEOUT_MS, connection.getTimeout());
+    }
+    finally {
+      Deadline.clear();
+    }
+  }
+
+  @Test
+  public void testValidateTimeoutWithoutDeadline() throws TException {
+    FakeConnectionFactory factory = new FakeConnectionFactory();
+    ThriftConnectionPool pool = new ThriftConnectionPool(Arrays.asList(URI1), 1, 0L, 1000L, factory);
+    ThriftConnection connection = pool.borrow();
+    pool.release(connection);
+    assertSame(connection, pool.borrow());
+    assertEquals(ThriftConnectionPool.VALIDATION_TIMEOUT_MS, factory.connections.get(0).statusTimeoutMs);
+    // the connection goes back to its default timeout after the check
+    assertEquals(FakeConnection.TIMEOUT_MS, connection.getTimeout());
+  }
+
+  @Test
+  public void testEvictClosedConnectionOnBorrow() throws TException {
+    FakeConnectionFactory factory = new FakeConnectionFactory();
+    ThriftConnectionPool pool = new ThriftConnectionPool(Arrays.asList(URI1), 1, 60000L, 1000L, factory);
+    ThriftConnection closed = pool.borrow();
+    pool.release(closed);
+    factory.connections.get(0).open = false;
+
+    assertNotSame(closed, pool.borrow());
+    // a closed transport is dropped without a status call
+    assertEquals(0, factory.connections.get(0).statusCalls);
+  }
+
+  @Test
+  public void testReleaseResetsTimeout() throws TException {
+    FakeConnectionFactory factory = new FakeConnectionFactory();
+    ThriftConnectionPool pool = new ThriftConnectionPool(Arrays.asList(URI1), 1, 60000L, 1000L, factory);
+    ThriftConnection connection = pool.borrow();
+    // shortened by the deadline of a request
+    connection.setTimeout(50);
+    pool.release(connection);
+    ThriftConnection next = pool.borrow();
+    assertSame(connection, next);
+    assertEquals(FakeConnection.TIMEOUT_MS, next.getTimeout());
+  }
+
+  @Test
+  public void testInvalidateIdleConnectionsOfURI() throws TException {
+    FakeConnectionFactory factory = new FakeConnectionFactory();
+    ThriftConnectionPool pool = new ThriftConnectionPool(Arrays.asList(URI1, URI2), 2, 60000L, 1000L, factory);
+    ThriftConnection connection1 = pool.borrow();
+    ThriftConnection connection2 = pool.borrow();
+    pool.release(connection1);
+    pool.release(connection2);
+
+    pool.invalidateIdle(URI1);
+    assertFalse(connection1.isOpen());
+    assertTrue(connection2.isOpen());
+    // the freed slot is used to open a new connection to the preferred URI
+    ThriftConnection connection = pool.borrow(URI1, 1000L);
+    assertEquals(URI1, connection.getURI());
+    assertNotSame(connection1, connection);
+    assertEquals(3, factory.connections.size());
+  }
+
+  @Test
+  public void testBorrowTimesOutWhenPoolIsExhausted() throws TException {
+    FakeConnectionFactory factory = new FakeConnectionFactory();
+    ThriftConnectionPool pool = new ThriftConnectionPool(Arrays.asList(URI1), 1, 60000L, 10L, factory);
+    pool.borrow();
+    try {
+      pool.borrow();
+      fail("Expected a TTransportException");
+    }
+    catch (TTransportException e) {
+      assertEquals(1, factory.connections.size());
+    }
+  }
+}
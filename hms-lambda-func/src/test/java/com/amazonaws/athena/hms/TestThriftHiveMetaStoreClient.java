@@ -0,0 +1,428 @@
+/*-
+ * #%L
+ * hms-lambda-func
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.metastore.api.AddPartitionsRequest;
+import org.apache.hadoop.hive.metastore.api.AddPartitionsResult;
+import org.apache.hadoop.hive.metastore.api.AlreadyExistsException;
+import org.apache.hadoop.hive.metastore.api.Database;
+import org.apache.hadoop.hive.metastore.api.DropPartitionsRequest;
+import org.apache.hadoop.hive.metastore.api.DropPartitionsResult;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.thrift.TException;
+import org.apache.thrift.transport.TTransportException;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestThriftHiveMetaStoreClient {
+  private static final URI URI1 = URI.create("thrift://hms1:9083");
+  private static final URI URI2 = URI.create("thrift://hms2:9083");
+  private static final int WARM_UP_CALLS = 40;
+
+  private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+  // the number of the next calls which block until their connection is closed or the time is up
+  private final AtomicInteger numBlockedCalls = new AtomicInteger();
+  private volatile long blockMs;
+  // the number of partitions of each add_partitions_req call
+  private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+  // the partitions of the partitioned table, sorted by name like HMS returns them
+  private final NavigableSet<String> partitionNames = new ConcurrentSkipListSet<>(
+      Collections.singletonList("dt=2020-01-01"));
+  // the number of partitions left when the table was dropped
+  private volatile int partitionsLeftOnDropTable = -1;
+
+  // a metastore which answers right away unless a call is told to block
+  private Object answer(FakeConnection connection, String method, Object[] args) throws Exception {
+    calls.computeIfAbsent(method, k -> new AtomicInteger()).incrementAndGet();
+    if (numBlockedCalls.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+      connection.blockUntilClosed(blockMs);
+    }
+    switch (method) {
+      case "get_database":
+        return new Database((String) args[0], null, null, null);
+      case "get_table":
+        Table table = new Table();
+        table.setDbName((String) args[0]);
+        table.setTableName((String) args[1]);
+        table.setPartitionKeys(Collections.singletonList(new FieldSchema("dt", "string", null)));
+        return table;
+      case "get_partition_names":
+        List<String> names = new ArrayList<>(partitionNames);
+        short max = (Short) args[2];
+        return max < 0 ? names : names.subList(0, Math.min(max, names.size()));
+      case "drop_partitions_req":
+        DropPartitionsRequest dropRequest = (DropPartitionsRequest) args[0];
+        List<Partition> dropped = new ArrayList<>();
+        // a batch is dropped in one transaction
+        for (String name : dropRequest.getParts().getNames()) {
+          if (name.contains("locked")) {
+            throw new MetaException("Partition is locked: " + name);
+          }
+        }
+        for (String name : dropRequest.getParts().getNames()) {
+          // the partitions that do not exist are skipped with ifExists
+          if (partitionNames.remove(name)) {
+            dropped.addAll(createPartitions(name));
+          }
+        }
+        DropPartitionsResult dropResult = new DropPartitionsResult();
+        if (dropRequest.isNeedResult()) {
+          dropResult.setPartitions(dropped);
+        }
+        return dropResult;
+      case "drop_table":
+        partitionsLeftOnDropTable = partitionNames.size();
+        return null;
+      case "add_partitions_req":
+        AddPartitionsRequest request = (AddPartitionsRequest) args[0];
+        batchSizes.add(request.getPartsSize());
+        for (Partition partition : request.getParts()) {
+          if (!request.isIfNotExists() && partition.getValues().contains("existing")) {
+            throw new AlreadyExistsException("Partition already exists: " + partition.getValues());
+          }
+        }
+        return new AddPartitionsResult();
+      default:
+        throw new UnsupportedOperationException(method);
+    }
+  }
+
+  private static HiveConf createConf(double hedgePercentile) {
+    HiveConf conf = new HiveConf();
+    conf.setDouble(HiveMetaStoreConf.HMS_CLIENT_HEDGE_PERCENTILE, hedgePercentile);
+    conf.setInt(HiveMetaStoreConf.HMS_CLIENT_RETRY_MAX_ATTEMPTS, 1);
+    return conf;
+  }
+
+  private ThriftHiveMetaStoreClient createClient(FakeConnectionFactory factory, double hedgePercentile)
+      throws TException {
+    return createClient(factory, createConf(hedgePercentile));
+  }
+
+  private ThriftHiveMetaStoreClient createClient(FakeConnectionFactory factory, HiveConf conf) throws TException {
+    return new ThriftHiveMetaStoreClient(conf, Arrays.asList(URI1, URI2), null, factory);
+  }
+
+  private static List<Partition> createPartitions(String... values) {
+    List<Partition> partitions = new ArrayList<>();
+    for (String value : values) {
+      Partition partition = new Partition();
+      partition.setDbName("db");
+      partition.setTableName("table");
+      partition.setValues(Collections.singletonList(value));
+      partitions.add(partition);
+    }
+    return partitions;
+  }
+
+  private int getCalls(String method) {
+    AtomicInteger count = calls.get(method);
+    return count == null ? 0 : count.get();
+  }
+
+  // block the next call until it is cancelled
+  private void blockNextCall(long timeoutMs) {
+    blockMs = timeoutMs;
+    numBlockedCalls.set(1);
+  }
+
+  @Test
+  public void testHedgeSlowRead() throws TException {
+    FakeConnectionFactory factory = new FakeConnectionFactory(this::answer);
+    ThriftHiveMetaStoreClient client = createClient(factory, 50);
+    for (int i = 0; i < WARM_UP_CALLS; i++) {
+      client.getDatabase("db");
+    }
+    calls.clear();
+    blockNextCall(60000L);
+    long startMillis = System.currentTimeMillis();
+    Database database = client.getDatabase("slow_db");
+    assertEquals("slow_db", database.getName());
+    // answered by the hedged read without waiting for the blocked one
+    assertTrue(System.currentTimeMillis() - startMillis < 30000L);
+    assertEquals(2, getCalls("get_database"));
+    // the loser is cancelled by closing its connection
+    boolean closed = false;
+    for (FakeConnection connection : factory.connections) {
+      closed |= !connection.isOpen();
+    }
+    assertTrue(closed);
+  }
+
+  @Test
+  public void testNoHedgeByDefault() throws TException {
+    FakeConnectionFactory factory = new FakeConnectionFactory(this::answer);
+    ThriftHiveMetaStoreClient client = createClient(factory, HiveMetaStoreConf.DEFAULT_HMS_CLIENT_HEDGE_PERCENTILE);
+    for (int i = 0; i < WARM_UP_CALLS; i++) {
+      client.getDatabase("db");
+    }
+    calls.clear();
+    blockNextCall(200L);
+    assertEquals("slow_db", client.getDatabase("slow_db").getName());
+    assertEquals(1, getCalls("get_database"));
+  }
+
+  @Test
+  public void testNoHedgeOfBulkRead() throws TException {
+    FakeConnectionFactory factory = new FakeConnectionFactory(this::answer);
+    ThriftHiveMetaStoreClient client = createClient(factory, 50);
+    for (int i = 0; i < WARM_UP_CALLS; i++) {
+      client.getDatabase("db");
+      client.getPartitionNames("db", "table", (short) -1);
+    }
+    calls.clear();
+    blockNextCall(200L);
+    assertEquals(1, client.getPartitionNames("db", "table", (short) -1).size());
+    assertEquals(1, getCalls("get_partition_names"));
+  }
+
+  @Test
+  public void testHedgeDelayPerOperation() throws TException {
+    FakeConnectionFactory factory = new FakeConnectionFactory(this::answer);
+    ThriftHiveMetaStoreClient client = createClient(factory, 50);
+    for (int i = 0; i < WARM_UP_CALLS; i++) {
+      client.getDatabase("db");
+    }
+    calls.clear();
+    // the fast get_database calls say nothing about how long a get_table takes
+    blockNextCall(200L);
+    assertEquals("table", client.getTable("db", "table").getTableName());
+    assertEquals(1, getCalls("get_table"));
+  }
+
+  @Test
+  public void testAddPartitionsInBatches() throws TException {
+    HiveConf conf = createConf(0);
+    conf.setInt(HiveMetaStoreConf.HMS_CLIENT_PARTITION_WRITE_BATCH_SIZE, 2);
+    ThriftHiveMetaStoreClient client = createClient(new FakeConnectionFactory(this::answer), conf);
+    List<BatchResult> results = client.addPartitions(createPartitions("1", "2", "3", "4", "5"), false);
+    assertEquals(3, results.size());
+    List<Integer> sortedBatchSizes = new ArrayList<>(batchSizes);
+    Collections.sort(sortedBatchSizes);
+    assertEquals(Arrays.asList(1, 2, 2), sortedBatchSizes);
+    for (int i = 0; i < results.size(); i++) {
+      assertEquals(i * 2, results.get(i).getOffset());
+      assertEquals(i < 2 ? 2 : 1, results.get(i).getSize());
+      assertTrue(results.get(i).isSucceeded());
+    }
+  }
+
+  @Test
+  public void testAddPartitionsFailedBatch() throws TException {
+    HiveConf conf = createConf(0);
+    conf.setInt(HiveMetaStoreConf.HMS_CLIENT_PARTITION_WRITE_BATCH_SIZE, 2);
+    ThriftHiveMetaStoreClient client = createClient(new FakeConnectionFactory(this::answer), conf);
+    List<BatchResult> results = client.addPartitions(createPartitions("1", "2", "existing", "4", "5"), false);
+    // only the batch of the existing partition fails
+    assertTrue(results.get(0).isSucceeded());
+    assertFalse(results.get(1).isSucceeded());
+    assertEquals(2, results.get(1).getOffset());
+    assertTrue(results.get(1).getError() instanceof AlreadyExistsException);
+    assertTrue(results.get(2).isSucceeded());
+
+    // the existing partition is skipped with ifNotExists
+    results = client.addPartitions(createPartitions("1", "2", "existing", "4", "5"), true);
+    for (BatchResult result : results) {
+      assertTrue(result.isSucceeded());
+    }
+  }
+
+  @Test
+  public void testDropPartitionsCountsDroppedPartitions() throws TException {
+    HiveConf conf = createConf(0);
+    conf.setInt(HiveMetaStoreConf.HMS_CLIENT_PARTITION_WRITE_BATCH_SIZE, 2);
+    ThriftHiveMetaStoreClient client = createClient(new FakeConnectionFactory(this::answer), conf);
+    partitionNames.addAll(Arrays.asList("dt=2020-01-02", "dt=2020-01-03"));
+    DropPartitionsProgress progress = client.dropPartitions("db", "table",
+        Arrays.asList("dt=2020-01-01", "dt=2019-12-31", "dt=2020-01-03"), true, true);
+    // the partition which does not exist is not counted
+    assertEquals(2, progress.getNumDropped());
+    assertEquals(2, progress.getResult().getPartitionsSize());
+    assertTrue(progress.isComplete());
+    assertEquals(Collections.singleton("dt=2020-01-02"), partitionNames);
+  }
+
+  @Test
+  public void testDropPartitionsWithoutResult() throws TException {
+    HiveConf conf = createConf(0);
+    conf.setInt(HiveMetaStoreConf.HMS_CLIENT_PARTITION_WRITE_BATCH_SIZE, 2);
+    ThriftHiveMetaStoreClient client = createClient(new FakeConnectionFactory(this::answer), conf);
+    partitionNames.addAll(Arrays.asList("dt=2020-01-02", "dt=2020-01-03"));
+    DropPartitionsProgress progress = client.dropPartitions("db", "table",
+        Arrays.asList("dt=2020-01-01", "dt=2019-12-31", "dt=2020-01-03"), true, false);
+    // HMS doesn't return the dropped partitions, so the partition which does not exist is counted
+    assertEquals(3, progress.getNumDropped());
+    assertTrue(progress.isComplete());
+    assertEquals(null, progress.getResult());
+    assertEquals(Collections.singleton("dt=2020-01-02"), partitionNames);
+  }
+
+  @Test
+  public void testDropPartitionsKeepsProgressOnFailure() throws TException {
+    HiveConf conf = createConf(0);
+    conf.setInt(HiveMetaStoreConf.HMS_CLIENT_PARTITION_WRITE_BATCH_SIZE, 2);
+    // one batch per round
+    conf.setInt(HiveMetaStoreConf.HMS_CLIENT_PARALLELISM, 1);
+    ThriftHiveMetaStoreClient client = createClient(new FakeConnectionFactory(this::answer), conf);
+    partitionNames.addAll(Arrays.asList("dt=2020-01-02", "dt=2020-01-03", "dt=locked"));
+    DropPartitionsProgress progress = client.dropPartitions("db", "table",
+        Arrays.asList("dt=2020-01-01", "dt=2020-01-02", "dt=2020-01-03", "dt=locked"), true, true);
+    assertEquals(2, progress.getNumDropped());
+    assertFalse(progress.isComplete());
+    assertEquals(new HashSet<>(Arrays.asList("dt=2020-01-03", "dt=locked")), partitionNames);
+    // nothing dropped at all
+    try {
+      client.dropPartitions("db", "table", Arrays.asList("dt=locked"), true, true);
+      fail("expected a MetaException");
+    }
+    catch (MetaException e) {
+      assertTrue(e.getMessage().contains("locked"));
+    }
+  }
+
+  @Test
+  public void testDropAllPartitionsInRounds() throws TException {
+    HiveConf conf = createConf(0);
+    conf.setInt(HiveMetaStoreConf.HMS_CLIENT_PARTITION_WRITE_BATCH_SIZE, 2);
+    ThriftHiveMetaStoreClient client = createClient(new FakeConnectionFactory(this::answer), conf);
+    for (int i = 2; i <= 9; i++) {
+      partitionNames.add("dt=2020-01-0" + i);
+    }
+    DropPartitionsProgress progress = client.dropPartitions("db", "table", null, true, true);
+    assertEquals(9, progress.getNumDropped());
+    assertEquals(9, progress.getResult().getPartitionsSize());
+    assertTrue(partitionNames.isEmpty());
+  }
+
+  @Test
+  public void testDropTableKeepsPartitionsByDefault() throws TException {
+    ThriftHiveMetaStoreClient client = createClient(new FakeConnectionFactory(this::answer), 0);
+    assertTrue(client.dropTable("db", "table", false));
+    // HMS drops the partitions with the table
+    assertEquals(1, partitionsLeftOnDropTable);
+    assertEquals(0, getCalls("get_table"));
+    assertEquals(0, getCalls("drop_partitions_req"));
+  }
+
+  @Test
+  public void testDropTableWithPartitionsFirst() throws TException {
+    ThriftHiveMetaStoreClient client = createClient(new FakeConnectionFactory(this::answer), 0);
+    partitionNames.add("dt=2020-01-02");
+    assertTrue(client.dropTable("db", "table", true));
+    assertEquals(0, partitionsLeftOnDropTable);
+    assertEquals(1, getCalls("drop_table"));
+  }
+
+  @Test
+  public void testCircuitBreakerFailsFast() throws Exception {
+    HiveConf conf = createConf(0);
+    conf.setLong(HiveMetaStoreConf.HMS_CLIENT_CIRCUIT_BREAKER_OPEN_MS, 200L);
+    FakeConnectionFactory factory = new FakeConnectionFactory(this::answer);
+    ThriftHiveMetaStoreClient client = createClient(factory, conf);
+    factory.unreachable.addAll(Arrays.asList(URI1, URI2));
+    int numFailures = 0;
+    for (int i = 0; i < 50; i++) {
+      try {
+        client.getDatabase("db");
+      }
+      catch (MetastoreOverloadedException e) {
+        break;
+      }
+      catch (TTransportException e) {
+        numFailures++;
+      }
+    }
+    // the breaker opens once enough calls failed to reach HMS
+    assertTrue(numFailures < 50);
+    int numAttempts = factory.attempts.size();
+    try {
+      client.getDatabase("db");
+      fail("expected a MetastoreOverloadedException");
+    }
+    catch (MetastoreOverloadedException e) {
+      // rejected without trying to connect
+      assertEquals(numAttempts, factory.attempts.size());
+    }
+
+    // a probe goes through once the breaker has been open for a while, and closes it
+    factory.unreachable.clear();
+    Thread.sleep(300L);
+    assertEquals("db", client.getDatabase("db").getName());
+    assertEquals("db2", client.getDatabase("db2").getName());
+  }
+
+  @Test
+  public void testLimiterRejectsWhenSaturated() throws Exception {
+    HiveConf conf = createConf(0);
+    conf.setInt(HiveMetaStoreConf.HMS_CLIENT_POOL_SIZE, 1);
+    FakeConnectionFactory factory = new FakeConnectionFactory(this::answer);
+    ThriftHiveMetaStoreClient client = createClient(factory, conf);
+    blockNextCall(60000L);
+    Thread blocked = new Thread(() -> {
+      try {
+        client.getDatabase("slow_db");
+      }
+      catch (TException e) {
+        // the connection is closed below
+      }
+    });
+    blocked.start();
+    while (getCalls("get_database") == 0) {
+      Thread.sleep(1L);
+    }
+    Deadline.set(Deadline.after(200L));
+    try {
+      client.getDatabase("db");
+      fail("expected a MetastoreOverloadedException");
+    }
+    catch (MetastoreOverloadedException e) {
+      // rejected by the limiter without calling HMS
+      assertEquals(1, getCalls("get_database"));
+    }
+    finally {
+      Deadline.clear();
+      for (FakeConnection connection : factory.connections) {
+        connection.close();
+      }
+      blocked.join();
+    }
+  }
+}
@@ -0,0 +1,141 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// An AIMD limit on the number of concurrent metastore calls. The limit grows by one per limit-many
+// fast calls and is cut by 10% when a call is dropped, e.g., timed out, or when the recent latency
+// grows beyond the tolerance of the long term latency, which means that HMS starts queueing.
+// The latencies are tracked per class of operations, e.g., point reads, bulk reads and writes, since
+// a slow bulk read after fast point reads says nothing about queueing.
+// A non-positive tolerance disables the latency signal and keeps the limit at its max.
+public class AdaptiveLimiter
+{
+  private static final double BACKOFF_RATIO = 0.9;
+  private static final double SHORT_EWMA_ALPHA = 0.3;
+  // the latencies are measured in whole milliseconds, so one tick of jitter on a sub-millisecond
+  // baseline is not taken as queueing
+  private static final double MIN_LATENCY_INCREASE_MS = 1;
+  private static final double LONG_EWMA_ALPHA = 0.01;
+
+  private final int maxLimit;
+  private final double tolerance;
+  private double limit;
+  private int inFlight;
+  private final Map<String, Latency> latencies = new HashMap<>();
+
+  // the recent and the long term latency in milliseconds of a class of operations
+  private static class Latency
+  {
+    private double shortLatencyMs;
+    private double longLatencyMs;
+
+    private Latency(double latencyMs)
+    {
+      this.shortLatencyMs = latencyMs;
+      this.longLatencyMs = latencyMs;
+    }
+  }
+
+  public AdaptiveLimiter(int maxLimit, double tolerance)
+  {
+    this.maxLimit = Math.max(1, maxLimit);
+    this.tolerance = tolerance;
+    this.limit = this.maxLimit;
+  }
+
+  public synchronized int getLimit()
+  {
+    return (int) limit;
+  }
+
+  public synchronized int getInFlight()
+  {
+    return inFlight;
+  }
+
+  // wait up to the timeout for the number of calls in flight to go below the limit,
+  // return false if it didn't
+  public synchronized boolean acquire(long timeoutMs) throws InterruptedException
+  {
+    long deadlineMs = System.currentTimeMillis() + timeoutMs;
+    while (inFlight >= (int) limit) {
+      long waitMs = deadlineMs - System.currentTimeMillis();
+      if (waitMs <= 0) {
+        return false;
+      }
+      wait(waitMs);
+    }
+    inFlight++;
+    return true;
+  }
+
+  // release the permit of a call of the given class of operations that finished within the given time
+  public synchronized void onSuccess(String operationClass, long latencyMs)
+  {
+    release();
+    if (tolerance <= 0) {
+      return;
+    }
+    Latency latency = latencies.get(operationClass);
+    if (latency == null) {
+      latencies.put(operationClass, new Latency(latencyMs));
+      return;
+    }
+    latency.shortLatencyMs += SHORT_EWMA_ALPHA * (latencyMs - latency.shortLatencyMs);
+    latency.longLatencyMs += LONG_EWMA_ALPHA * (latencyMs - latency.longLatencyMs);
+    if (latency.shortLatencyMs > Math.max(tolerance * latency.longLatencyMs,
+        latency.longLatencyMs + MIN_LATENCY_INCREASE_MS)) {
+      decrease();
+    }
+    else if (inFlight * 2 >= (int) limit) {
+      // only grow the limit when it is used, otherwise it would grow without bound when idle
+      limit = Math.min(maxLimit, limit + 1 / limit);
+    }
+  }
+
+  // release the permit of a call that timed out or broke its connection
+  public synchronized void onDropped()
+  {
+    release();
+    if (tolerance > 0) {
+      decrease();
+    }
+  }
+
+  // release the permit of a call whose latency says nothing about HMS, e.g., a cancelled one
+  public synchronized void onIgnored()
+  {
+    release();
+  }
+
+  private void decrease()
+  {
+    limit = Math.max(1, limit * BACKOFF_RATIO);
+  }
+
+  private void release()
+  {
+    inFlight--;
+    notifyAll();
+  }
+}
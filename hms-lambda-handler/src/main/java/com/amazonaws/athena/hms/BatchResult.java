@@ -0,0 +1,57 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+// The outcome of one batch of a bulk partition operation, which covers the partitions from the
+// offset of the batch in the original list. A failed batch doesn't affect the other batches.
+public class BatchResult
+{
+  private final int offset;
+  private final int size;
+  // null if the batch succeeded
+  private final Exception error;
+
+  public BatchResult(int offset, int size, Exception error)
+  {
+    this.offset = offset;
+    this.size = size;
+    this.error = error;
+  }
+
+  public int getOffset()
+  {
+    return offset;
+  }
+
+  public int getSize()
+  {
+    return size;
+  }
+
+  public Exception getError()
+  {
+    return error;
+  }
+
+  public boolean isSucceeded()
+  {
+    return error == null;
+  }
+}
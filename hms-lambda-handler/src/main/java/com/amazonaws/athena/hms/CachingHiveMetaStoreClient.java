@@ -0,0 +1,565 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.apache.hadoop.hive.metastore.api.AggrStats;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.hadoop.hive.metastore.api.Database;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.metastore.api.TableMeta;
+import org.apache.thrift.TBase;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// A HiveMetaStoreClient decorator that caches the Database and Table objects, as well as the
+// sorted partition names of the tables, in the Lambda container, so that a warm container serves
+// the hot tables without calling HMS. The cache is bounded by the estimated size of the objects
+// and each object type has its own TTL. The partition names have a size limit of their own, since
+// the names of a single large table could be larger than all the databases and tables together.
+// The databases and tables written through this client are invalidated right away, the ones
+// changed by other clients when they show up in the notification log, or else by the TTLs.
+public class CachingHiveMetaStoreClient implements HiveMetaStoreClient
+{
+  private static final Logger LOG = LoggerFactory.getLogger(CachingHiveMetaStoreClient.class);
+
+  private final HiveMetaStoreClient delegate;
+  private final MetadataCache<Object> cache;
+  private final MetadataCache<NameSnapshot> partitionNamesCache;
+  // notified of every invalidation, i.e., of the changes made through this client as well as the
+  // ones of other clients found in the notification log
+  private final List<MetadataChangeListener> listeners = new CopyOnWriteArrayList<>();
+  private final long databaseTtlMs;
+  private final long tableTtlMs;
+  private final long partitionNamesTtlMs;
+
+  public CachingHiveMetaStoreClient(HiveMetaStoreClient delegate, long maxBytes, long partitionNamesMaxBytes,
+                                    long databaseTtlMs, long tableTtlMs, long partitionNamesTtlMs)
+  {
+    this.delegate = delegate;
+    this.cache = new MetadataCache<>(maxBytes);
+    this.partitionNamesCache = new MetadataCache<>(partitionNamesMaxBytes);
+    this.databaseTtlMs = databaseTtlMs;
+    this.tableTtlMs = tableTtlMs;
+    this.partitionNamesTtlMs = partitionNamesTtlMs;
+    delegate.addChangeListener(new CacheInvalidator());
+  }
+
+  private class CacheInvalidator implements MetadataChangeListener
+  {
+    @Override
+    public void onDatabaseChanged(String dbName)
+    {
+      invalidateDatabase(dbName);
+    }
+
+    @Override
+    public void onTableChanged(String dbName, String tableName)
+    {
+      if (tableName != null) {
+        invalidateTable(dbName, tableName);
+      }
+    }
+
+    @Override
+    public void onPartitionsChanged(String dbName, String tableName)
+    {
+      invalidatePartitionNames(dbName, tableName);
+    }
+
+    @Override
+    public void onReset()
+    {
+      cache.clear();
+      partitionNamesCache.clear();
+      for (MetadataChangeListener listener : listeners) {
+        listener.onReset();
+      }
+    }
+  }
+
+  // the hit, miss and eviction counters
+  public MetadataCache<Object> getCache()
+  {
+    return cache;
+  }
+
+  public MetadataCache<NameSnapshot> getPartitionNamesCache()
+  {
+    return partitionNamesCache;
+  }
+
+  // HMS object names are case-insensitive, the prefixes keep the object types apart
+  private static String databaseKey(String dbName)
+  {
+    return "database:" + dbName.toLowerCase();
+  }
+
+  private static String tableKey(String dbName, String tableName)
+  {
+    return "table:" + dbName.toLowerCase() + "." + tableName.toLowerCase();
+  }
+
+  private static String partitionNamesKey(String dbName, String tableName)
+  {
+    return "partitionNames:" + dbName.toLowerCase() + "." + tableName.toLowerCase();
+  }
+
+  private void invalidateDatabase(String dbName)
+  {
+    cache.invalidate(databaseKey(dbName));
+    // dropping a database drops its tables as well
+    String tablePrefix = tableKey(dbName, "");
+    cache.invalidateIf(key -> key.startsWith(tablePrefix));
+    String partitionNamesPrefix = partitionNamesKey(dbName, "");
+    partitionNamesCache.invalidateIf(key -> key.startsWith(partitionNamesPrefix));
+    for (MetadataChangeListener listener : listeners) {
+      listener.onDatabaseChanged(dbName);
+    }
+  }
+
+  private void invalidateTable(String dbName, String tableName)
+  {
+    cache.invalidate(tableKey(dbName, tableName));
+    partitionNamesCache.invalidate(partitionNamesKey(dbName, tableName));
+    for (MetadataChangeListener listener : listeners) {
+      listener.onTableChanged(dbName, tableName);
+    }
+  }
+
+  private void invalidatePartitionNames(String dbName, String tableName)
+  {
+    partitionNamesCache.invalidate(partitionNamesKey(dbName, tableName));
+    notifyPartitionsChanged(dbName, tableName);
+  }
+
+  // the partitions changed but not their names, e.g., they were altered
+  private void notifyPartitionsChanged(String dbName, String tableName)
+  {
+    for (MetadataChangeListener listener : listeners) {
+      listener.onPartitionsChanged(dbName, tableName);
+    }
+  }
+
+  private void put(String key, TBase<?, ?> value, long ttlMs)
+  {
+    if (!cache.isEnabled() || value == null) {
+      return;
+    }
+    try {
+      // the compact protocol is close to what the object takes on the wire and in the heap
+      long sizeBytes = new TSerializer(new TCompactProtocol.Factory()).serialize(value).length;
+      cache.put(key, value, sizeBytes, ttlMs);
+    }
+    catch (TException e) {
+      // not cached
+    }
+  }
+
+  // the callers get their own copies, e.g., to apply field masks, so that the cached objects
+  // never change
+  @Override
+  public Database getDatabase(String dbName) throws TException
+  {
+    String key = databaseKey(dbName);
+    Database database = (Database) cache.get(key);
+    if (database == null) {
+      database = delegate.getDatabase(dbName);
+      put(key, database, databaseTtlMs);
+    }
+    return database == null ? null : database.deepCopy();
+  }
+
+  @Override
+  public Table getTable(String dbName, String tableName) throws TException
+  {
+    String key = tableKey(dbName, tableName);
+    Table table = (Table) cache.get(key);
+    if (table == null) {
+      table = delegate.getTable(dbName, tableName);
+      put(key, table, tableTtlMs);
+    }
+    return table == null ? null : table.deepCopy();
+  }
+
+  // only the tables that are not cached are fetched, in a single call, and the tables are
+  // returned in the order of the names, the missing tables are left out as HMS does
+  @Override
+  public List<Table> getTablesByNames(String dbName, List<String> tableNames) throws TException
+  {
+    if (!cache.isEnabled() || tableNames == null) {
+      return delegate.getTablesByNames(dbName, tableNames);
+    }
+    Map<String, Table> tables = new HashMap<>();
+    List<String> missingNames = new ArrayList<>();
+    for (String tableName : tableNames) {
+      Table table = (Table) cache.get(tableKey(dbName, tableName));
+      if (table == null) {
+        missingNames.add(tableName);
+      }
+      else {
+        tables.put(tableName.toLowerCase(), table);
+      }
+    }
+    if (!missingNames.isEmpty()) {
+      List<Table> fetched = delegate.getTablesByNames(dbName, missingNames);
+      if (fetched != null) {
+        for (Table table : fetched) {
+          put(tableKey(dbName, table.getTableName()), table, tableTtlMs);
+          tables.put(table.getTableName().toLowerCase(), table);
+        }
+      }
+    }
+    List<Table> result = new ArrayList<>(tables.size());
+    for (String tableName : tableNames) {
+      Table table = tables.remove(tableName.toLowerCase());
+      if (table != null) {
+        result.add(table.deepCopy());
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public boolean createDatabase(String name) throws TException
+  {
+    try {
+      return delegate.createDatabase(name);
+    }
+    finally {
+      invalidateDatabase(name);
+    }
+  }
+
+  @Override
+  public boolean createDatabase(String name, String description, String location,
+                                Map<String, String> params) throws TException
+  {
+    try {
+      return delegate.createDatabase(name, description, location, params);
+    }
+    finally {
+      invalidateDatabase(name);
+    }
+  }
+
+  @Override
+  public boolean createDatabase(Database db) throws TException
+  {
+    try {
+      return delegate.createDatabase(db);
+    }
+    finally {
+      invalidateDatabase(db.getName());
+    }
+  }
+
+  @Override
+  public boolean dropDatabase(String dbName) throws TException
+  {
+    try {
+      return delegate.dropDatabase(dbName);
+    }
+    finally {
+      invalidateDatabase(dbName);
+    }
+  }
+
+  @Override
+  public boolean createTable(Table table) throws TException
+  {
+    try {
+      return delegate.createTable(table);
+    }
+    finally {
+      invalidateTable(table.getDbName(), table.getTableName());
+    }
+  }
+
+  @Override
+  public boolean dropTable(String dbName, String tableName, boolean dropPartitionsFirst) throws TException
+  {
+    try {
+      return delegate.dropTable(dbName, tableName, dropPartitionsFirst);
+    }
+    finally {
+      invalidateTable(dbName, tableName);
+    }
+  }
+
+  @Override
+  public boolean alterTable(String dbName, String tableName, Table newTable) throws TException
+  {
+    try {
+      return delegate.alterTable(dbName, tableName, newTable);
+    }
+    finally {
+      // a rename moves the table
+      invalidateTable(dbName, tableName);
+      invalidateTable(newTable.getDbName(), newTable.getTableName());
+    }
+  }
+
+  @Override
+  public boolean dbExists(String dbName) throws TException
+  {
+    return delegate.dbExists(dbName);
+  }
+
+  @Override
+  public boolean tableExists(String dbName, String tableName) throws TException
+  {
+    return delegate.tableExists(dbName, tableName);
+  }
+
+  @Override
+  public Set<String> getDatabaseNames(String filter) throws TException
+  {
+    return delegate.getDatabaseNames(filter);
+  }
+
+  @Override
+  public List<Database> getDatabases(String filter) throws TException
+  {
+    return delegate.getDatabases(filter);
+  }
+
+  @Override
+  public List<Database> getDatabasesByNames(List<String> dbNames) throws TException
+  {
+    return delegate.getDatabasesByNames(dbNames);
+  }
+
+  @Override
+  public Set<String> getTableNames(String dbName, String filter) throws TException
+  {
+    return delegate.getTableNames(dbName, filter);
+  }
+
+  // the snapshot is never changed so that it is shared by the callers. Partition writes of other
+  // clients only show up once the notification log is polled, so a new listing always rebuilds the
+  // snapshot and only its continuation pages reuse it
+  @Override
+  public NameSnapshot getPartitionNameSnapshot(String dbName, String tableName, boolean reuse) throws TException
+  {
+    String key = partitionNamesKey(dbName, tableName);
+    NameSnapshot snapshot = reuse ? partitionNamesCache.get(key) : null;
+    if (snapshot == null) {
+      snapshot = delegate.getPartitionNameSnapshot(dbName, tableName, false);
+      if (snapshot != null && partitionNamesCache.isEnabled() &&
+          !partitionNamesCache.put(key, snapshot, snapshot.estimateSizeBytes(), partitionNamesTtlMs)) {
+        // every page of the listing lists and sorts all the names again
+        LOG.warn("The {} partition names of {}.{} take {} bytes, more than the {} bytes of the partition names cache",
+            snapshot.getSortedNames().size(), dbName, tableName, snapshot.estimateSizeBytes(),
+            partitionNamesCache.getMaxBytes());
+      }
+    }
+    return snapshot;
+  }
+
+  @Override
+  public Partition createPartition(Table table, List<String> values) throws TException
+  {
+    try {
+      return delegate.createPartition(table, values);
+    }
+    finally {
+      invalidatePartitionNames(table.getDbName(), table.getTableName());
+    }
+  }
+
+  @Override
+  public Partition addPartition(Partition partition) throws TException
+  {
+    try {
+      return delegate.addPartition(partition);
+    }
+    finally {
+      invalidatePartitionNames(partition.getDbName(), partition.getTableName());
+    }
+  }
+
+  @Override
+  public List<BatchResult> addPartitions(List<Partition> partitions, boolean ifNotExists) throws TException
+  {
+    try {
+      return delegate.addPartitions(partitions, ifNotExists);
+    }
+    finally {
+      if (partitions != null) {
+        for (Partition partition : partitions) {
+          invalidatePartitionNames(partition.getDbName(), partition.getTableName());
+        }
+      }
+    }
+  }
+
+  @Override
+  public List<String> getPartitionNames(String dbName, String tableName, short maxSize) throws TException
+  {
+    return delegate.getPartitionNames(dbName, tableName, maxSize);
+  }
+
+  @Override
+  public boolean dropPartition(String dbName, String tableName, List<String> arguments) throws TException
+  {
+    try {
+      return delegate.dropPartition(dbName, tableName, arguments);
+    }
+    finally {
+      invalidatePartitionNames(dbName, tableName);
+    }
+  }
+
+  @Override
+  public List<Partition> getPartitions(String dbName, String tableName, short maxSize) throws TException
+  {
+    return delegate.getPartitions(dbName, tableName, maxSize);
+  }
+
+  @Override
+  public DropPartitionsProgress dropPartitions(String dbName, String tableName, List<String> partNames,
+                                               boolean deleteData, boolean needResult) throws TException
+  {
+    try {
+      return delegate.dropPartitions(dbName, tableName, partNames, deleteData, needResult);
+    }
+    finally {
+      invalidatePartitionNames(dbName, tableName);
+    }
+  }
+
+  @Override
+  public List<Partition> getPartitionsByNames(String dbName, String tableName,
+                                              List<String> names) throws TException
+  {
+    return delegate.getPartitionsByNames(dbName, tableName, names);
+  }
+
+  @Override
+  public List<Partition> getPartitionsByFilter(String dbName, String tableName,
+                                               String filter, short maxSize) throws TException
+  {
+    return delegate.getPartitionsByFilter(dbName, tableName, filter, maxSize);
+  }
+
+  @Override
+  public int getNumPartitionsByFilter(String dbName, String tableName, String filter) throws TException
+  {
+    return delegate.getNumPartitionsByFilter(dbName, tableName, filter);
+  }
+
+  @Override
+  public List<TableMeta> getTableMeta(String dbPatterns, String tablePatterns, List<String> tableTypes) throws TException
+  {
+    return delegate.getTableMeta(dbPatterns, tablePatterns, tableTypes);
+  }
+
+  @Override
+  public List<ColumnStatisticsObj> getTableColumnStatistics(String dbName, String tableName,
+                                                            List<String> colNames) throws TException
+  {
+    return delegate.getTableColumnStatistics(dbName, tableName, colNames);
+  }
+
+  @Override
+  public Map<String, List<ColumnStatisticsObj>> getPartitionColumnStatistics(String dbName, String tableName,
+                                                                             List<String> partNames, List<String> colNames) throws TException
+  {
+    return delegate.getPartitionColumnStatistics(dbName, tableName, partNames, colNames);
+  }
+
+  @Override
+  public AggrStats getAggrColumnStatistics(String dbName, String tableName,
+                                           List<String> partNames, List<String> colNames) throws TException
+  {
+    return delegate.getAggrColumnStatistics(dbName, tableName, partNames, colNames);
+  }
+
+  @Override
+  public List<List<String>> getPartitionValues(Table table, List<String> partitionKeys, String filter,
+                                               boolean applyDistinct, boolean ascending, int maxParts) throws TException
+  {
+    return delegate.getPartitionValues(table, partitionKeys, filter, applyDistinct, ascending, maxParts);
+  }
+
+  @Override
+  public void alterPartition(String dbName, String tableName, Partition partition) throws TException
+  {
+    try {
+      delegate.alterPartition(dbName, tableName, partition);
+    }
+    finally {
+      notifyPartitionsChanged(dbName, tableName);
+    }
+  }
+
+  @Override
+  public List<BatchResult> alterPartitions(String dbName, String tableName,
+                                           List<Partition> partitions) throws TException
+  {
+    try {
+      return delegate.alterPartitions(dbName, tableName, partitions);
+    }
+    finally {
+      notifyPartitionsChanged(dbName, tableName);
+    }
+  }
+
+  @Override
+  public void appendPartition(String dbName, String tableName, List<String> partitionValues) throws TException
+  {
+    try {
+      delegate.appendPartition(dbName, tableName, partitionValues);
+    }
+    finally {
+      invalidatePartitionNames(dbName, tableName);
+    }
+  }
+
+  // the listener hears of the changes of other clients through the invalidations as well
+  @Override
+  public void addChangeListener(MetadataChangeListener listener)
+  {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void pollChanges()
+  {
+    delegate.pollChanges();
+  }
+
+  @Override
+  public boolean isBusy()
+  {
+    return delegate.isBusy();
+  }
+}
@@ -0,0 +1,145 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+// A circuit breaker over the outcomes of the recent metastore calls. It opens when the failure
+// rate of the last calls reaches the threshold, then rejects the calls for the open period so that
+// a struggling HMS is not flooded with calls that would fail anyway. After that, one probe call
+// per open period is let through, and only the outcome of the probe closes the breaker or keeps it
+// open, since the calls let through before it opened could still finish in any way.
+// A non-positive threshold disables the breaker.
+public class CircuitBreaker
+{
+  private static final int WINDOW_SIZE = 50;
+  private static final int MIN_CALLS = 20;
+
+  // what allowRequest() lets through, the caller hands it back along with the outcome of the call
+  public static final class Permit
+  {
+    private Permit()
+    {
+    }
+  }
+
+  // shared by the calls that are not probes
+  private static final Permit CALL = new Permit();
+
+  private final double failureRateThreshold;
+  private final long openMs;
+  // the outcomes of the last calls in a ring buffer, true for a failure
+  private final boolean[] window = new boolean[WINDOW_SIZE];
+  private int numCalls;
+  private int numFailures;
+  private int next;
+  // the time when the breaker opened or let the last probe through, 0 if it is closed
+  private long openedAtMs;
+  // the probe in flight, if any, which is given up on after an open period without an outcome
+  private Permit probe;
+
+  public CircuitBreaker(double failureRateThreshold, long openMs)
+  {
+    this.failureRateThreshold = failureRateThreshold;
+    this.openMs = openMs;
+  }
+
+  public synchronized boolean isOpen()
+  {
+    return openedAtMs > 0;
+  }
+
+  // null if the call is rejected
+  public synchronized Permit allowRequest()
+  {
+    if (openedAtMs == 0) {
+      return CALL;
+    }
+    long now = System.currentTimeMillis();
+    if (now - openedAtMs >= openMs) {
+      // let a probe through and keep rejecting the others until its outcome is known
+      openedAtMs = now;
+      probe = new Permit();
+      return probe;
+    }
+    return null;
+  }
+
+  public synchronized void recordSuccess(Permit permit)
+  {
+    if (openedAtMs > 0 && probe != null && permit == probe) {
+      // the probe succeeded, start over with a clean window
+      openedAtMs = 0;
+      probe = null;
+      numCalls = 0;
+      numFailures = 0;
+      next = 0;
+      return;
+    }
+    record(false);
+  }
+
+  public synchronized void recordFailure(Permit permit)
+  {
+    if (failureRateThreshold <= 0) {
+      return;
+    }
+    if (openedAtMs > 0) {
+      if (probe != null && permit == probe) {
+        // the probe failed, stay open for another period
+        openedAtMs = System.currentTimeMillis();
+        probe = null;
+      }
+      else {
+        record(true);
+      }
+      return;
+    }
+    record(true);
+    if (numCalls >= MIN_CALLS && numFailures >= failureRateThreshold * numCalls) {
+      openedAtMs = System.currentTimeMillis();
+    }
+  }
+
+  // the call ended without telling anything about the health of HMS, e.g., it was cut by the
+  // deadline of the request, so a probe is let through again right away
+  public synchronized void recordIgnored(Permit permit)
+  {
+    if (openedAtMs > 0 && probe != null && permit == probe) {
+      openedAtMs = System.currentTimeMillis() - openMs;
+      probe = null;
+    }
+  }
+
+  private void record(boolean failure)
+  {
+    if (numCalls == WINDOW_SIZE) {
+      if (window[next]) {
+        numFailures--;
+      }
+    }
+    else {
+      numCalls++;
+    }
+    window[next] = failure;
+    if (failure) {
+      numFailures++;
+    }
+    next = (next + 1) % WINDOW_SIZE;
+  }
+}
@@ -0,0 +1,87 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+// The time by which the metastore calls of the current Lambda invocation must be done. MetadataHandler
+// derives it from Context.getRemainingTimeInMillis() and binds it to the request thread so that the
+// client could bound each call by the time left, and paginated handlers could return a partial page
+// with a valid nextToken instead of running into the Lambda timeout.
+public class Deadline
+{
+  private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+  private final long expireAtMillis;
+
+  private Deadline(long expireAtMillis)
+  {
+    this.expireAtMillis = expireAtMillis;
+  }
+
+  public static Deadline after(long millis)
+  {
+    return new Deadline(System.currentTimeMillis() + millis);
+  }
+
+  public long getRemainingMillis()
+  {
+    return expireAtMillis - System.currentTimeMillis();
+  }
+
+  public boolean isExpired()
+  {
+    return getRemainingMillis() <= 0;
+  }
+
+  // the deadline of the current thread, null if there is none
+  public static Deadline current()
+  {
+    return CURRENT.get();
+  }
+
+  public static void set(Deadline deadline)
+  {
+    if (deadline == null) {
+      CURRENT.remove();
+    }
+    else {
+      CURRENT.set(deadline);
+    }
+  }
+
+  public static void clear()
+  {
+    CURRENT.remove();
+  }
+
+  // the time left before the deadline of the current thread, capped by maxMillis
+  public static long remainingMillis(long maxMillis)
+  {
+    Deadline deadline = CURRENT.get();
+    return deadline == null ? maxMillis : Math.min(maxMillis, deadline.getRemainingMillis());
+  }
+
+  public static void check() throws DeadlineExceededException
+  {
+    Deadline deadline = CURRENT.get();
+    if (deadline != null && deadline.isExpired()) {
+      throw new DeadlineExceededException("Deadline of the request exceeded");
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.apache.hadoop.hive.metastore.api.DropPartitionsResult;
+
+// The progress of dropping partitions in batches. A drop which ran out of time, or failed, before
+// all the partitions were dropped is incomplete and could be resumed by sending it again.
+public class DropPartitionsProgress
+{
+  // exact if the dropped partitions were requested, otherwise an upper bound, since the partitions
+  // which did not exist are skipped by HMS without telling
+  private final int numDropped;
+  // the dropped partitions, null unless they were requested
+  private final DropPartitionsResult result;
+  private final boolean complete;
+
+  public DropPartitionsProgress(int numDropped, DropPartitionsResult result, boolean complete)
+  {
+    this.numDropped = numDropped;
+    this.result = result;
+    this.complete = complete;
+  }
+
+  public int getNumDropped()
+  {
+    return numDropped;
+  }
+
+  public DropPartitionsResult getResult()
+  {
+    return result;
+  }
+
+  public boolean isComplete()
+  {
+    return complete;
+  }
+}
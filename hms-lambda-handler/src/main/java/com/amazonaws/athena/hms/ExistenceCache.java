@@ -0,0 +1,99 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+// A short-lived cache of positive and negative existence checks, for example, whether a database
+// or a table exists. Entries expire after the TTL so that changes made by other HMS clients become
+// visible, while changes made through this container should invalidate the affected entries.
+public class ExistenceCache
+{
+  // bound the memory since negative entries could be created for arbitrary names
+  private static final int MAX_ENTRIES = 10000;
+
+  private final long ttlMs;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  private static class Entry
+  {
+    private final boolean exists;
+    private final long expireAtMs;
+
+    private Entry(boolean exists, long expireAtMs)
+    {
+      this.exists = exists;
+      this.expireAtMs = expireAtMs;
+    }
+  }
+
+  // a non-positive TTL disables the cache
+  public ExistenceCache(long ttlMs)
+  {
+    this.ttlMs = ttlMs;
+  }
+
+  public boolean isEnabled()
+  {
+    return ttlMs > 0;
+  }
+
+  // return null if the key is not cached or the entry expired
+  public Boolean get(String key)
+  {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.expireAtMs <= System.currentTimeMillis()) {
+      entries.remove(key, entry);
+      return null;
+    }
+    return entry.exists;
+  }
+
+  public void put(String key, boolean exists)
+  {
+    if (!isEnabled()) {
+      return;
+    }
+    if (entries.size() >= MAX_ENTRIES) {
+      entries.clear();
+    }
+    entries.put(key, new Entry(exists, System.currentTimeMillis() + ttlMs));
+  }
+
+  public void invalidate(String key)
+  {
+    entries.remove(key);
+  }
+
+  public void invalidateIf(Predicate<String> predicate)
+  {
+    entries.keySet().removeIf(predicate);
+  }
+
+  public void clear()
+  {
+    entries.clear();
+  }
+}
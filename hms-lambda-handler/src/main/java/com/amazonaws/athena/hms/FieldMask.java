@@ -0,0 +1,135 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.apache.thrift.TBase;
+import org.apache.thrift.TFieldIdEnum;
+import org.apache.thrift.meta_data.FieldMetaData;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// A field mask to only return the requested fields of thrift objects, for example, a Partition with the
+// field mask ["values", "sd.location", "sd.inputFormat"] only keeps its values and the location and input
+// format of its storage descriptor. A field without sub-fields, e.g., "sd", keeps the whole object.
+// A path with an empty name or a name which is not a field of the object is rejected, so that a typo
+// fails the request instead of silently returning objects without the requested field.
+// Hive 2.3 has no server side projection, thus the objects are pruned before they are serialized.
+public class FieldMask
+{
+  private static final FieldMask ALL = new FieldMask(null);
+
+  // the field name to the mask of its sub-fields, an empty mask keeps all the sub-fields
+  private final Map<String, FieldMask> fields;
+
+  private FieldMask(Map<String, FieldMask> fields)
+  {
+    this.fields = fields;
+  }
+
+  // a null or an empty list means all the fields
+  public static FieldMask of(List<String> paths)
+  {
+    if (paths == null || paths.isEmpty()) {
+      return ALL;
+    }
+    FieldMask mask = new FieldMask(new HashMap<>());
+    for (String path : paths) {
+      if (path == null || path.trim().isEmpty()) {
+        throw new IllegalArgumentException("Empty field path in field mask " + paths);
+      }
+      FieldMask current = mask;
+      for (String name : path.trim().split("\\.", -1)) {
+        if (name.isEmpty()) {
+          throw new IllegalArgumentException("Invalid field path " + path + " in field mask " + paths);
+        }
+        current = current.fields.computeIfAbsent(name, k -> new FieldMask(new HashMap<>()));
+      }
+    }
+    return mask;
+  }
+
+  public boolean isAll()
+  {
+    return fields == null || fields.isEmpty();
+  }
+
+  // return a pruned copy of the object, or the object itself if the mask keeps all the fields.
+  // Throws IllegalArgumentException if the mask has a field which the object does not have
+  @SuppressWarnings("unchecked")
+  public <T extends TBase> T apply(T object)
+  {
+    if (object == null || isAll()) {
+      return object;
+    }
+    T copy = (T) object.deepCopy();
+    prune(copy);
+    return copy;
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private void prune(TBase object)
+  {
+    Map<? extends TFieldIdEnum, FieldMetaData> metaDataMap = FieldMetaData.getStructMetaDataMap(object.getClass());
+    Set<String> names = new HashSet<>();
+    for (TFieldIdEnum field : metaDataMap.keySet()) {
+      names.add(field.getFieldName());
+    }
+    for (String name : fields.keySet()) {
+      if (!names.contains(name)) {
+        throw new IllegalArgumentException("Unknown field " + name + " of " + object.getClass().getSimpleName()
+            + ", valid fields: " + new TreeSet<>(names));
+      }
+    }
+    for (TFieldIdEnum field : metaDataMap.keySet()) {
+      FieldMask mask = fields.get(field.getFieldName());
+      if (mask == null) {
+        // unset the field so that it is skipped by the serializer
+        object.setFieldValue(field, null);
+      }
+      else if (!mask.isAll()) {
+        Object value = object.getFieldValue(field);
+        if (value instanceof TBase) {
+          mask.prune((TBase) value);
+        }
+        else if (value instanceof Collection) {
+          // for example, "sd.cols.name" only keeps the column names
+          for (Object element : (Collection<?>) value) {
+            if (element instanceof TBase) {
+              mask.prune((TBase) element);
+            }
+            else if (element != null) {
+              throw new IllegalArgumentException("Field " + field.getFieldName() + " has no sub-fields");
+            }
+          }
+        }
+        else if (value != null) {
+          // for example, "values.name" while the values are strings
+          throw new IllegalArgumentException("Field " + field.getFieldName() + " has no sub-fields");
+        }
+      }
+    }
+  }
+}
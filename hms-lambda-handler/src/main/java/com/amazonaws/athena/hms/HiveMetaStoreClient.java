@@ -19,10 +19,12 @@
  */
 package com.amazonaws.athena.hms;
 
+import org.apache.hadoop.hive.metastore.api.AggrStats;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.Database;
-import org.apache.hadoop.hive.metastore.api.DropPartitionsResult;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.metastore.api.TableMeta;
 import org.apache.thrift.TException;
 
 import java.util.List;
@@ -63,7 +65,7 @@ public interface HiveMetaStoreClient
 
   boolean createTable(Table table) throws TException;
 
-  boolean dropTable(String dbName, String tableName) throws TException;
+  boolean dropTable(String dbName, String tableName, boolean dropPartitionsFirst) throws TException;
 
   Table getTable(String dbName, String tableName) throws TException;
 
@@ -71,30 +73,68 @@ public interface HiveMetaStoreClient
 
   Partition addPartition(Partition partition) throws TException;
 
-  void addPartitions(List<Partition> partitions) throws TException;
+  List<BatchResult> addPartitions(List<Partition> partitions, boolean ifNotExists) throws TException;
 
   List<String> getPartitionNames(String dbName, String tableName, short maxSize) throws TException;
 
+  // all the partition names of a table sorted, a cached snapshot could be reused only if reuse is set,
+  // e.g., for the continuation pages of a listing, otherwise it is rebuilt
+  NameSnapshot getPartitionNameSnapshot(String dbName, String tableName, boolean reuse) throws TException;
+
   boolean dropPartition(String dbName, String tableName,
                         List<String> arguments) throws TException;
 
   List<Partition> getPartitions(String dbName, String tableName, short maxSize) throws TException;
 
-  DropPartitionsResult dropPartitions(String dbName, String tableName,
-                                      List<String> partNames) throws TException;
+  DropPartitionsProgress dropPartitions(String dbName, String tableName, List<String> partNames,
+                                        boolean deleteData, boolean needResult) throws TException;
 
   List<Partition> getPartitionsByNames(String dbName, String tableName,
                                        List<String> names) throws TException;
 
+  List<Partition> getPartitionsByFilter(String dbName, String tableName,
+                                        String filter, short maxSize) throws TException;
+
+  int getNumPartitionsByFilter(String dbName, String tableName, String filter) throws TException;
+
+  List<TableMeta> getTableMeta(String dbPatterns, String tablePatterns, List<String> tableTypes) throws TException;
+
+  List<ColumnStatisticsObj> getTableColumnStatistics(String dbName, String tableName,
+                                                     List<String> colNames) throws TException;
+
+  // a null partNames means all the partitions of the table
+  Map<String, List<ColumnStatisticsObj>> getPartitionColumnStatistics(String dbName, String tableName,
+                                                                      List<String> partNames, List<String> colNames) throws TException;
+
+  // a null partNames means all the partitions of the table
+  AggrStats getAggrColumnStatistics(String dbName, String tableName,
+                                    List<String> partNames, List<String> colNames) throws TException;
+
+  // the values of the given partition keys of the partitions that match the optional filter,
+  // one row per partition
+  List<List<String>> getPartitionValues(Table table, List<String> partitionKeys, String filter,
+                                        boolean applyDistinct, boolean ascending, int maxParts) throws TException;
+
   boolean alterTable(String dbName, String tableName, Table newTable)
       throws TException;
 
   void alterPartition(String dbName, String tableName,
                       Partition partition) throws TException;
 
-  void alterPartitions(String dbName, String tableName,
-                       List<Partition> partitions) throws TException;
+  List<BatchResult> alterPartitions(String dbName, String tableName,
+                                    List<Partition> partitions) throws TException;
 
   void appendPartition(String dbName, String tableName,
                        List<String> partitionValues) throws TException;
+
+  // receive the changes made by any HMS client, which are found by pollChanges(), a caching client
+  // tells of the changes made through it as well
+  void addChangeListener(MetadataChangeListener listener);
+
+  // poll the metadata changes if the poll interval has passed, errors are logged and ignored
+  void pollChanges();
+
+  // whether the calls in flight already hold much of the capacity to HMS, in which case optional
+  // work, e.g., prefetching a page, should be skipped rather than compete with the requests
+  boolean isBusy();
 }
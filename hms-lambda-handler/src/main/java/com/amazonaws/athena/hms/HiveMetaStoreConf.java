@@ -32,6 +32,50 @@ public class HiveMetaStoreConf
   public static final String HMS_HANDLER_NAME_PREFIX = "hive.metastore.handler.name.prefix";
   public static final String DEFAULT_HMS_HANDLER_NAME_PREFIX = "com.amazonaws.athena.hms.handler.";
   public static final long DEFAULT_HMS_RESPONSE_SPILL_THRESHOLD = 4 * 1024 * 1024; // 4MB
+  public static final String HMS_CLIENT_POOL_SIZE = "hive.metastore.client.pool.size";
+  public static final int DEFAULT_HMS_CLIENT_POOL_SIZE = 8;
+  public static final String HMS_CLIENT_POOL_VALIDATION_INTERVAL_MS = "hive.metastore.client.pool.validation.interval.ms";
+  public static final long DEFAULT_HMS_CLIENT_POOL_VALIDATION_INTERVAL_MS = 30 * 1000L; // 30 seconds
+  public static final String HMS_CLIENT_RETRY_MAX_ATTEMPTS = "hive.metastore.client.retry.max.attempts";
+  public static final int DEFAULT_HMS_CLIENT_RETRY_MAX_ATTEMPTS = 3;
+  public static final String HMS_CLIENT_RETRY_BACKOFF_MS = "hive.metastore.client.retry.backoff.ms";
+  public static final long DEFAULT_HMS_CLIENT_RETRY_BACKOFF_MS = 100L;
+  public static final String HMS_CLIENT_PARALLELISM = "hive.metastore.client.parallelism";
+  public static final int DEFAULT_HMS_CLIENT_PARALLELISM = 8;
+  public static final String HMS_CLIENT_PARTITION_BATCH_SIZE = "hive.metastore.client.partition.batch.size";
+  public static final int DEFAULT_HMS_CLIENT_PARTITION_BATCH_SIZE = 300;
+  public static final String HMS_CLIENT_EXISTENCE_CACHE_TTL_MS = "hive.metastore.client.existence.cache.ttl.ms";
+  public static final long DEFAULT_HMS_CLIENT_EXISTENCE_CACHE_TTL_MS = 10 * 1000L; // 10 seconds
+  public static final String HMS_KERBEROS_RENEW_INTERVAL_MS = "hive.metastore.kerberos.renew.interval.ms";
+  public static final long DEFAULT_HMS_KERBEROS_RENEW_INTERVAL_MS = 60 * 1000L; // 1 minute
+  public static final String HMS_DEADLINE_RESERVE_MS = "hive.metastore.deadline.reserve.ms";
+  public static final long DEFAULT_HMS_DEADLINE_RESERVE_MS = 5 * 1000L; // 5 seconds
+  public static final String HMS_CLIENT_HEDGE_PERCENTILE = "hive.metastore.client.hedge.percentile";
+  public static final double DEFAULT_HMS_CLIENT_HEDGE_PERCENTILE = 0.0;
+  public static final String HMS_CLIENT_PARTITION_WRITE_BATCH_SIZE = "hive.metastore.client.partition.write.batch.size";
+  public static final int DEFAULT_HMS_CLIENT_PARTITION_WRITE_BATCH_SIZE = 100;
+  public static final String HMS_CLIENT_LIMITER_LATENCY_TOLERANCE = "hive.metastore.client.limiter.latency.tolerance";
+  public static final double DEFAULT_HMS_CLIENT_LIMITER_LATENCY_TOLERANCE = 2.0;
+  public static final String HMS_CLIENT_CIRCUIT_BREAKER_FAILURE_RATE = "hive.metastore.client.circuit.breaker.failure.rate";
+  public static final double DEFAULT_HMS_CLIENT_CIRCUIT_BREAKER_FAILURE_RATE = 0.5;
+  public static final String HMS_CLIENT_CIRCUIT_BREAKER_OPEN_MS = "hive.metastore.client.circuit.breaker.open.ms";
+  public static final long DEFAULT_HMS_CLIENT_CIRCUIT_BREAKER_OPEN_MS = 10 * 1000L; // 10 seconds
+  public static final String HMS_CLIENT_NOTIFICATION_POLL_INTERVAL_MS = "hive.metastore.client.notification.poll.interval.ms";
+  public static final long DEFAULT_HMS_CLIENT_NOTIFICATION_POLL_INTERVAL_MS = 5 * 1000L; // 5 seconds
+  public static final String HMS_CLIENT_METADATA_CACHE_MAX_BYTES = "hive.metastore.client.metadata.cache.max.bytes";
+  public static final long DEFAULT_HMS_CLIENT_METADATA_CACHE_MAX_BYTES = 32 * 1024 * 1024L; // 32 MB
+  public static final String HMS_CLIENT_METADATA_CACHE_DATABASE_TTL_MS = "hive.metastore.client.metadata.cache.database.ttl.ms";
+  public static final long DEFAULT_HMS_CLIENT_METADATA_CACHE_DATABASE_TTL_MS = 5 * 60 * 1000L; // 5 minutes
+  public static final String HMS_CLIENT_METADATA_CACHE_TABLE_TTL_MS = "hive.metastore.client.metadata.cache.table.ttl.ms";
+  public static final long DEFAULT_HMS_CLIENT_METADATA_CACHE_TABLE_TTL_MS = 60 * 1000L; // 1 minute
+  public static final String HMS_CLIENT_METADATA_CACHE_PARTITION_NAMES_TTL_MS = "hive.metastore.client.metadata.cache.partition.names.ttl.ms";
+  public static final long DEFAULT_HMS_CLIENT_METADATA_CACHE_PARTITION_NAMES_TTL_MS = 60 * 1000L; // 1 minute
+  public static final String HMS_CLIENT_METADATA_CACHE_PARTITION_NAMES_MAX_BYTES = "hive.metastore.client.metadata.cache.partition.names.max.bytes";
+  public static final long DEFAULT_HMS_CLIENT_METADATA_CACHE_PARTITION_NAMES_MAX_BYTES = 64 * 1024 * 1024L; // 64 MB
+  public static final String HMS_PAGE_PREFETCH_MAX_ENTRIES = "hive.metastore.page.prefetch.max.entries";
+  public static final int DEFAULT_HMS_PAGE_PREFETCH_MAX_ENTRIES = 0; // disabled
+  public static final String HMS_PAGE_PREFETCH_TTL_MS = "hive.metastore.page.prefetch.ttl.ms";
+  public static final long DEFAULT_HMS_PAGE_PREFETCH_TTL_MS = 30 * 1000L; // 30 seconds
   public static final String ENV_HMS_URIS = "HMS_URIS";
   public static final String ENV_SPILL_LOCATION = "SPILL_LOCATION";
 
@@ -70,6 +114,74 @@ public class HiveMetaStoreConf
   // the handler name prefix
   private String handlerNamePrefix;
 
+  // the max number of pooled thrift connections, spread over all the URIs in hive.metastore.uris
+  private int clientPoolSize;
+
+  // a pooled connection idle for longer than this interval is validated before it is reused
+  private long clientPoolValidationIntervalMs;
+
+  // the max number of attempts of an idempotent read call that fails due to a transport error
+  private int clientRetryMaxAttempts;
+
+  // the base delay of the jittered exponential backoff between two attempts
+  private long clientRetryBackoffMs;
+
+  // the max number of concurrent calls when fetching many objects, e.g., databases by names
+  private int clientParallelism;
+
+  // the max number of partitions fetched by names in one thrift call
+  private int clientPartitionBatchSize;
+
+  // how long the results of dbExists and tableExists are cached, 0 to disable the cache
+  private long clientExistenceCacheTtlMs;
+
+  // how often a background thread checks the Kerberos TGT and renews it from the keytab if needed
+  private long kerberosRenewIntervalMs;
+
+  // the time reserved at the end of each invocation to serialize and spill the response,
+  // all the metastore calls must finish before it
+  private long deadlineReserveMs;
+
+  // a read slower than this percentile of the recent latencies of its operation is hedged on another URI,
+  // 0 to disable
+  private double clientHedgePercentile;
+
+  // the max number of partitions added, altered or dropped in one call
+  private int clientPartitionWriteBatchSize;
+
+  // the concurrent calls are cut when their recent latency exceeds this multiple of the usual latency, 0 to disable
+  private double clientLimiterLatencyTolerance;
+
+  // the calls fail fast once this ratio of the recent calls broke their connection, 0 to disable
+  private double clientCircuitBreakerFailureRate;
+
+  // how long the calls fail fast before a probe call is let through
+  private long clientCircuitBreakerOpenMs;
+
+  // how often the invocations poll the notification log of HMS to invalidate the cached metadata, 0 to disable
+  private long clientNotificationPollIntervalMs;
+
+  // the maximum estimated size of the cached databases and tables
+  private long clientMetadataCacheMaxBytes;
+
+  // how long a cached database is used
+  private long clientMetadataCacheDatabaseTtlMs;
+
+  // how long a cached table is used
+  private long clientMetadataCacheTableTtlMs;
+
+  // how long a cached snapshot of the partition names of a table is used
+  private long clientMetadataCachePartitionNamesTtlMs;
+
+  // the maximum size of the cached snapshots of the partition names
+  private long clientMetadataCachePartitionNamesMaxBytes;
+
+  // the maximum number of entries prefetched for the next pages of the listings
+  private int pagePrefetchMaxEntries;
+
+  // how long a prefetched page is kept
+  private long pagePrefetchTtlMs;
+
   public boolean isKerberosEnabled()
   {
     return kerberosEnabled;
@@ -190,6 +302,226 @@ public class HiveMetaStoreConf
     this.handlerNamePrefix = handlerNamePrefix;
   }
 
+  public int getClientPoolSize()
+  {
+    return clientPoolSize;
+  }
+
+  public void setClientPoolSize(int clientPoolSize)
+  {
+    this.clientPoolSize = clientPoolSize;
+  }
+
+  public long getClientPoolValidationIntervalMs()
+  {
+    return clientPoolValidationIntervalMs;
+  }
+
+  public void setClientPoolValidationIntervalMs(long clientPoolValidationIntervalMs)
+  {
+    this.clientPoolValidationIntervalMs = clientPoolValidationIntervalMs;
+  }
+
+  public int getClientRetryMaxAttempts()
+  {
+    return clientRetryMaxAttempts;
+  }
+
+  public void setClientRetryMaxAttempts(int clientRetryMaxAttempts)
+  {
+    this.clientRetryMaxAttempts = clientRetryMaxAttempts;
+  }
+
+  public long getClientRetryBackoffMs()
+  {
+    return clientRetryBackoffMs;
+  }
+
+  public void setClientRetryBackoffMs(long clientRetryBackoffMs)
+  {
+    this.clientRetryBackoffMs = clientRetryBackoffMs;
+  }
+
+  public int getClientParallelism()
+  {
+    return clientParallelism;
+  }
+
+  public void setClientParallelism(int clientParallelism)
+  {
+    this.clientParallelism = clientParallelism;
+  }
+
+  public int getClientPartitionBatchSize()
+  {
+    return clientPartitionBatchSize;
+  }
+
+  public void setClientPartitionBatchSize(int clientPartitionBatchSize)
+  {
+    this.clientPartitionBatchSize = clientPartitionBatchSize;
+  }
+
+  public long getClientExistenceCacheTtlMs()
+  {
+    return clientExistenceCacheTtlMs;
+  }
+
+  public void setClientExistenceCacheTtlMs(long clientExistenceCacheTtlMs)
+  {
+    this.clientExistenceCacheTtlMs = clientExistenceCacheTtlMs;
+  }
+
+  public long getKerberosRenewIntervalMs()
+  {
+    return kerberosRenewIntervalMs;
+  }
+
+  public void setKerberosRenewIntervalMs(long kerberosRenewIntervalMs)
+  {
+    this.kerberosRenewIntervalMs = kerberosRenewIntervalMs;
+  }
+
+  public long getDeadlineReserveMs()
+  {
+    return deadlineReserveMs;
+  }
+
+  public void setDeadlineReserveMs(long deadlineReserveMs)
+  {
+    this.deadlineReserveMs = deadlineReserveMs;
+  }
+
+  public double getClientHedgePercentile()
+  {
+    return clientHedgePercentile;
+  }
+
+  public void setClientHedgePercentile(double clientHedgePercentile)
+  {
+    this.clientHedgePercentile = clientHedgePercentile;
+  }
+
+  public int getClientPartitionWriteBatchSize()
+  {
+    return clientPartitionWriteBatchSize;
+  }
+
+  public void setClientPartitionWriteBatchSize(int clientPartitionWriteBatchSize)
+  {
+    this.clientPartitionWriteBatchSize = clientPartitionWriteBatchSize;
+  }
+
+  public double getClientLimiterLatencyTolerance()
+  {
+    return clientLimiterLatencyTolerance;
+  }
+
+  public void setClientLimiterLatencyTolerance(double clientLimiterLatencyTolerance)
+  {
+    this.clientLimiterLatencyTolerance = clientLimiterLatencyTolerance;
+  }
+
+  public double getClientCircuitBreakerFailureRate()
+  {
+    return clientCircuitBreakerFailureRate;
+  }
+
+  public void setClientCircuitBreakerFailureRate(double clientCircuitBreakerFailureRate)
+  {
+    this.clientCircuitBreakerFailureRate = clientCircuitBreakerFailureRate;
+  }
+
+  public long getClientCircuitBreakerOpenMs()
+  {
+    return clientCircuitBreakerOpenMs;
+  }
+
+  public void setClientCircuitBreakerOpenMs(long clientCircuitBreakerOpenMs)
+  {
+    this.clientCircuitBreakerOpenMs = clientCircuitBreakerOpenMs;
+  }
+
+  public long getClientNotificationPollIntervalMs()
+  {
+    return clientNotificationPollIntervalMs;
+  }
+
+  public void setClientNotificationPollIntervalMs(long clientNotificationPollIntervalMs)
+  {
+    this.clientNotificationPollIntervalMs = clientNotificationPollIntervalMs;
+  }
+
+  public long getClientMetadataCacheMaxBytes()
+  {
+    return clientMetadataCacheMaxBytes;
+  }
+
+  public void setClientMetadataCacheMaxBytes(long clientMetadataCacheMaxBytes)
+  {
+    this.clientMetadataCacheMaxBytes = clientMetadataCacheMaxBytes;
+  }
+
+  public long getClientMetadataCacheDatabaseTtlMs()
+  {
+    return clientMetadataCacheDatabaseTtlMs;
+  }
+
+  public void setClientMetadataCacheDatabaseTtlMs(long clientMetadataCacheDatabaseTtlMs)
+  {
+    this.clientMetadataCacheDatabaseTtlMs = clientMetadataCacheDatabaseTtlMs;
+  }
+
+  public long getClientMetadataCacheTableTtlMs()
+  {
+    return clientMetadataCacheTableTtlMs;
+  }
+
+  public void setClientMetadataCacheTableTtlMs(long clientMetadataCacheTableTtlMs)
+  {
+    this.clientMetadataCacheTableTtlMs = clientMetadataCacheTableTtlMs;
+  }
+
+  public long getClientMetadataCachePartitionNamesTtlMs()
+  {
+    return clientMetadataCachePartitionNamesTtlMs;
+  }
+
+  public void setClientMetadataCachePartitionNamesTtlMs(long clientMetadataCachePartitionNamesTtlMs)
+  {
+    this.clientMetadataCachePartitionNamesTtlMs = clientMetadataCachePartitionNamesTtlMs;
+  }
+
+  public long getClientMetadataCachePartitionNamesMaxBytes()
+  {
+    return clientMetadataCachePartitionNamesMaxBytes;
+  }
+
+  public void setClientMetadataCachePartitionNamesMaxBytes(long clientMetadataCachePartitionNamesMaxBytes)
+  {
+    this.clientMetadataCachePartitionNamesMaxBytes = clientMetadataCachePartitionNamesMaxBytes;
+  }
+
+  public int getPagePrefetchMaxEntries()
+  {
+    return pagePrefetchMaxEntries;
+  }
+
+  public void setPagePrefetchMaxEntries(int pagePrefetchMaxEntries)
+  {
+    this.pagePrefetchMaxEntries = pagePrefetchMaxEntries;
+  }
+
+  public long getPagePrefetchTtlMs()
+  {
+    return pagePrefetchTtlMs;
+  }
+
+  public void setPagePrefetchTtlMs(long pagePrefetchTtlMs)
+  {
+    this.pagePrefetchTtlMs = pagePrefetchTtlMs;
+  }
+
   /*
    * convert this configuration class to an HiveConf object
    *
@@ -212,6 +544,28 @@ public class HiveMetaStoreConf
       conf.setVar(HiveConf.ConfVars.METASTORE_KERBEROS_KEYTAB_FILE, keytabFile);
     }
     conf.setBoolVar(HiveConf.ConfVars.METASTORE_EXECUTE_SET_UGI, metastoreSetUgi);
+    conf.setBoolean(HMS_KERBEROS_ENABLED, kerberosEnabled);
+    conf.setLong(HMS_KERBEROS_RENEW_INTERVAL_MS, kerberosRenewIntervalMs);
+    conf.setDouble(HMS_CLIENT_HEDGE_PERCENTILE, clientHedgePercentile);
+    conf.setInt(HMS_CLIENT_POOL_SIZE, clientPoolSize);
+    conf.setLong(HMS_CLIENT_POOL_VALIDATION_INTERVAL_MS, clientPoolValidationIntervalMs);
+    conf.setInt(HMS_CLIENT_RETRY_MAX_ATTEMPTS, clientRetryMaxAttempts);
+    conf.setLong(HMS_CLIENT_RETRY_BACKOFF_MS, clientRetryBackoffMs);
+    conf.setInt(HMS_CLIENT_PARALLELISM, clientParallelism);
+    conf.setInt(HMS_CLIENT_PARTITION_BATCH_SIZE, clientPartitionBatchSize);
+    conf.setLong(HMS_CLIENT_EXISTENCE_CACHE_TTL_MS, clientExistenceCacheTtlMs);
+    conf.setInt(HMS_CLIENT_PARTITION_WRITE_BATCH_SIZE, clientPartitionWriteBatchSize);
+    conf.setDouble(HMS_CLIENT_LIMITER_LATENCY_TOLERANCE, clientLimiterLatencyTolerance);
+    conf.setDouble(HMS_CLIENT_CIRCUIT_BREAKER_FAILURE_RATE, clientCircuitBreakerFailureRate);
+    conf.setLong(HMS_CLIENT_CIRCUIT_BREAKER_OPEN_MS, clientCircuitBreakerOpenMs);
+    conf.setLong(HMS_CLIENT_NOTIFICATION_POLL_INTERVAL_MS, clientNotificationPollIntervalMs);
+    conf.setLong(HMS_CLIENT_METADATA_CACHE_MAX_BYTES, clientMetadataCacheMaxBytes);
+    conf.setLong(HMS_CLIENT_METADATA_CACHE_DATABASE_TTL_MS, clientMetadataCacheDatabaseTtlMs);
+    conf.setLong(HMS_CLIENT_METADATA_CACHE_TABLE_TTL_MS, clientMetadataCacheTableTtlMs);
+    conf.setLong(HMS_CLIENT_METADATA_CACHE_PARTITION_NAMES_TTL_MS, clientMetadataCachePartitionNamesTtlMs);
+    conf.setLong(HMS_CLIENT_METADATA_CACHE_PARTITION_NAMES_MAX_BYTES, clientMetadataCachePartitionNamesMaxBytes);
+    conf.setInt(HMS_PAGE_PREFETCH_MAX_ENTRIES, pagePrefetchMaxEntries);
+    conf.setLong(HMS_PAGE_PREFETCH_TTL_MS, pagePrefetchTtlMs);
 
     return conf;
   }
@@ -238,6 +592,43 @@ public class HiveMetaStoreConf
     conf.setResponseSpillLocation(hmsConf.getProperty(HMS_RESPONSE_SPILL_LOCATION));
     conf.setResponseSpillThreshold(hmsConf.getLong(HMS_RESPONSE_SPILL_THRESHOLD, DEFAULT_HMS_RESPONSE_SPILL_THRESHOLD));
     conf.setHandlerNamePrefix(hmsConf.getString(HMS_HANDLER_NAME_PREFIX, DEFAULT_HMS_HANDLER_NAME_PREFIX));
+    conf.setClientPoolSize(hmsConf.getInt(HMS_CLIENT_POOL_SIZE, DEFAULT_HMS_CLIENT_POOL_SIZE));
+    conf.setClientPoolValidationIntervalMs(hmsConf.getLong(HMS_CLIENT_POOL_VALIDATION_INTERVAL_MS,
+        DEFAULT_HMS_CLIENT_POOL_VALIDATION_INTERVAL_MS));
+    conf.setClientRetryMaxAttempts(hmsConf.getInt(HMS_CLIENT_RETRY_MAX_ATTEMPTS, DEFAULT_HMS_CLIENT_RETRY_MAX_ATTEMPTS));
+    conf.setClientRetryBackoffMs(hmsConf.getLong(HMS_CLIENT_RETRY_BACKOFF_MS, DEFAULT_HMS_CLIENT_RETRY_BACKOFF_MS));
+    conf.setClientParallelism(hmsConf.getInt(HMS_CLIENT_PARALLELISM, DEFAULT_HMS_CLIENT_PARALLELISM));
+    conf.setClientPartitionBatchSize(hmsConf.getInt(HMS_CLIENT_PARTITION_BATCH_SIZE,
+        DEFAULT_HMS_CLIENT_PARTITION_BATCH_SIZE));
+    conf.setClientExistenceCacheTtlMs(hmsConf.getLong(HMS_CLIENT_EXISTENCE_CACHE_TTL_MS,
+        DEFAULT_HMS_CLIENT_EXISTENCE_CACHE_TTL_MS));
+    conf.setKerberosRenewIntervalMs(hmsConf.getLong(HMS_KERBEROS_RENEW_INTERVAL_MS,
+        DEFAULT_HMS_KERBEROS_RENEW_INTERVAL_MS));
+    conf.setDeadlineReserveMs(hmsConf.getLong(HMS_DEADLINE_RESERVE_MS, DEFAULT_HMS_DEADLINE_RESERVE_MS));
+    conf.setClientHedgePercentile(hmsConf.getDouble(HMS_CLIENT_HEDGE_PERCENTILE, DEFAULT_HMS_CLIENT_HEDGE_PERCENTILE));
+    conf.setClientPartitionWriteBatchSize(hmsConf.getInt(HMS_CLIENT_PARTITION_WRITE_BATCH_SIZE,
+        DEFAULT_HMS_CLIENT_PARTITION_WRITE_BATCH_SIZE));
+    conf.setClientLimiterLatencyTolerance(hmsConf.getDouble(HMS_CLIENT_LIMITER_LATENCY_TOLERANCE,
+        DEFAULT_HMS_CLIENT_LIMITER_LATENCY_TOLERANCE));
+    conf.setClientCircuitBreakerFailureRate(hmsConf.getDouble(HMS_CLIENT_CIRCUIT_BREAKER_FAILURE_RATE,
+        DEFAULT_HMS_CLIENT_CIRCUIT_BREAKER_FAILURE_RATE));
+    conf.setClientCircuitBreakerOpenMs(hmsConf.getLong(HMS_CLIENT_CIRCUIT_BREAKER_OPEN_MS,
+        DEFAULT_HMS_CLIENT_CIRCUIT_BREAKER_OPEN_MS));
+    conf.setClientNotificationPollIntervalMs(hmsConf.getLong(HMS_CLIENT_NOTIFICATION_POLL_INTERVAL_MS,
+        DEFAULT_HMS_CLIENT_NOTIFICATION_POLL_INTERVAL_MS));
+    conf.setClientMetadataCacheMaxBytes(hmsConf.getLong(HMS_CLIENT_METADATA_CACHE_MAX_BYTES,
+        DEFAULT_HMS_CLIENT_METADATA_CACHE_MAX_BYTES));
+    conf.setClientMetadataCacheDatabaseTtlMs(hmsConf.getLong(HMS_CLIENT_METADATA_CACHE_DATABASE_TTL_MS,
+        DEFAULT_HMS_CLIENT_METADATA_CACHE_DATABASE_TTL_MS));
+    conf.setClientMetadataCacheTableTtlMs(hmsConf.getLong(HMS_CLIENT_METADATA_CACHE_TABLE_TTL_MS,
+        DEFAULT_HMS_CLIENT_METADATA_CACHE_TABLE_TTL_MS));
+    conf.setClientMetadataCachePartitionNamesTtlMs(hmsConf.getLong(HMS_CLIENT_METADATA_CACHE_PARTITION_NAMES_TTL_MS,
+        DEFAULT_HMS_CLIENT_METADATA_CACHE_PARTITION_NAMES_TTL_MS));
+    conf.setClientMetadataCachePartitionNamesMaxBytes(hmsConf.getLong(HMS_CLIENT_METADATA_CACHE_PARTITION_NAMES_MAX_BYTES,
+        DEFAULT_HMS_CLIENT_METADATA_CACHE_PARTITION_NAMES_MAX_BYTES));
+    conf.setPagePrefetchMaxEntries(hmsConf.getInt(HMS_PAGE_PREFETCH_MAX_ENTRIES,
+        DEFAULT_HMS_PAGE_PREFETCH_MAX_ENTRIES));
+    conf.setPagePrefetchTtlMs(hmsConf.getLong(HMS_PAGE_PREFETCH_TTL_MS, DEFAULT_HMS_PAGE_PREFETCH_TTL_MS));
     return conf;
   }
 
@@ -280,6 +671,28 @@ public class HiveMetaStoreConf
         ", responseSpillThreshold: " + responseSpillThreshold +
         ", responseSpillLocation: '" + responseSpillLocation + '\'' +
         ", handlerNamePrefix: '" + handlerNamePrefix + '\'' +
+        ", clientPoolSize: " + clientPoolSize +
+        ", clientPoolValidationIntervalMs: " + clientPoolValidationIntervalMs +
+        ", clientRetryMaxAttempts: " + clientRetryMaxAttempts +
+        ", clientRetryBackoffMs: " + clientRetryBackoffMs +
+        ", clientParallelism: " + clientParallelism +
+        ", clientPartitionBatchSize: " + clientPartitionBatchSize +
+        ", clientExistenceCacheTtlMs: " + clientExistenceCacheTtlMs +
+        ", kerberosRenewIntervalMs: " + kerberosRenewIntervalMs +
+        ", deadlineReserveMs: " + deadlineReserveMs +
+        ", clientHedgePercentile: " + clientHedgePercentile +
+        ", clientPartitionWriteBatchSize: " + clientPartitionWriteBatchSize +
+        ", clientLimiterLatencyTolerance: " + clientLimiterLatencyTolerance +
+        ", clientCircuitBreakerFailureRate: " + clientCircuitBreakerFailureRate +
+        ", clientCircuitBreakerOpenMs: " + clientCircuitBreakerOpenMs +
+        ", clientNotificationPollIntervalMs: " + clientNotificationPollIntervalMs +
+        ", clientMetadataCacheMaxBytes: " + clientMetadataCacheMaxBytes +
+        ", clientMetadataCacheDatabaseTtlMs: " + clientMetadataCacheDatabaseTtlMs +
+        ", clientMetadataCacheTableTtlMs: " + clientMetadataCacheTableTtlMs +
+        ", clientMetadataCachePartitionNamesTtlMs: " + clientMetadataCachePartitionNamesTtlMs +
+        ", clientMetadataCachePartitionNamesMaxBytes: " + clientMetadataCachePartitionNamesMaxBytes +
+        ", pagePrefetchMaxEntries: " + pagePrefetchMaxEntries +
+        ", pagePrefetchTtlMs: " + pagePrefetchTtlMs +
         '}';
   }
 }
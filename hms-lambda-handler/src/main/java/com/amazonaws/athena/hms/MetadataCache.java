@@ -0,0 +1,175 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+// An LRU cache of metadata objects bounded by their estimated size in bytes rather than by the
+// number of entries, since a wide table with many columns and parameters could be a thousand
+// times larger than a database. Each entry expires after its own TTL.
+public class MetadataCache<V>
+{
+  private final long maxBytes;
+  // in access order so that the least recently used entry comes first
+  private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long sizeBytes;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  private static class Entry<V>
+  {
+    private final V value;
+    private final long sizeBytes;
+    private final long expireAtMs;
+
+    private Entry(V value, long sizeBytes, long expireAtMs)
+    {
+      this.value = value;
+      this.sizeBytes = sizeBytes;
+      this.expireAtMs = expireAtMs;
+    }
+  }
+
+  // a non-positive maximum size disables the cache
+  public MetadataCache(long maxBytes)
+  {
+    this.maxBytes = maxBytes;
+  }
+
+  public boolean isEnabled()
+  {
+    return maxBytes > 0;
+  }
+
+  // return null if the key is not cached or the entry expired
+  public synchronized V get(String key)
+  {
+    Entry<V> entry = entries.get(key);
+    if (entry != null && entry.expireAtMs <= System.currentTimeMillis()) {
+      remove(key);
+      entry = null;
+    }
+    if (entry == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    return entry.value;
+  }
+
+  // an object larger than the whole cache is not cached, in which case false is returned
+  public synchronized boolean put(String key, V value, long sizeBytes, long ttlMs)
+  {
+    if (!isEnabled() || ttlMs <= 0 || sizeBytes > maxBytes) {
+      return false;
+    }
+    remove(key);
+    entries.put(key, new Entry<>(value, sizeBytes, System.currentTimeMillis() + ttlMs));
+    this.sizeBytes += sizeBytes;
+    Iterator<Map.Entry<String, Entry<V>>> iterator = entries.entrySet().iterator();
+    while (this.sizeBytes > maxBytes && iterator.hasNext()) {
+      Map.Entry<String, Entry<V>> eldest = iterator.next();
+      this.sizeBytes -= eldest.getValue().sizeBytes;
+      iterator.remove();
+      evictions.incrementAndGet();
+    }
+    return true;
+  }
+
+  public synchronized void invalidate(String key)
+  {
+    remove(key);
+  }
+
+  public synchronized void invalidateIf(Predicate<String> predicate)
+  {
+    Iterator<Map.Entry<String, Entry<V>>> iterator = entries.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, Entry<V>> entry = iterator.next();
+      if (predicate.test(entry.getKey())) {
+        sizeBytes -= entry.getValue().sizeBytes;
+        iterator.remove();
+      }
+    }
+  }
+
+  public synchronized void clear()
+  {
+    entries.clear();
+    sizeBytes = 0;
+  }
+
+  private void remove(String key)
+  {
+    Entry<V> entry = entries.remove(key);
+    if (entry != null) {
+      sizeBytes -= entry.sizeBytes;
+    }
+  }
+
+  public synchronized int size()
+  {
+    return entries.size();
+  }
+
+  public long getMaxBytes()
+  {
+    return maxBytes;
+  }
+
+  public synchronized long getSizeBytes()
+  {
+    return sizeBytes;
+  }
+
+  public long getHits()
+  {
+    return hits.get();
+  }
+
+  public long getMisses()
+  {
+    return misses.get();
+  }
+
+  public long getEvictions()
+  {
+    return evictions.get();
+  }
+
+  @Override
+  public String toString()
+  {
+    return "MetadataCache{" +
+        "entries: " + size() +
+        ", sizeBytes: " + getSizeBytes() +
+        ", maxBytes: " + maxBytes +
+        ", hits: " + getHits() +
+        ", misses: " + getMisses() +
+        ", evictions: " + getEvictions() +
+        '}';
+  }
+}
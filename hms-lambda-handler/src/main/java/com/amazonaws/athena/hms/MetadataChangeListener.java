@@ -0,0 +1,33 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+// notified of the metadata changed by any HMS client so that cached metadata could be invalidated
+public interface MetadataChangeListener
+{
+  void onDatabaseChanged(String dbName);
+
+  void onTableChanged(String dbName, String tableName);
+
+  void onPartitionsChanged(String dbName, String tableName);
+
+  // some changes might have been missed, everything cached must be invalidated
+  void onReset();
+}
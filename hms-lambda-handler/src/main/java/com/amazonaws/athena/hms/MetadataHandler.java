@@ -46,6 +46,10 @@ public class MetadataHandler implements RequestStreamHandler
   // Lambda hard limit 6MB, for example, we could set it as 4MB
   private final long responseSpillThreshold;
 
+  // the time reserved at the end of an invocation to serialize the response and spill it to s3,
+  // the metastore calls must be done before that
+  private final long deadlineReserveMs;
+
   // the mapping between API name and a HandlerContext, which includes the handler and request/response class types
   private final Map<String, HandlerContext> handlers;
 
@@ -67,6 +71,7 @@ public class MetadataHandler implements RequestStreamHandler
     this.handlerProvider = factory.getHandlerProvider();
     this.responseSpillLocation = conf.getResponseSpillLocation();
     this.responseSpillThreshold = conf.getResponseSpillThreshold();
+    this.deadlineReserveMs = conf.getDeadlineReserveMs();
     this.apiHelper = new ApiHelper();
     this.s3Client = buildS3Client();
     this.s3Helper = new S3Helper(s3Client);
@@ -99,6 +104,17 @@ public class MetadataHandler implements RequestStreamHandler
     return s3Path;
   }
 
+  // the handlers wrap the exceptions of the client, null if the request was not rejected
+  private static MetastoreOverloadedException getMetastoreOverloaded(Throwable e)
+  {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof MetastoreOverloadedException) {
+        return (MetastoreOverloadedException) cause;
+      }
+    }
+    return null;
+  }
+
   @Override
   public void handleRequest(InputStream inputStream, OutputStream outputStream, Context context) throws IOException
   {
@@ -113,7 +129,42 @@ public class MetadataHandler implements RequestStreamHandler
         throw new RuntimeException("Cannot find handler for API " + apiName);
       }
       ApiRequest apiRequest = metadataRequest.getApiRequest();
-      ApiResponse apiResponse = (ApiResponse) handlerContext.getHandler().handleRequest(apiRequest, context);
+      // bound the metastore calls by the time left in this invocation, but keep at least half of it
+      // for them if the reserve is too large for the function timeout
+      long remainingMs = context.getRemainingTimeInMillis();
+      if (remainingMs > 0) {
+        Deadline.set(Deadline.after(Math.max(remainingMs - deadlineReserveMs, remainingMs / 2)));
+      }
+      // invalidate the metadata changed since the last poll before any cache is used
+      client.pollChanges();
+      // the counters of the cache before the request, the container serves one invocation at a time
+      MetadataCache<Object> cache = client instanceof CachingHiveMetaStoreClient ?
+          ((CachingHiveMetaStoreClient) client).getCache() : null;
+      long cacheHits = cache == null ? 0 : cache.getHits();
+      long cacheMisses = cache == null ? 0 : cache.getMisses();
+      ApiResponse apiResponse;
+      try {
+        apiResponse = (ApiResponse) handlerContext.getHandler().handleRequest(apiRequest, context);
+      }
+      catch (RuntimeException e) {
+        MetastoreOverloadedException overloaded = getMetastoreOverloaded(e);
+        if (overloaded == null) {
+          throw e;
+        }
+        // a retryable error code along with the error message, so that the client backs off, and older
+        // clients which don't know the error code still fail the request on the error message
+        context.getLogger().log("Rejected the request: " + overloaded.getMessage());
+        objectMapper.writeValue(outputStream, MetadataResponse.error(apiName,
+            MetadataResponse.ERROR_CODE_METASTORE_OVERLOADED, overloaded.getMessage()));
+        return;
+      }
+      finally {
+        Deadline.clear();
+        if (cache != null) {
+          context.getLogger().log("Metadata cache hits: " + (cache.getHits() - cacheHits) +
+              ", misses: " + (cache.getMisses() - cacheMisses) + ", " + cache);
+        }
+      }
       // serialize ApiResponse to String to get its size. Please be aware this isn't accurate
       String responseAsString = objectMapper.writerFor(handlerContext.getResponseClass()).writeValueAsString(apiResponse);
       // get the response String size
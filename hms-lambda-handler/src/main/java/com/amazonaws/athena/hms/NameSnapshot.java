@@ -0,0 +1,137 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+// The sorted names of a listing, e.g., the partition names of a table, taken at some point so
+// that the pages of a listing could be cut from the same list without listing and sorting all
+// the names again for every page. The version tells the snapshots of the same listing apart,
+// while the fingerprint tells whether two snapshots, e.g., of different containers, have the
+// same names.
+// The names are packed in UTF-8 into a single byte array, since a String per name takes several
+// times the size of its characters and a table could have millions of partitions. A name is
+// decoded again when it is read, which only happens for the names of a page and the few names a
+// binary search probes.
+public class NameSnapshot
+{
+  // the rough heap size of the arrays besides their elements
+  private static final int ARRAY_OVERHEAD_BYTES = 16;
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  // the UTF-8 bytes of the sorted names one after another
+  private final byte[] bytes;
+  // the name i is bytes[offsets[i], offsets[i + 1])
+  private final int[] offsets;
+  private final List<String> sortedNames;
+  private final long version;
+  private final long fingerprint;
+
+  public NameSnapshot(Collection<String> names, long version)
+  {
+    List<String> list = new ArrayList<>(names);
+    Collections.sort(list);
+    this.fingerprint = fingerprint(list);
+    this.version = version;
+    this.offsets = new int[list.size() + 1];
+    byte[] packed = new byte[list.size() * 16];
+    int length = 0;
+    for (int i = 0; i < list.size(); i++) {
+      byte[] name = list.get(i).getBytes(StandardCharsets.UTF_8);
+      // let the names go as soon as they are packed
+      list.set(i, null);
+      if (length + name.length > packed.length) {
+        packed = Arrays.copyOf(packed, Math.max(packed.length * 2, length + name.length));
+      }
+      System.arraycopy(name, 0, packed, length, name.length);
+      length += name.length;
+      offsets[i + 1] = length;
+    }
+    this.bytes = length == packed.length ? packed : Arrays.copyOf(packed, length);
+    this.sortedNames = new PackedNames();
+  }
+
+  // a read-only view of the packed names
+  private class PackedNames extends AbstractList<String> implements RandomAccess
+  {
+    @Override
+    public String get(int index)
+    {
+      if (index < 0 || index >= size()) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+      }
+      return new String(bytes, offsets[index], offsets[index + 1] - offsets[index], StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int size()
+    {
+      return offsets.length - 1;
+    }
+  }
+
+  // 64-bit FNV-1a of the names, each of which is followed by a separator
+  private static long fingerprint(List<String> names)
+  {
+    long hash = FNV_OFFSET_BASIS;
+    for (String name : names) {
+      for (int i = 0; i < name.length(); i++) {
+        hash = (hash ^ name.charAt(i)) * FNV_PRIME;
+      }
+      hash = (hash ^ 0xffff) * FNV_PRIME;
+    }
+    return hash;
+  }
+
+  // the time of the snapshot is its version
+  public static NameSnapshot of(Collection<String> names)
+  {
+    return new NameSnapshot(names == null ? Collections.emptyList() : names, System.currentTimeMillis());
+  }
+
+  // the names are decoded on every read, so a caller reading a name many times should keep it
+  public List<String> getSortedNames()
+  {
+    return sortedNames;
+  }
+
+  public long getVersion()
+  {
+    return version;
+  }
+
+  public long getFingerprint()
+  {
+    return fingerprint;
+  }
+
+  public long estimateSizeBytes()
+  {
+    return 2L * ARRAY_OVERHEAD_BYTES + bytes.length + 4L * offsets.length;
+  }
+}
@@ -0,0 +1,167 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.apache.hadoop.hive.metastore.api.NotificationEvent;
+import org.apache.thrift.TException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Tracks the metadata changed by all the HMS clients through the notification log of HMS, which
+// requires the DbNotificationListener in hive.metastore.transactional.event.listeners. A Lambda
+// container is frozen between invocations, so there is no background thread and the log is polled
+// by the invocations instead, at most once per interval. Every create, alter or drop event is turned
+// into an invalidation of the affected database, table or partitions in the registered listeners.
+public class NotificationTracker
+{
+  // the max number of events fetched by one call, more calls are made until the log is drained
+  static final int MAX_EVENTS = 1000;
+  // bound the time spent on one poll after a long idle period, the rest is reset instead
+  static final int MAX_CALLS_PER_POLL = 10;
+
+  public interface Source
+  {
+    long getCurrentEventId() throws TException;
+
+    List<NotificationEvent> getNextEvents(long lastEventId, int maxEvents) throws TException;
+  }
+
+  private final Source source;
+  private final long pollIntervalMs;
+  private final List<MetadataChangeListener> listeners = new CopyOnWriteArrayList<>();
+  // only one invocation polls at a time, the others go on with the caches as they are
+  private final AtomicBoolean polling = new AtomicBoolean();
+  // the id of the last event applied to the listeners, negative before the first poll
+  private volatile long lastEventId = -1;
+  private volatile long lastPollMs;
+
+  // a non-positive poll interval disables the tracker
+  public NotificationTracker(Source source, long pollIntervalMs)
+  {
+    this.source = source;
+    this.pollIntervalMs = pollIntervalMs;
+  }
+
+  public boolean isEnabled()
+  {
+    return pollIntervalMs > 0;
+  }
+
+  public long getLastEventId()
+  {
+    return lastEventId;
+  }
+
+  public void addListener(MetadataChangeListener listener)
+  {
+    listeners.add(listener);
+  }
+
+  // poll the notification log if the interval has passed since the last poll
+  public void poll() throws TException
+  {
+    if (!isEnabled() || System.currentTimeMillis() - lastPollMs < pollIntervalMs
+        || !polling.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      lastPollMs = System.currentTimeMillis();
+      if (lastEventId < 0) {
+        // nothing has been cached before the first poll
+        lastEventId = source.getCurrentEventId();
+        return;
+      }
+      for (int i = 0; i < MAX_CALLS_PER_POLL; i++) {
+        List<NotificationEvent> events = source.getNextEvents(lastEventId, MAX_EVENTS);
+        if (events == null || events.isEmpty()) {
+          return;
+        }
+        if (events.get(0).getEventId() > lastEventId + 1) {
+          // the events in between have been cleaned up from the log by HMS
+          reset();
+        }
+        for (NotificationEvent event : events) {
+          apply(event);
+          lastEventId = event.getEventId();
+        }
+        if (events.size() < MAX_EVENTS) {
+          return;
+        }
+      }
+      // too far behind to catch up, start over from the current event
+      reset();
+      lastEventId = source.getCurrentEventId();
+    }
+    finally {
+      polling.set(false);
+    }
+  }
+
+  private void reset()
+  {
+    for (MetadataChangeListener listener : listeners) {
+      listener.onReset();
+    }
+  }
+
+  private void apply(NotificationEvent event)
+  {
+    String eventType = event.getEventType();
+    if (eventType == null || event.getDbName() == null) {
+      return;
+    }
+    switch (eventType) {
+      case "CREATE_DATABASE":
+      case "ALTER_DATABASE":
+      case "DROP_DATABASE":
+        for (MetadataChangeListener listener : listeners) {
+          listener.onDatabaseChanged(event.getDbName());
+        }
+        break;
+      // the event of an alter only names the old table, while a rename changes the new name as well,
+      // e.g., a cached absence of the table, so everything cached of the database is invalidated
+      // rather than decoding the message, whose format differs between Hive versions
+      case "ALTER_TABLE":
+        for (MetadataChangeListener listener : listeners) {
+          listener.onDatabaseChanged(event.getDbName());
+        }
+        break;
+      case "CREATE_TABLE":
+      case "DROP_TABLE":
+        for (MetadataChangeListener listener : listeners) {
+          listener.onTableChanged(event.getDbName(), event.getTableName());
+        }
+        break;
+      case "ADD_PARTITION":
+      case "ALTER_PARTITION":
+      case "DROP_PARTITION":
+      case "INSERT":
+        for (MetadataChangeListener listener : listeners) {
+          listener.onPartitionsChanged(event.getDbName(), event.getTableName());
+        }
+        break;
+      default:
+        // functions, indexes and others are not cached
+        break;
+    }
+  }
+}
@@ -0,0 +1,203 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fetches the entries of the next page of a listing in the background once a page is returned,
+// keyed by the nextToken of the page, so that the next invocation of a warm container takes the
+// entries from memory rather than waiting for HMS. The memory is bounded by the number of
+// prefetched entries and a prefetched page expires after a short TTL, since the entries could
+// change in HMS. A prefetch still running when it is taken is waited for, which is never longer
+// than fetching the page again. A prefetch runs under a deadline of its TTL, after which its
+// entries would not be taken anyway. The prefetches of a listing are dropped as soon as its
+// metadata is known to have changed, see invalidate().
+public class PagePrefetcher<T>
+{
+  private final int maxEntries;
+  private final long ttlMs;
+  private final ExecutorService executor;
+  // in insertion order so that the oldest prefetch comes first
+  private final LinkedHashMap<String, Prefetch<T>> prefetches = new LinkedHashMap<>();
+  private int numEntries;
+  private boolean shutdown;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  private static class Prefetch<T>
+  {
+    private final List<String> names;
+    private final Future<List<T>> entries;
+    private final long expireAtMs;
+
+    private Prefetch(List<String> names, Future<List<T>> entries, long expireAtMs)
+    {
+      this.names = names;
+      this.entries = entries;
+      this.expireAtMs = expireAtMs;
+    }
+  }
+
+  // a non-positive maxEntries or TTL disables the prefetch
+  public PagePrefetcher(int maxEntries, long ttlMs)
+  {
+    this.maxEntries = maxEntries;
+    this.ttlMs = ttlMs;
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = isEnabled() ? Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "hms-prefetch-" + threadCount.incrementAndGet());
+      // never keep the Lambda runtime alive because of idle workers
+      thread.setDaemon(true);
+      return thread;
+    }) : null;
+  }
+
+  public boolean isEnabled()
+  {
+    return maxEntries > 0 && ttlMs > 0;
+  }
+
+  // start fetching the entries of the given names, the oldest prefetches are dropped to make room
+  public synchronized void prefetch(String key, List<String> names, Callable<List<T>> fetcher)
+  {
+    if (!isEnabled() || shutdown || names.isEmpty() || names.size() > maxEntries || prefetches.containsKey(key)) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    Iterator<Map.Entry<String, Prefetch<T>>> iterator = prefetches.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Prefetch<T> prefetch = iterator.next().getValue();
+      if (prefetch.expireAtMs > now && numEntries + names.size() <= maxEntries) {
+        break;
+      }
+      remove(iterator, prefetch);
+    }
+    Future<List<T>> entries = executor.submit(() -> {
+      Deadline.set(Deadline.after(ttlMs));
+      try {
+        return fetcher.call();
+      }
+      finally {
+        Deadline.clear();
+      }
+    });
+    prefetches.put(key, new Prefetch<>(names, entries, now + ttlMs));
+    numEntries += names.size();
+  }
+
+  // return the prefetched entries of the key, which must be of the same names, or null if there
+  // are none, e.g., they expired or failed to be fetched; a prefetch is taken at most once
+  public List<T> take(String key, List<String> names)
+  {
+    Prefetch<T> prefetch;
+    synchronized (this) {
+      prefetch = prefetches.remove(key);
+      if (prefetch != null) {
+        numEntries -= prefetch.names.size();
+      }
+    }
+    long now = System.currentTimeMillis();
+    if (prefetch == null || prefetch.expireAtMs <= now || !prefetch.names.equals(names)) {
+      if (prefetch != null) {
+        // don't let a prefetch nobody takes hold a connection to HMS
+        prefetch.entries.cancel(true);
+      }
+      misses.incrementAndGet();
+      return null;
+    }
+    try {
+      List<T> entries = prefetch.entries.get(Deadline.remainingMillis(prefetch.expireAtMs - now), TimeUnit.MILLISECONDS);
+      hits.incrementAndGet();
+      return entries;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    catch (ExecutionException | TimeoutException e) {
+      // fetched again by the caller
+    }
+    prefetch.entries.cancel(true);
+    misses.incrementAndGet();
+    return null;
+  }
+
+  private void remove(Iterator<Map.Entry<String, Prefetch<T>>> iterator, Prefetch<T> prefetch)
+  {
+    iterator.remove();
+    numEntries -= prefetch.names.size();
+    prefetch.entries.cancel(true);
+  }
+
+  // drop the prefetches whose keys start with the prefix, e.g., of a table whose partitions changed
+  public synchronized void invalidate(String keyPrefix)
+  {
+    Iterator<Map.Entry<String, Prefetch<T>>> iterator = prefetches.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, Prefetch<T>> entry = iterator.next();
+      if (entry.getKey().startsWith(keyPrefix)) {
+        remove(iterator, entry.getValue());
+      }
+    }
+  }
+
+  // drop all the prefetches, e.g., after some metadata changes might have been missed
+  public void invalidateAll()
+  {
+    invalidate("");
+  }
+
+  // cancel the running prefetches and stop the workers, no prefetch starts afterwards. The workers
+  // are daemon threads, so a prefetcher which is never shut down doesn't keep the JVM alive
+  public synchronized void shutdown()
+  {
+    if (shutdown || executor == null) {
+      return;
+    }
+    shutdown = true;
+    Iterator<Map.Entry<String, Prefetch<T>>> iterator = prefetches.entrySet().iterator();
+    while (iterator.hasNext()) {
+      remove(iterator, iterator.next().getValue());
+    }
+    executor.shutdownNow();
+  }
+
+  public long getHits()
+  {
+    return hits.get();
+  }
+
+  public long getMisses()
+  {
+    return misses.get();
+  }
+}
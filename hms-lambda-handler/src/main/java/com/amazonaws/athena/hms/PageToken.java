@@ -0,0 +1,120 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// A pagination token, i.e., the first name of the next page. Since version 2, it carries the
+// position of the name in the name snapshot and the version and fingerprint of the snapshot as
+// well, so that the next page could start right at the position if the snapshot didn't change
+// instead of searching for the name. A version 1 token is just the Base64 of the name, which is
+// still accepted.
+public class PageToken
+{
+  // '.' is not a Base64 character so that a version 1 token never starts with it
+  private static final String VERSION_2_PREFIX = "2.";
+  private static final String SEPARATOR = "\n";
+
+  private final String name;
+  // -1 if unknown
+  private final int position;
+  private final long snapshotVersion;
+  private final long snapshotFingerprint;
+
+  public PageToken(String name, int position, long snapshotVersion, long snapshotFingerprint)
+  {
+    this.name = name;
+    this.position = position;
+    this.snapshotVersion = snapshotVersion;
+    this.snapshotFingerprint = snapshotFingerprint;
+  }
+
+  public static PageToken of(String name)
+  {
+    return new PageToken(name, -1, 0L, 0L);
+  }
+
+  public static PageToken of(NameSnapshot snapshot, int position)
+  {
+    return new PageToken(snapshot.getSortedNames().get(position), position,
+        snapshot.getVersion(), snapshot.getFingerprint());
+  }
+
+  public String getName()
+  {
+    return name;
+  }
+
+  public int getPosition()
+  {
+    return position;
+  }
+
+  public long getSnapshotVersion()
+  {
+    return snapshotVersion;
+  }
+
+  public long getSnapshotFingerprint()
+  {
+    return snapshotFingerprint;
+  }
+
+  // the index of the name in the snapshot if the token was taken from the same list of names,
+  // otherwise -1
+  public int positionIn(NameSnapshot snapshot)
+  {
+    if (position < 0 || position >= snapshot.getSortedNames().size() ||
+        snapshotFingerprint != snapshot.getFingerprint() || !snapshot.getSortedNames().get(position).equals(name)) {
+      return -1;
+    }
+    return position;
+  }
+
+  public String encode()
+  {
+    if (position < 0) {
+      return Base64.getEncoder().encodeToString(name.getBytes(StandardCharsets.UTF_8));
+    }
+    // the name goes last since it could contain anything
+    String payload = snapshotVersion + SEPARATOR + snapshotFingerprint + SEPARATOR + position + SEPARATOR + name;
+    return VERSION_2_PREFIX + Base64.getEncoder().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static PageToken decode(String token)
+  {
+    if (!token.startsWith(VERSION_2_PREFIX)) {
+      return of(new String(Base64.getDecoder().decode(token), StandardCharsets.UTF_8));
+    }
+    String payload = new String(Base64.getDecoder().decode(token.substring(VERSION_2_PREFIX.length())),
+        StandardCharsets.UTF_8);
+    String[] fields = payload.split(SEPARATOR, 4);
+    if (fields.length != 4) {
+      throw new IllegalArgumentException("Invalid token " + token);
+    }
+    try {
+      return new PageToken(fields[3], Integer.parseInt(fields[2]), Long.parseLong(fields[0]), Long.parseLong(fields[1]));
+    }
+    catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid token " + token, e);
+    }
+  }
+}
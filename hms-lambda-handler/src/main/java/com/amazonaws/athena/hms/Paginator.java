@@ -21,31 +21,98 @@ package com.amazonaws.athena.hms;
 
 import org.apache.thrift.TException;
 
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public abstract class Paginator<T>
 {
-  protected abstract Collection<String> getNames() throws TException;
+  // the number of entries fetched by one call when the request has a deadline or a byte limit
+  protected static final int DEFAULT_BATCH_SIZE = 500;
+
   protected abstract List<T> getEntriesByNames(List<String> names) throws TException;
+  // the name of an entry as it is in the names, which is needed to cut a page by bytes since the
+  // entries returned by getEntriesByNames() could be in any order
+  protected abstract String getName(T entry) throws TException;
 
-  public PaginatedResponse<T> paginateByNames(String token, short maxSize) throws TException
+  private PagePrefetcher<T> prefetcher;
+  // identifies the listing, e.g., the table of the partitions, apart from the page token
+  private String prefetchKey;
+
+  // converts an entry to what a page carries
+  public interface EntryEncoder<T, R>
+  {
+    R encode(T entry) throws TException;
+  }
+
+  protected int getBatchSize()
+  {
+    return DEFAULT_BATCH_SIZE;
+  }
+
+  // the number of batches getEntriesByNames() fetches concurrently, e.g., over pooled connections
+  protected int getConcurrency()
+  {
+    return 1;
+  }
+
+  // whether the next page should not be prefetched this time, e.g., the connections to HMS are
+  // already in use by other calls
+  protected boolean isBusy()
+  {
+    return false;
+  }
+
+  // fetch the entries of the next page in the background after each page
+  public void setPrefetcher(PagePrefetcher<T> prefetcher, String prefetchKey)
+  {
+    this.prefetcher = prefetcher;
+    this.prefetchKey = prefetchKey;
+  }
+
+  // the names to paginate, in any order, unless the subclass overrides getSnapshot() instead
+  protected Collection<String> getNames() throws TException
+  {
+    throw new UnsupportedOperationException(getClass().getName() + " must override getNames() or getSnapshot()");
+  }
+
+  // the sorted names to paginate, a subclass could return a snapshot that is reused across the
+  // continuation pages of a listing, while the first page always starts from fresh names
+  protected NameSnapshot getSnapshot(boolean continuation) throws TException
   {
     Collection<String> names = getNames();
-    String nextToken;
-    List<T> list;
-    if (names != null && !names.isEmpty()) {
-      // sort names by nature order
-      List<String> sortedNames = new ArrayList<String>(names);
-      Collections.sort(sortedNames);
+    return names == null ? null : NameSnapshot.of(names);
+  }
+
+  public PaginatedResponse<T> paginateByNames(String token, short maxSize) throws TException
+  {
+    return paginate(token, maxSize, 0L, entry -> entry);
+  }
+
+  // Paginate the entries encoded, e.g., as JSON, and cut a page once the encoded entries would go
+  // over maxBytes, so that a page of large entries still fits in the response. A page has at least
+  // one entry. A non-positive maxBytes means no byte limit.
+  public PaginatedResponse<String> paginateByNames(String token, short maxSize, long maxBytes,
+                                                   EntryEncoder<T, String> encoder) throws TException
+  {
+    return paginate(token, maxSize, maxBytes, encoder);
+  }
+
+  private <R> PaginatedResponse<R> paginate(String token, short maxSize, long maxBytes,
+                                            EntryEncoder<T, R> encoder) throws TException
+  {
+    NameSnapshot snapshot = getSnapshot(token != null);
+    if (snapshot != null && !snapshot.getSortedNames().isEmpty()) {
+      // names sorted by nature order
+      List<String> sortedNames = snapshot.getSortedNames();
       if (maxSize == 0) {
-        list = new ArrayList<>();
         // point to the same next position
-        nextToken = token;
+        return new PaginatedResponse<R>(new ArrayList<>(), token);
       }
       else if (maxSize > 0) {
         // first check the start index
@@ -57,72 +124,201 @@ public abstract class Paginator<T>
         }
         else {
           // not first page
-          // check the index of the token, i.e., the first entry in the new page
-          startIndex = sortedNames.indexOf(decrypt(token));
-          if (startIndex == -1) {
-            throw new RuntimeException("Failed to find token " + token);
-          }
+          // the index of the token, i.e., the first entry in the new page
+          startIndex = findStartIndex(snapshot, token);
         }
 
         // number of entries left
         int num = sortedNames.size() - startIndex;
         if (num <= maxSize) {
-          // only one page left
-          List<String> pageNames = sortedNames.subList(startIndex, sortedNames.size());
-          list = getEntriesByNames(pageNames);
-          // no more entries
-          nextToken = null;
+          // only one page left, no more entries after it
+          return getPage(snapshot, startIndex, sortedNames.size(), token, null, maxBytes, encoder);
         }
         else {
           // more than one pages left
-          List<String> pageNames = sortedNames.subList(startIndex, startIndex + maxSize);
-          list = getEntriesByNames(pageNames);
           // use the first name in the next page as the nextToken
-          nextToken = encrypt(sortedNames.get(startIndex + maxSize));
+          return getPage(snapshot, startIndex, startIndex + maxSize, token,
+              PageToken.of(snapshot, startIndex + maxSize).encode(), maxBytes, encoder);
         }
       }
       else {
         // -1 or negative page size means to fetch all data without actual pagination
         if (token == null) {
-          list = getEntriesByNames(sortedNames);
+          return getPage(snapshot, 0, sortedNames.size(), token, null, maxBytes, encoder);
         }
         else {
-          // check the index of the token, i.e., the first entry in the new page
-          int index = sortedNames.indexOf(decrypt(token));
-          if (index == -1) {
-            throw new RuntimeException("Failed to find token " + token);
-          }
+          // the index of the token, i.e., the first entry in the new page
+          int index = findStartIndex(snapshot, token);
           // fetch all remaining entries
-          List<String> pageNames = sortedNames.subList(index, sortedNames.size());
-          list = getEntriesByNames(pageNames);
+          return getPage(snapshot, index, sortedNames.size(), token, null, maxBytes, encoder);
+        }
+      }
+    }
+
+    return new PaginatedResponse<R>(new ArrayList<>(), null);
+  }
+
+  // Find the first name that is not before the token name by binary search. If the token name was
+  // dropped since the previous page, the page starts from the name after it, and the page is empty
+  // if no name is left.
+  static int findStartIndex(List<String> sortedNames, String name)
+  {
+    int index = Collections.binarySearch(sortedNames, name);
+    return index >= 0 ? index : -index - 1;
+  }
+
+  // a token of the same snapshot, e.g., cached in this container, or of a snapshot with the same
+  // names points right at the position, otherwise the names changed and the name is searched
+  private static int findStartIndex(NameSnapshot snapshot, String token)
+  {
+    PageToken pageToken = PageToken.decode(token);
+    int position = pageToken.positionIn(snapshot);
+    return position >= 0 ? position : findStartIndex(snapshot.getSortedNames(), pageToken.getName());
+  }
+
+  // Fetch the entries of a page. If the request has a deadline, the entries are fetched in waves of
+  // getConcurrency() batches, so that each wave still fetches its batches concurrently, and the page is
+  // cut short once the deadline is reached between waves, with the first entry that was not fetched
+  // as the nextToken, so that the caller could continue from there instead of retrying the whole page.
+  // With a byte limit, the entries are fetched in waves as well and the page is cut before the
+  // first entry that would go over the limit.
+  private <R> PaginatedResponse<R> getPage(NameSnapshot snapshot, int fromIndex, int toIndex, String token,
+                                           String nextToken, long maxBytes, EntryEncoder<T, R> encoder) throws TException
+  {
+    List<String> pageNames = snapshot.getSortedNames().subList(fromIndex, toIndex);
+    if (pageNames.isEmpty()) {
+      // the token was after the last name
+      return new PaginatedResponse<R>(new ArrayList<>(), nextToken);
+    }
+    List<T> prefetched = null;
+    if (prefetcher != null && token != null) {
+      prefetched = prefetcher.take(prefetchKey + "\n" + token, pageNames);
+    }
+    PaginatedResponse<R> page = fetchPage(snapshot, fromIndex, pageNames, prefetched, nextToken, maxBytes, encoder);
+    if (prefetcher != null && page.getNextToken() != null && !isBusy()) {
+      // the next page most likely has as many names as this one was meant to have
+      int nextIndex = PageToken.decode(page.getNextToken()).positionIn(snapshot);
+      if (nextIndex >= 0) {
+        List<String> nextNames = snapshot.getSortedNames().subList(nextIndex,
+            Math.min(nextIndex + pageNames.size(), snapshot.getSortedNames().size()));
+        prefetcher.prefetch(prefetchKey + "\n" + page.getNextToken(), nextNames, () -> getEntriesByNames(nextNames));
+      }
+    }
+    return page;
+  }
+
+  private <R> PaginatedResponse<R> fetchPage(NameSnapshot snapshot, int fromIndex, List<String> pageNames, List<T> prefetched,
+                                             String nextToken, long maxBytes, EntryEncoder<T, R> encoder) throws TException
+  {
+    if (prefetched == null && Deadline.current() == null && maxBytes <= 0) {
+      return new PaginatedResponse<R>(encode(getEntriesByNames(pageNames), encoder), nextToken);
+    }
+    List<R> list = new ArrayList<>();
+    long bytes = 0;
+    // the prefetched entries are the whole page
+    int batchSize = prefetched != null ? pageNames.size()
+        : (int) Math.min(Integer.MAX_VALUE, (long) Math.max(1, getBatchSize()) * Math.max(1, getConcurrency()));
+    for (int i = 0; i < pageNames.size(); i += batchSize) {
+      List<String> batchNames = pageNames.subList(i, Math.min(i + batchSize, pageNames.size()));
+      List<T> entries;
+      try {
+        Deadline.check();
+        entries = prefetched != null ? prefetched : getEntriesByNames(batchNames);
+      }
+      catch (DeadlineExceededException e) {
+        if (list.isEmpty()) {
+          // nothing to return
+          throw e;
         }
-        // fetched all and no more entry left
-        nextToken = null;
+        return new PaginatedResponse<R>(list, PageToken.of(snapshot, fromIndex + i).encode());
+      }
+      if (maxBytes <= 0) {
+        list.addAll(encode(entries, encoder));
+        continue;
+      }
+      Map<String, T> entriesByName = new HashMap<>();
+      Set<String> requestedNames = new HashSet<>(batchNames);
+      for (T entry : entries) {
+        if (entry != null) {
+          String name = getName(entry);
+          if (!requestedNames.contains(name)) {
+            // the entry would be left out of the page without notice, e.g., if it is named differently
+            throw new TException(getClass().getSimpleName() + " got an entry named " + name +
+                " which is not one of the requested names");
+          }
+          entriesByName.put(name, entry);
+        }
+      }
+      for (int j = 0; j < batchNames.size(); j++) {
+        T entry = entriesByName.get(batchNames.get(j));
+        if (entry == null) {
+          // dropped since the names were listed
+          continue;
+        }
+        R encoded = encoder.encode(entry);
+        long size = estimateSize(encoded);
+        if (bytes + size > maxBytes && !list.isEmpty()) {
+          return new PaginatedResponse<R>(list, PageToken.of(snapshot, fromIndex + i + j).encode());
+        }
+        list.add(encoded);
+        bytes += size;
       }
     }
-    else {
-      list = new ArrayList<>();
-      nextToken = null;
+    return new PaginatedResponse<R>(list, nextToken);
+  }
+
+  private <R> List<R> encode(List<T> entries, EntryEncoder<T, R> encoder) throws TException
+  {
+    List<R> list = new ArrayList<>(entries.size());
+    for (T entry : entries) {
+      if (entry != null) {
+        list.add(encoder.encode(entry));
+      }
     }
+    return list;
+  }
 
-    return new PaginatedResponse<T>(list, nextToken);
+  // the size of an encoded entry in the JSON response, where it is a quoted string, with the
+  // escaped characters and the multi-byte UTF-8 characters counted as their longest
+  static long estimateSize(Object encoded)
+  {
+    String value = String.valueOf(encoded);
+    long size = 3;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        size += 2;
+      }
+      else if (c < 0x20) {
+        size += 6;
+      }
+      else if (c < 0x80) {
+        size += 1;
+      }
+      else {
+        size += 3;
+      }
+    }
+    return size;
   }
 
+  // a version 1 token of the name
   public static String encrypt(String original)
   {
     if (original == null) {
       return original;
     }
 
-    return Base64.getEncoder().encodeToString(original.getBytes(StandardCharsets.UTF_8));
+    return PageToken.of(original).encode();
   }
 
+  // the name of a token of any version
   public static String decrypt(String original)
   {
     if (original == null) {
       return null;
     }
 
-    return new String(Base64.getDecoder().decode(original), StandardCharsets.UTF_8);
+    return PageToken.decode(original).getName();
   }
 }
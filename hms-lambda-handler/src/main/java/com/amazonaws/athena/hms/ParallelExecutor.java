@@ -0,0 +1,152 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.apache.thrift.TException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Applies a task to a list of inputs with a bounded number of concurrent workers, for example,
+// to fetch many metastore objects over several pooled connections instead of one at a time.
+// The results are returned in the same order as the inputs and the first failure cancels the
+// remaining work and is thrown to the caller. The deadline of the caller is propagated to the
+// workers and no new input is started once it has passed.
+public class ParallelExecutor
+{
+  public interface Task<I, O>
+  {
+    O apply(I input) throws TException;
+  }
+
+  private final int concurrency;
+  private final ExecutorService executor;
+
+  public ParallelExecutor(int concurrency)
+  {
+    this.concurrency = Math.max(1, concurrency);
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "hms-parallel-" + threadCount.incrementAndGet());
+      // never keep the Lambda runtime alive because of idle workers
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public int getConcurrency()
+  {
+    return concurrency;
+  }
+
+  public <I, O> List<O> map(List<I> inputs, Task<I, O> task) throws TException
+  {
+    if (inputs == null || inputs.isEmpty()) {
+      return new ArrayList<>();
+    }
+    int numWorkers = Math.min(concurrency, inputs.size());
+    if (numWorkers == 1) {
+      List<O> results = new ArrayList<>(inputs.size());
+      for (I input : inputs) {
+        Deadline.check();
+        results.add(task.apply(input));
+      }
+      return results;
+    }
+
+    Deadline deadline = Deadline.current();
+
+    Object[] results = new Object[inputs.size()];
+    AtomicInteger nextIndex = new AtomicInteger();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+    List<Future<Void>> workers = new ArrayList<>(numWorkers);
+    for (int i = 0; i < numWorkers; i++) {
+      workers.add(completionService.submit(() -> {
+        Deadline.set(deadline);
+        try {
+          int index;
+          // each worker keeps taking the next input until all are done or any of them failed
+          while (failure.get() == null && (index = nextIndex.getAndIncrement()) < inputs.size()) {
+            try {
+              Deadline.check();
+              results[index] = task.apply(inputs.get(index));
+            }
+            catch (Exception e) {
+              failure.compareAndSet(null, e);
+            }
+          }
+          return null;
+        }
+        finally {
+          Deadline.clear();
+        }
+      }));
+    }
+
+    // wait for the workers in the order they finish, so the first failure is seen as soon as
+    // its worker stops rather than after the workers submitted before it
+    try {
+      for (int i = 0; i < numWorkers && failure.get() == null; i++) {
+        completionService.take().get();
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failure.compareAndSet(null, e);
+    }
+    catch (ExecutionException e) {
+      failure.compareAndSet(null, e.getCause());
+    }
+
+    Throwable throwable = failure.get();
+    if (throwable != null) {
+      // interrupt the tasks that are still running, e.g., blocked on a metastore call
+      for (Future<Void> worker : workers) {
+        worker.cancel(true);
+      }
+      if (throwable instanceof TException) {
+        throw (TException) throwable;
+      }
+      if (throwable instanceof RuntimeException) {
+        throw (RuntimeException) throwable;
+      }
+      throw new TException(throwable);
+    }
+
+    @SuppressWarnings("unchecked")
+    List<O> list = (List<O>) Arrays.asList(results);
+    return new ArrayList<>(list);
+  }
+
+  public void shutdown()
+  {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,109 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+// the values of some partition keys of a table, one row per partition, in the way that
+// get_partition_values of Hive 3 returns them
+public final class PartitionValues
+{
+  private PartitionValues()
+  {
+  }
+
+  // projects the rows, each of which holds the values of all the partition keys of a partition,
+  // onto the keys at the given indexes, then deduplicates, sorts and limits them. The values of
+  // the numeric keys are ordered as numbers, e.g., hour=9 comes before hour=10.
+  public static List<List<String>> select(List<List<String>> rows, int[] indexes, List<String> types,
+                                          boolean applyDistinct, boolean ascending, int maxParts)
+  {
+    Collection<List<String>> selected = applyDistinct ? new LinkedHashSet<>() : new ArrayList<>(rows.size());
+    for (List<String> row : rows) {
+      List<String> values = new ArrayList<>(indexes.length);
+      for (int index : indexes) {
+        values.add(row.get(index));
+      }
+      selected.add(values);
+    }
+    List<List<String>> result = new ArrayList<>(selected);
+    Comparator<List<String>> comparator = rowComparator(types);
+    result.sort(ascending ? comparator : comparator.reversed());
+    if (maxParts >= 0 && result.size() > maxParts) {
+      return new ArrayList<>(result.subList(0, maxParts));
+    }
+    return result;
+  }
+
+  static Comparator<List<String>> rowComparator(List<String> types)
+  {
+    return (left, right) -> {
+      for (int i = 0; i < types.size(); i++) {
+        int c = compare(types.get(i), left.get(i), right.get(i));
+        if (c != 0) {
+          return c;
+        }
+      }
+      return 0;
+    };
+  }
+
+  // a value that is not a number, e.g., __HIVE_DEFAULT_PARTITION__, comes after the numbers
+  static int compare(String type, String left, String right)
+  {
+    if (isNumeric(type)) {
+      BigDecimal leftNumber = toNumber(left);
+      BigDecimal rightNumber = toNumber(right);
+      if (leftNumber != null && rightNumber != null) {
+        return leftNumber.compareTo(rightNumber);
+      }
+      if (leftNumber != null || rightNumber != null) {
+        return leftNumber != null ? -1 : 1;
+      }
+    }
+    return left.compareTo(right);
+  }
+
+  private static boolean isNumeric(String type)
+  {
+    if (type == null) {
+      return false;
+    }
+    String lowerCaseType = type.toLowerCase();
+    return lowerCaseType.equals("tinyint") || lowerCaseType.equals("smallint") || lowerCaseType.equals("int") ||
+        lowerCaseType.equals("bigint") || lowerCaseType.equals("float") || lowerCaseType.equals("double") ||
+        lowerCaseType.startsWith("decimal");
+  }
+
+  private static BigDecimal toNumber(String value)
+  {
+    try {
+      return new BigDecimal(value.trim());
+    }
+    catch (NumberFormatException e) {
+      return null;
+    }
+  }
+}
@@ -21,8 +21,10 @@ package com.amazonaws.athena.hms.handler;
 
 import com.amazonaws.athena.hms.AddPartitionsRequest;
 import com.amazonaws.athena.hms.AddPartitionsResponse;
+import com.amazonaws.athena.hms.BatchResult;
 import com.amazonaws.athena.hms.HiveMetaStoreClient;
 import com.amazonaws.athena.hms.HiveMetaStoreConf;
+import com.amazonaws.athena.hms.PartitionBatchResult;
 import com.amazonaws.services.lambda.runtime.Context;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.thrift.TDeserializer;
@@ -46,7 +48,8 @@ public class AddPartitionsHandler extends BaseHMSHandler<AddPartitionsRequest, A
       HiveMetaStoreClient client = getClient();
       boolean isEmpty = request.getPartitionDescs() == null || request.getPartitionDescs().isEmpty();
       context.getLogger().log("Adding partitions: " +
-          (isEmpty ? 0 : request.getPartitionDescs().size()));
+          (isEmpty ? 0 : request.getPartitionDescs().size()) + ", ifNotExists: " + request.isIfNotExists());
+      List<PartitionBatchResult> batchResults = new ArrayList<>();
       if (!isEmpty) {
         TDeserializer deserializer = new TDeserializer(getTProtocolFactory());
         List<Partition> partitionList = new ArrayList<>();
@@ -55,10 +58,26 @@ public class AddPartitionsHandler extends BaseHMSHandler<AddPartitionsRequest, A
           deserializer.fromString(partition, partitionDesc);
           partitionList.add(partition);
         }
-        client.addPartitions(partitionList);
-        context.getLogger().log("Added partitions: " + partitionList.size());
+        int failed = 0;
+        Exception firstError = null;
+        for (BatchResult result : client.addPartitions(partitionList, request.isIfNotExists())) {
+          PartitionBatchResult batchResult = toPartitionBatchResult(result, 0);
+          if (!result.isSucceeded()) {
+            failed += result.getSize();
+            firstError = firstError == null ? result.getError() : firstError;
+            context.getLogger().log("Failed to add partitions from " + result.getOffset() + ": " +
+                batchResult.getErrorMessage());
+          }
+          batchResults.add(batchResult);
+        }
+        context.getLogger().log("Added partitions: " + (partitionList.size() - failed) + ", failed: " + failed);
+        if (failed == partitionList.size()) {
+          // nothing was added, fail the request like the single add_partitions call did, rather than
+          // leave it to the caller to notice the failed batches
+          throw firstError;
+        }
       }
-      return new AddPartitionsResponse();
+      return new AddPartitionsResponse().withBatchResults(batchResults);
     }
     catch (Exception e) {
       context.getLogger().log("Exception: " + e.getMessage());
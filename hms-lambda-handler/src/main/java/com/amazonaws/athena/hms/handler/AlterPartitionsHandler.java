@@ -21,8 +21,10 @@ package com.amazonaws.athena.hms.handler;
 
 import com.amazonaws.athena.hms.AlterPartitionsRequest;
 import com.amazonaws.athena.hms.AlterPartitionsResponse;
+import com.amazonaws.athena.hms.BatchResult;
 import com.amazonaws.athena.hms.HiveMetaStoreClient;
 import com.amazonaws.athena.hms.HiveMetaStoreConf;
+import com.amazonaws.athena.hms.PartitionBatchResult;
 import com.amazonaws.services.lambda.runtime.Context;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.thrift.TDeserializer;
@@ -45,20 +47,46 @@ public class AlterPartitionsHandler extends BaseHMSHandler<AlterPartitionsReques
       context.getLogger().log("Connecting to HMS: " + conf.getMetastoreUri());
       HiveMetaStoreClient client = getClient();
       boolean isEmpty = request.getPartitionDescs() == null || request.getPartitionDescs().isEmpty();
+      int startOffset = Math.max(0, request.getStartOffset());
       context.getLogger().log("Altering partitions: " +
-          (isEmpty ? 0 : request.getPartitionDescs().size()));
-      if (!isEmpty) {
+          (isEmpty ? 0 : request.getPartitionDescs().size()) + ", startOffset: " + startOffset);
+      List<PartitionBatchResult> batchResults = new ArrayList<>();
+      Integer nextOffset = null;
+      if (!isEmpty && startOffset < request.getPartitionDescs().size()) {
         TDeserializer deserializer = new TDeserializer(getTProtocolFactory());
         List<Partition> partitionList = new ArrayList<>();
-        for (String partitionDesc : request.getPartitionDescs()) {
+        // the partitions before startOffset have been altered by a previous request
+        for (String partitionDesc : request.getPartitionDescs().subList(startOffset, request.getPartitionDescs().size())) {
           Partition partition = new Partition();
           deserializer.fromString(partition, partitionDesc);
           partitionList.add(partition);
         }
-        client.alterPartitions(request.getDbName(), request.getTableName(), partitionList);
-        context.getLogger().log("Altered partitions: " + partitionList.size());
+        int altered = 0;
+        Exception firstError = null;
+        for (BatchResult result : client.alterPartitions(request.getDbName(), request.getTableName(), partitionList)) {
+          PartitionBatchResult batchResult = toPartitionBatchResult(result, startOffset);
+          if (result.isSucceeded()) {
+            altered += result.getSize();
+          }
+          else {
+            // resume from the first failed batch, the batches after it are altered again, which is harmless
+            if (nextOffset == null) {
+              nextOffset = batchResult.getOffset();
+              firstError = result.getError();
+            }
+            context.getLogger().log("Failed to alter partitions from " + batchResult.getOffset() + ": " +
+                batchResult.getErrorMessage());
+          }
+          batchResults.add(batchResult);
+        }
+        context.getLogger().log("Altered partitions: " + altered + ", nextOffset: " + nextOffset);
+        if (altered == 0 && firstError != null) {
+          // nothing was altered, fail the request like the single alter_partitions call did
+          // instead of returning a response that old clients would take as a success
+          throw firstError;
+        }
       }
-      return new AlterPartitionsResponse();
+      return new AlterPartitionsResponse().withBatchResults(batchResults).withNextOffset(nextOffset);
     }
     catch (Exception e) {
       context.getLogger().log("Exception: " + e.getMessage());
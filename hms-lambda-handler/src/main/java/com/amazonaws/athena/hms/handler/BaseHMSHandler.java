@@ -19,8 +19,10 @@
  */
 package com.amazonaws.athena.hms.handler;
 
+import com.amazonaws.athena.hms.BatchResult;
 import com.amazonaws.athena.hms.HiveMetaStoreClient;
 import com.amazonaws.athena.hms.HiveMetaStoreConf;
+import com.amazonaws.athena.hms.PartitionBatchResult;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import org.apache.thrift.protocol.TJSONProtocol;
@@ -28,6 +30,9 @@ import org.apache.thrift.protocol.TProtocolFactory;
 
 public abstract class BaseHMSHandler<REQUEST, RESPONSE> implements RequestHandler<REQUEST, RESPONSE>
 {
+  // room for the rest of a paginated response, e.g., the nextToken
+  private static final long PAGE_RESPONSE_OVERHEAD_BYTES = 4 * 1024L;
+
   // hive metastore configuration
   private final HiveMetaStoreConf conf;
   // hive metastore client
@@ -54,6 +59,31 @@ public abstract class BaseHMSHandler<REQUEST, RESPONSE> implements RequestHandle
     return new TJSONProtocol.Factory();
   }
 
+  // convert the result of a batch of partitions, whose offset is relative to startOffset
+  protected PartitionBatchResult toPartitionBatchResult(BatchResult result, int startOffset)
+  {
+    PartitionBatchResult batchResult = new PartitionBatchResult()
+        .withOffset(startOffset + result.getOffset())
+        .withSize(result.getSize())
+        .withSucceeded(result.isSucceeded());
+    if (!result.isSucceeded()) {
+      batchResult.setErrorMessage(result.getError().getClass().getSimpleName() + ": " +
+          result.getError().getMessage());
+    }
+    return batchResult;
+  }
+
+  // the byte limit of the entries of a page, which is kept under the spill threshold so that the
+  // page is returned inline rather than spilled to s3
+  protected long getPageMaxBytes(long maxBytes)
+  {
+    long threshold = conf.getResponseSpillThreshold();
+    if (maxBytes <= 0 || threshold <= 0) {
+      return maxBytes;
+    }
+    return Math.max(1L, Math.min(maxBytes, threshold - PAGE_RESPONSE_OVERHEAD_BYTES));
+  }
+
   @Override
   public abstract RESPONSE handleRequest(REQUEST request, Context context);
 }
@@ -19,12 +19,12 @@
  */
 package com.amazonaws.athena.hms.handler;
 
+import com.amazonaws.athena.hms.DropPartitionsProgress;
 import com.amazonaws.athena.hms.DropPartitionsRequest;
 import com.amazonaws.athena.hms.DropPartitionsResponse;
 import com.amazonaws.athena.hms.HiveMetaStoreClient;
 import com.amazonaws.athena.hms.HiveMetaStoreConf;
 import com.amazonaws.services.lambda.runtime.Context;
-import org.apache.hadoop.hive.metastore.api.DropPartitionsResult;
 import org.apache.thrift.TSerializer;
 
 import java.nio.charset.StandardCharsets;
@@ -43,13 +43,17 @@ public class DropPartitionsHandler extends BaseHMSHandler<DropPartitionsRequest,
     try {
       context.getLogger().log("Connecting to HMS: " + conf.getMetastoreUri());
       HiveMetaStoreClient client = getClient();
-      context.getLogger().log("Dropping partitions for DB " + request.getDbName() + " table " + request.getTableName());
-      DropPartitionsResult result = client.dropPartitions(request.getDbName(), request.getTableName(), request.getPartNames());
-      context.getLogger().log("Dropped partitions: " + result);
-      DropPartitionsResponse response = new DropPartitionsResponse();
-      if (result != null) {
+      context.getLogger().log("Dropping partitions for DB " + request.getDbName() + " table " + request.getTableName() +
+          ", deleteData: " + request.isDeleteData() + ", needResult: " + request.isNeedResult());
+      DropPartitionsProgress progress = client.dropPartitions(request.getDbName(), request.getTableName(),
+          request.getPartNames(), request.isDeleteData(), request.isNeedResult());
+      context.getLogger().log("Dropped partitions: " + progress.getNumDropped() + ", complete: " + progress.isComplete());
+      DropPartitionsResponse response = new DropPartitionsResponse()
+          .withNumDropped(progress.getNumDropped())
+          .withComplete(progress.isComplete());
+      if (progress.getResult() != null) {
         TSerializer serializer = new TSerializer(getTProtocolFactory());
-        response.setResult(serializer.toString(result, StandardCharsets.UTF_8.name()));
+        response.setResult(serializer.toString(progress.getResult(), StandardCharsets.UTF_8.name()));
       }
       return response;
     }
@@ -39,8 +39,9 @@ public class DropTableHandler extends BaseHMSHandler<DropTableRequest, DropTable
     try {
       context.getLogger().log("Connecting to HMS: " + conf.getMetastoreUri());
       HiveMetaStoreClient client = getClient();
-      context.getLogger().log("Dropping table " + request.getTableName() + " in DB " + request.getDbName());
-      boolean successful = client.dropTable(request.getDbName(), request.getTableName());
+      context.getLogger().log("Dropping table " + request.getTableName() + " in DB " + request.getDbName() +
+          ", dropPartitionsFirst: " + request.isDropPartitionsFirst());
+      boolean successful = client.dropTable(request.getDbName(), request.getTableName(), request.isDropPartitionsFirst());
       context.getLogger().log("Dropped table: " + successful);
       DropTableResponse response = new DropTableResponse();
       response.setSuccessful(successful);
@@ -0,0 +1,77 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms.handler;
+
+import com.amazonaws.athena.hms.GetAggrColumnStatisticsRequest;
+import com.amazonaws.athena.hms.GetAggrColumnStatisticsResponse;
+import com.amazonaws.athena.hms.HiveMetaStoreClient;
+import com.amazonaws.athena.hms.HiveMetaStoreConf;
+import com.amazonaws.services.lambda.runtime.Context;
+import org.apache.hadoop.hive.metastore.api.AggrStats;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.thrift.TSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// the statistics are aggregated over the partitions by HMS, which is far cheaper for a planner
+// than fetching the statistics of each partition
+public class GetAggrColumnStatisticsHandler extends BaseHMSHandler<GetAggrColumnStatisticsRequest, GetAggrColumnStatisticsResponse>
+{
+  public GetAggrColumnStatisticsHandler(HiveMetaStoreConf conf, HiveMetaStoreClient client)
+  {
+    super(conf, client);
+  }
+
+  @Override
+  public GetAggrColumnStatisticsResponse handleRequest(GetAggrColumnStatisticsRequest request, Context context)
+  {
+    HiveMetaStoreConf conf = getConf();
+    try {
+      context.getLogger().log("Connecting to HMS: " + conf.getMetastoreUri());
+      HiveMetaStoreClient client = getClient();
+      context.getLogger().log("Fetching aggregated column statistics for DB: " + request.getDbName() +
+          ", table: " + request.getTableName() + ", partitions: " +
+          (request.getPartNames() == null ? "all" : request.getPartNames().size()) + ", columns: " + request.getColNames());
+      AggrStats aggrStats = client.getAggrColumnStatistics(request.getDbName(), request.getTableName(),
+          request.getPartNames(), request.getColNames());
+      GetAggrColumnStatisticsResponse response = new GetAggrColumnStatisticsResponse();
+      if (aggrStats != null) {
+        context.getLogger().log("Aggregated column statistics over partitions: " + aggrStats.getPartsFound());
+        response.setPartsFound(aggrStats.getPartsFound());
+        List<ColumnStatisticsObj> stats = aggrStats.getColStats();
+        if (stats != null && !stats.isEmpty()) {
+          TSerializer serializer = new TSerializer(getTProtocolFactory());
+          List<String> jsonStatsList = new ArrayList<>(stats.size());
+          for (ColumnStatisticsObj stat : stats) {
+            jsonStatsList.add(serializer.toString(stat, StandardCharsets.UTF_8.name()));
+          }
+          response.setColumnStats(jsonStatsList);
+        }
+      }
+      return response;
+    }
+    catch (Exception e) {
+      context.getLogger().log("Exception: " + e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,77 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms.handler;
+
+import com.amazonaws.athena.hms.GetPartitionColumnStatisticsRequest;
+import com.amazonaws.athena.hms.GetPartitionColumnStatisticsResponse;
+import com.amazonaws.athena.hms.HiveMetaStoreClient;
+import com.amazonaws.athena.hms.HiveMetaStoreConf;
+import com.amazonaws.services.lambda.runtime.Context;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.thrift.TSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// large partition lists are split into batches by the client
+public class GetPartitionColumnStatisticsHandler extends BaseHMSHandler<GetPartitionColumnStatisticsRequest, GetPartitionColumnStatisticsResponse>
+{
+  public GetPartitionColumnStatisticsHandler(HiveMetaStoreConf conf, HiveMetaStoreClient client)
+  {
+    super(conf, client);
+  }
+
+  @Override
+  public GetPartitionColumnStatisticsResponse handleRequest(GetPartitionColumnStatisticsRequest request, Context context)
+  {
+    HiveMetaStoreConf conf = getConf();
+    try {
+      context.getLogger().log("Connecting to HMS: " + conf.getMetastoreUri());
+      HiveMetaStoreClient client = getClient();
+      context.getLogger().log("Fetching partition column statistics for DB: " + request.getDbName() +
+          ", table: " + request.getTableName() + ", partitions: " +
+          (request.getPartNames() == null ? "all" : request.getPartNames().size()) + ", columns: " + request.getColNames());
+      Map<String, List<ColumnStatisticsObj>> partStats = client.getPartitionColumnStatistics(request.getDbName(),
+          request.getTableName(), request.getPartNames(), request.getColNames());
+      context.getLogger().log("Fetched partition column statistics: " + (partStats == null ? 0 : partStats.size()));
+      GetPartitionColumnStatisticsResponse response = new GetPartitionColumnStatisticsResponse();
+      if (partStats != null && !partStats.isEmpty()) {
+        TSerializer serializer = new TSerializer(getTProtocolFactory());
+        Map<String, List<String>> jsonPartStats = new HashMap<>();
+        for (Map.Entry<String, List<ColumnStatisticsObj>> entry : partStats.entrySet()) {
+          List<String> jsonStatsList = new ArrayList<>(entry.getValue().size());
+          for (ColumnStatisticsObj stat : entry.getValue()) {
+            jsonStatsList.add(serializer.toString(stat, StandardCharsets.UTF_8.name()));
+          }
+          jsonPartStats.put(entry.getKey(), jsonStatsList);
+        }
+        response.setPartitionStats(jsonPartStats);
+      }
+      return response;
+    }
+    catch (Exception e) {
+      context.getLogger().log("Exception: " + e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms.handler;
+
+import com.amazonaws.athena.hms.GetPartitionValuesRequest;
+import com.amazonaws.athena.hms.GetPartitionValuesResponse;
+import com.amazonaws.athena.hms.HiveMetaStoreClient;
+import com.amazonaws.athena.hms.HiveMetaStoreConf;
+import com.amazonaws.services.lambda.runtime.Context;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.Table;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// enumerates the partition key values of a table without fetching the partitions, e.g., to
+// show the distinct values of a partition key
+public class GetPartitionValuesHandler extends BaseHMSHandler<GetPartitionValuesRequest, GetPartitionValuesResponse>
+{
+  public GetPartitionValuesHandler(HiveMetaStoreConf conf, HiveMetaStoreClient client)
+  {
+    super(conf, client);
+  }
+
+  @Override
+  public GetPartitionValuesResponse handleRequest(GetPartitionValuesRequest request, Context context)
+  {
+    HiveMetaStoreConf conf = getConf();
+    try {
+      context.getLogger().log("Connecting to HMS: " + conf.getMetastoreUri());
+      HiveMetaStoreClient client = getClient();
+      context.getLogger().log("Fetching partition values for DB: " + request.getDbName() + ", table: " +
+          request.getTableName() + ", keys: " + request.getPartitionKeys() + ", filter: " + request.getFilter());
+      Table table = client.getTable(request.getDbName(), request.getTableName());
+      List<String> keys = new ArrayList<>();
+      List<String> types = new ArrayList<>();
+      for (FieldSchema partitionKey : table.getPartitionKeys()) {
+        keys.add(partitionKey.getName());
+        types.add(partitionKey.getType());
+      }
+      if (request.getPartitionKeys() != null) {
+        List<String> selectedTypes = new ArrayList<>(request.getPartitionKeys().size());
+        for (String key : request.getPartitionKeys()) {
+          int index = keys.indexOf(key.toLowerCase());
+          selectedTypes.add(index < 0 ? null : types.get(index));
+        }
+        keys = request.getPartitionKeys();
+        types = selectedTypes;
+      }
+      List<List<String>> values = client.getPartitionValues(table, request.getPartitionKeys(), request.getFilter(),
+          request.isApplyDistinct(), request.isAscending(), request.getMaxParts());
+      context.getLogger().log("Fetched partition values: " + (values == null ? 0 : values.size()));
+      GetPartitionValuesResponse response = new GetPartitionValuesResponse();
+      response.setPartitionKeys(keys);
+      response.setPartitionKeyTypes(types);
+      response.setPartitionValues(values);
+      return response;
+    }
+    catch (Exception e) {
+      context.getLogger().log("Exception: " + e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -19,6 +19,7 @@
  */
 package com.amazonaws.athena.hms.handler;
 
+import com.amazonaws.athena.hms.FieldMask;
 import com.amazonaws.athena.hms.GetPartitionsByNamesRequest;
 import com.amazonaws.athena.hms.GetPartitionsByNamesResponse;
 import com.amazonaws.athena.hms.HiveMetaStoreClient;
@@ -52,9 +53,10 @@ public class GetPartitionsByNamesHandler extends BaseHMSHandler<GetPartitionsByN
       GetPartitionsByNamesResponse response = new GetPartitionsByNamesResponse();
       if (partitionList != null && !partitionList.isEmpty()) {
         TSerializer serializer = new TSerializer(getTProtocolFactory());
+        FieldMask fieldMask = FieldMask.of(request.getFields());
         List<String> jsonPartitionList = new ArrayList<>();
         for (Partition partition : partitionList) {
-          jsonPartitionList.add(serializer.toString(partition, StandardCharsets.UTF_8.name()));
+          jsonPartitionList.add(serializer.toString(fieldMask.apply(partition), StandardCharsets.UTF_8.name()));
         }
         response.setPartitionDescs(jsonPartitionList);
       }
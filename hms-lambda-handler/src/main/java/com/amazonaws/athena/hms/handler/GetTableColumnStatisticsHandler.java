@@ -0,0 +1,69 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms.handler;
+
+import com.amazonaws.athena.hms.GetTableColumnStatisticsRequest;
+import com.amazonaws.athena.hms.GetTableColumnStatisticsResponse;
+import com.amazonaws.athena.hms.HiveMetaStoreClient;
+import com.amazonaws.athena.hms.HiveMetaStoreConf;
+import com.amazonaws.services.lambda.runtime.Context;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.thrift.TSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class GetTableColumnStatisticsHandler extends BaseHMSHandler<GetTableColumnStatisticsRequest, GetTableColumnStatisticsResponse>
+{
+  public GetTableColumnStatisticsHandler(HiveMetaStoreConf conf, HiveMetaStoreClient client)
+  {
+    super(conf, client);
+  }
+
+  @Override
+  public GetTableColumnStatisticsResponse handleRequest(GetTableColumnStatisticsRequest request, Context context)
+  {
+    HiveMetaStoreConf conf = getConf();
+    try {
+      context.getLogger().log("Connecting to HMS: " + conf.getMetastoreUri());
+      HiveMetaStoreClient client = getClient();
+      context.getLogger().log("Fetching column statistics for DB: " + request.getDbName() +
+          ", table: " + request.getTableName() + ", columns: " + request.getColNames());
+      List<ColumnStatisticsObj> stats = client.getTableColumnStatistics(request.getDbName(),
+          request.getTableName(), request.getColNames());
+      context.getLogger().log("Fetched column statistics: " + (stats == null ? 0 : stats.size()));
+      GetTableColumnStatisticsResponse response = new GetTableColumnStatisticsResponse();
+      if (stats != null && !stats.isEmpty()) {
+        TSerializer serializer = new TSerializer(getTProtocolFactory());
+        List<String> jsonStatsList = new ArrayList<>(stats.size());
+        for (ColumnStatisticsObj stat : stats) {
+          jsonStatsList.add(serializer.toString(stat, StandardCharsets.UTF_8.name()));
+        }
+        response.setColumnStats(jsonStatsList);
+      }
+      return response;
+    }
+    catch (Exception e) {
+      context.getLogger().log("Exception: " + e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+}
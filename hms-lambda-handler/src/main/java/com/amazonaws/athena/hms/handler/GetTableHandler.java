@@ -19,6 +19,7 @@
  */
 package com.amazonaws.athena.hms.handler;
 
+import com.amazonaws.athena.hms.FieldMask;
 import com.amazonaws.athena.hms.GetTableRequest;
 import com.amazonaws.athena.hms.GetTableResponse;
 import com.amazonaws.athena.hms.HiveMetaStoreClient;
@@ -49,7 +50,8 @@ public class GetTableHandler extends BaseHMSHandler<GetTableRequest, GetTableRes
       GetTableResponse response = new GetTableResponse();
       if (table != null) {
         TSerializer serializer = new TSerializer(getTProtocolFactory());
-        response.setTableDesc(serializer.toString(table, StandardCharsets.UTF_8.name()));
+        FieldMask fieldMask = FieldMask.of(request.getFields());
+        response.setTableDesc(serializer.toString(fieldMask.apply(table), StandardCharsets.UTF_8.name()));
       }
       return response;
     }
@@ -19,6 +19,7 @@
  */
 package com.amazonaws.athena.hms.handler;
 
+import com.amazonaws.athena.hms.FieldMask;
 import com.amazonaws.athena.hms.GetTablesRequest;
 import com.amazonaws.athena.hms.GetTablesResponse;
 import com.amazonaws.athena.hms.HiveMetaStoreClient;
@@ -51,9 +52,10 @@ public class GetTablesHandler extends BaseHMSHandler<GetTablesRequest, GetTables
       GetTablesResponse response = new GetTablesResponse();
       if (tables != null && !tables.isEmpty()) {
         TSerializer serializer = new TSerializer(getTProtocolFactory());
+        FieldMask fieldMask = FieldMask.of(request.getFields());
         List<String> jsonTableList = new ArrayList<>();
         for (Table table : tables) {
-          jsonTableList.add(serializer.toString(table, StandardCharsets.UTF_8.name()));
+          jsonTableList.add(serializer.toString(fieldMask.apply(table), StandardCharsets.UTF_8.name()));
         }
         response.setTables(jsonTableList);
       }
@@ -31,7 +31,6 @@ import org.apache.thrift.TException;
 import org.apache.thrift.TSerializer;
 
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -67,6 +66,12 @@ public class ListDatabasesHandler extends BaseHMSHandler<ListDatabasesRequest, L
     {
       return client.getDatabasesByNames(names);
     }
+
+    @Override
+    protected String getName(Database database)
+    {
+      return database.getName();
+    }
   }
 
   @Override
@@ -78,16 +83,13 @@ public class ListDatabasesHandler extends BaseHMSHandler<ListDatabasesRequest, L
       HiveMetaStoreClient client = getClient();
       ListDatabasesResponse response = new ListDatabasesResponse();
       DatabasePaginator paginator = new DatabasePaginator(context, request, client);
-      PaginatedResponse<Database> paginatedResponse = paginator.paginateByNames(request.getNextToken(), request.getMaxSize());
+      TSerializer serializer = new TSerializer(getTProtocolFactory());
+      PaginatedResponse<String> paginatedResponse = paginator.paginateByNames(request.getNextToken(), request.getMaxSize(),
+          getPageMaxBytes(request.getMaxBytes()), database -> serializer.toString(database, StandardCharsets.UTF_8.name()));
       if (paginatedResponse != null) {
         response.setNextToken(paginatedResponse.getNextToken());
-        List<Database> databases = paginatedResponse.getEntries();
-        if (databases != null && !databases.isEmpty()) {
-          TSerializer serializer = new TSerializer(getTProtocolFactory());
-          List<String> jsonDatabaseList = new ArrayList<>();
-          for (Database database : databases) {
-            jsonDatabaseList.add(serializer.toString(database, StandardCharsets.UTF_8.name()));
-          }
+        List<String> jsonDatabaseList = paginatedResponse.getEntries();
+        if (jsonDatabaseList != null && !jsonDatabaseList.isEmpty()) {
           response.setDatabases(jsonDatabaseList);
           context.getLogger().log("Paginated response: entry size: " + jsonDatabaseList.size()
               + ", nextToken: " + response.getNextToken());
@@ -0,0 +1,133 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms.handler;
+
+import com.amazonaws.athena.hms.FieldMask;
+import com.amazonaws.athena.hms.HiveMetaStoreClient;
+import com.amazonaws.athena.hms.HiveMetaStoreConf;
+import com.amazonaws.athena.hms.ListPartitionsByFilterRequest;
+import com.amazonaws.athena.hms.ListPartitionsByFilterResponse;
+import com.amazonaws.athena.hms.PaginatedResponse;
+import com.amazonaws.athena.hms.Paginator;
+import com.amazonaws.services.lambda.runtime.Context;
+import org.apache.hadoop.hive.metastore.Warehouse;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ListPartitionsByFilterHandler extends BaseHMSHandler<ListPartitionsByFilterRequest, ListPartitionsByFilterResponse>
+{
+  public ListPartitionsByFilterHandler(HiveMetaStoreConf conf, HiveMetaStoreClient client)
+  {
+    super(conf, client);
+  }
+
+  // HMS 2.3 has no paginated filter API, thus the matching partitions are fetched once, which is
+  // much smaller than the whole table, and then paginated by their partition names
+  private static class FilteredPartitionPaginator extends Paginator<Partition>
+  {
+    private final Context context;
+    private final ListPartitionsByFilterRequest request;
+    private final HiveMetaStoreClient client;
+    private final Map<String, Partition> partitions = new HashMap<>();
+    private List<FieldSchema> partitionKeys;
+
+    private FilteredPartitionPaginator(Context context, ListPartitionsByFilterRequest request, HiveMetaStoreClient client)
+    {
+      this.context = context;
+      this.request = request;
+      this.client = client;
+    }
+
+    @Override
+    protected Collection<String> getNames() throws TException
+    {
+      context.getLogger().log("Fetching partitions for DB: " + request.getDbName()
+          + " table: " + request.getTableName() + " filter: " + request.getFilter());
+      partitionKeys = client.getTable(request.getDbName(), request.getTableName()).getPartitionKeys();
+      List<Partition> partitionList =
+          client.getPartitionsByFilter(request.getDbName(), request.getTableName(), request.getFilter(), (short) -1);
+      if (partitionList != null) {
+        for (Partition partition : partitionList) {
+          partitions.put(Warehouse.makePartName(partitionKeys, partition.getValues()), partition);
+        }
+      }
+      return partitions.keySet();
+    }
+
+    @Override
+    protected List<Partition> getEntriesByNames(List<String> names) throws TException
+    {
+      List<Partition> list = new ArrayList<>(names.size());
+      for (String name : names) {
+        list.add(partitions.get(name));
+      }
+      return list;
+    }
+
+    @Override
+    protected String getName(Partition partition) throws TException
+    {
+      return Warehouse.makePartName(partitionKeys, partition.getValues());
+    }
+  }
+
+  @Override
+  public ListPartitionsByFilterResponse handleRequest(ListPartitionsByFilterRequest request, Context context)
+  {
+    HiveMetaStoreConf conf = getConf();
+    try {
+      context.getLogger().log("Connecting to HMS: " + conf.getMetastoreUri());
+      HiveMetaStoreClient client = getClient();
+      ListPartitionsByFilterResponse response = new ListPartitionsByFilterResponse();
+      FilteredPartitionPaginator paginator = new FilteredPartitionPaginator(context, request, client);
+      TSerializer serializer = new TSerializer(getTProtocolFactory());
+      FieldMask fieldMask = FieldMask.of(request.getFields());
+      PaginatedResponse<String> paginatedResponse = paginator.paginateByNames(request.getNextToken(), request.getMaxSize(),
+          getPageMaxBytes(request.getMaxBytes()), partition -> serializer.toString(fieldMask.apply(partition), StandardCharsets.UTF_8.name()));
+      if (paginatedResponse != null) {
+        response.setNextToken(paginatedResponse.getNextToken());
+        List<String> jsonPartitionList = paginatedResponse.getEntries();
+        if (jsonPartitionList != null && !jsonPartitionList.isEmpty()) {
+          response.setPartitions(jsonPartitionList);
+          context.getLogger().log("Paginated response: entry size: " + jsonPartitionList.size()
+              + ", nextToken: " + response.getNextToken());
+        }
+      }
+      return response;
+    }
+    catch (RuntimeException e) {
+      context.getLogger().log("Exception: " + e.getMessage());
+      throw e;
+    }
+    catch (Exception e) {
+      context.getLogger().log("Exception: " + e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -19,27 +19,78 @@
  */
 package com.amazonaws.athena.hms.handler;
 
+import com.amazonaws.athena.hms.FieldMask;
 import com.amazonaws.athena.hms.HiveMetaStoreClient;
 import com.amazonaws.athena.hms.HiveMetaStoreConf;
 import com.amazonaws.athena.hms.ListPartitionsRequest;
 import com.amazonaws.athena.hms.ListPartitionsResponse;
+import com.amazonaws.athena.hms.MetadataChangeListener;
+import com.amazonaws.athena.hms.NameSnapshot;
+import com.amazonaws.athena.hms.PagePrefetcher;
 import com.amazonaws.athena.hms.PaginatedResponse;
 import com.amazonaws.athena.hms.Paginator;
 import com.amazonaws.services.lambda.runtime.Context;
+import org.apache.hadoop.hive.metastore.Warehouse;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.thrift.TException;
 import org.apache.thrift.TSerializer;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 
 public class ListPartitionsHandler extends BaseHMSHandler<ListPartitionsRequest, ListPartitionsResponse>
 {
+  // shared by the invocations of the Lambda container
+  private final PagePrefetcher<Partition> prefetcher;
+
   public ListPartitionsHandler(HiveMetaStoreConf conf, HiveMetaStoreClient client)
   {
     super(conf, client);
+    this.prefetcher = new PagePrefetcher<>(conf.getPagePrefetchMaxEntries(), conf.getPagePrefetchTtlMs());
+    if (prefetcher.isEnabled() && client != null) {
+      // the prefetched partitions must not outlive a change of their table, e.g., made by this container
+      client.addChangeListener(new PrefetchInvalidator());
+    }
+  }
+
+  // HMS names are case-insensitive, the key is followed by the page token
+  private static String prefetchKey(String dbName, String tableName)
+  {
+    return (dbName + "." + tableName).toLowerCase();
+  }
+
+  private class PrefetchInvalidator implements MetadataChangeListener
+  {
+    @Override
+    public void onDatabaseChanged(String dbName)
+    {
+      prefetcher.invalidate(dbName.toLowerCase() + ".");
+    }
+
+    @Override
+    public void onTableChanged(String dbName, String tableName)
+    {
+      onPartitionsChanged(dbName, tableName);
+    }
+
+    @Override
+    public void onPartitionsChanged(String dbName, String tableName)
+    {
+      if (tableName == null) {
+        onDatabaseChanged(dbName);
+      }
+      else {
+        prefetcher.invalidate(prefetchKey(dbName, tableName) + "\n");
+      }
+    }
+
+    @Override
+    public void onReset()
+    {
+      prefetcher.invalidateAll();
+    }
   }
 
   private static class PartitionPaginator extends Paginator<Partition>
@@ -47,20 +98,47 @@ public class ListPartitionsHandler extends BaseHMSHandler<ListPartitionsRequest,
     private final Context context;
     private final ListPartitionsRequest request;
     private final HiveMetaStoreClient client;
+    private final HiveMetaStoreConf conf;
+    // the names being paginated, whose partition keys name the partitions when the pages are cut by bytes
+    private NameSnapshot snapshot;
+    private List<FieldSchema> partitionKeys;
 
-    private PartitionPaginator(Context context, ListPartitionsRequest request, HiveMetaStoreClient client)
+    private PartitionPaginator(Context context, ListPartitionsRequest request, HiveMetaStoreClient client,
+                               HiveMetaStoreConf conf)
     {
       this.context = context;
       this.request = request;
       this.client = client;
+      this.conf = conf;
+    }
+
+    // a wave of batches matches how the client splits getPartitionsByNames() over its connections
+    @Override
+    protected int getBatchSize()
+    {
+      return conf.getClientPartitionBatchSize();
+    }
+
+    @Override
+    protected int getConcurrency()
+    {
+      return conf.getClientParallelism();
     }
 
     @Override
-    protected Collection<String> getNames() throws TException
+    protected boolean isBusy()
     {
-      context.getLogger().log("Fetching all partition names for DB: " + request.getDbName()
-          + " table: " + request.getTableName());
-      return client.getPartitionNames(request.getDbName(), request.getTableName(), (short) -1);
+      return client.isBusy();
+    }
+
+    // the sorted names are reused by the following pages while the partitions don't change
+    @Override
+    protected NameSnapshot getSnapshot(boolean continuation) throws TException
+    {
+      context.getLogger().log("Fetching the partition name snapshot for DB: " + request.getDbName()
+          + " table: " + request.getTableName() + ", continuation: " + continuation);
+      snapshot = client.getPartitionNameSnapshot(request.getDbName(), request.getTableName(), continuation);
+      return snapshot;
     }
 
     @Override
@@ -68,6 +146,20 @@ public class ListPartitionsHandler extends BaseHMSHandler<ListPartitionsRequest,
     {
       return client.getPartitionsByNames(request.getDbName(), request.getTableName(), names);
     }
+
+    // every partition name has the partition keys of the table, so they are taken from the snapshot
+    // rather than fetching the table
+    @Override
+    protected String getName(Partition partition) throws TException
+    {
+      if (partitionKeys == null) {
+        partitionKeys = new ArrayList<>();
+        for (String key : Warehouse.makeSpecFromName(snapshot.getSortedNames().get(0)).keySet()) {
+          partitionKeys.add(new FieldSchema(key, null, null));
+        }
+      }
+      return Warehouse.makePartName(partitionKeys, partition.getValues());
+    }
   }
 
   @Override
@@ -78,17 +170,18 @@ public class ListPartitionsHandler extends BaseHMSHandler<ListPartitionsRequest,
       context.getLogger().log("Connecting to HMS: " + conf.getMetastoreUri());
       HiveMetaStoreClient client = getClient();
       ListPartitionsResponse response = new ListPartitionsResponse();
-      PartitionPaginator paginator = new PartitionPaginator(context, request, client);
-      PaginatedResponse<Partition> paginatedResponse = paginator.paginateByNames(request.getNextToken(), request.getMaxSize());
+      PartitionPaginator paginator = new PartitionPaginator(context, request, client, conf);
+      if (prefetcher.isEnabled()) {
+        paginator.setPrefetcher(prefetcher, prefetchKey(request.getDbName(), request.getTableName()));
+      }
+      TSerializer serializer = new TSerializer(getTProtocolFactory());
+      FieldMask fieldMask = FieldMask.of(request.getFields());
+      PaginatedResponse<String> paginatedResponse = paginator.paginateByNames(request.getNextToken(), request.getMaxSize(),
+          getPageMaxBytes(request.getMaxBytes()), partition -> serializer.toString(fieldMask.apply(partition), StandardCharsets.UTF_8.name()));
       if (paginatedResponse != null) {
         response.setNextToken(paginatedResponse.getNextToken());
-        List<Partition> partitions = paginatedResponse.getEntries();
-        if (partitions != null && !partitions.isEmpty()) {
-          TSerializer serializer = new TSerializer(getTProtocolFactory());
-          List<String> jsonPartitionList = new ArrayList<>();
-          for (Partition partition : partitions) {
-            jsonPartitionList.add(serializer.toString(partition, StandardCharsets.UTF_8.name()));
-          }
+        List<String> jsonPartitionList = paginatedResponse.getEntries();
+        if (jsonPartitionList != null && !jsonPartitionList.isEmpty()) {
           response.setPartitions(jsonPartitionList);
           context.getLogger().log("Paginated response: entry size: " + jsonPartitionList.size()
               + ", nextToken: " + response.getNextToken());
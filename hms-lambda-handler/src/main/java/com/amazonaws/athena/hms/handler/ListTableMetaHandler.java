@@ -0,0 +1,71 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms.handler;
+
+import com.amazonaws.athena.hms.HiveMetaStoreClient;
+import com.amazonaws.athena.hms.HiveMetaStoreConf;
+import com.amazonaws.athena.hms.ListTableMetaRequest;
+import com.amazonaws.athena.hms.ListTableMetaResponse;
+import com.amazonaws.services.lambda.runtime.Context;
+import org.apache.hadoop.hive.metastore.api.TableMeta;
+import org.apache.thrift.TSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// lists the tables of many databases in a single HMS call without fetching the table objects,
+// which is all that catalog browsing, e.g., SHOW TABLES, needs
+public class ListTableMetaHandler extends BaseHMSHandler<ListTableMetaRequest, ListTableMetaResponse>
+{
+  public ListTableMetaHandler(HiveMetaStoreConf conf, HiveMetaStoreClient client)
+  {
+    super(conf, client);
+  }
+
+  @Override
+  public ListTableMetaResponse handleRequest(ListTableMetaRequest request, Context context)
+  {
+    HiveMetaStoreConf conf = getConf();
+    try {
+      context.getLogger().log("Connecting to HMS: " + conf.getMetastoreUri());
+      HiveMetaStoreClient client = getClient();
+      context.getLogger().log("Listing table meta for DB patterns: " + request.getDbPatterns() +
+          ", table patterns: " + request.getTablePatterns() + ", table types: " + request.getTableTypes());
+      List<TableMeta> tableMetas = client.getTableMeta(request.getDbPatterns(), request.getTablePatterns(),
+          request.getTableTypes());
+      context.getLogger().log("Listed table meta: " + (tableMetas == null ? 0 : tableMetas.size()));
+      ListTableMetaResponse response = new ListTableMetaResponse();
+      if (tableMetas != null && !tableMetas.isEmpty()) {
+        TSerializer serializer = new TSerializer(getTProtocolFactory());
+        List<String> jsonTableMetaList = new ArrayList<>(tableMetas.size());
+        for (TableMeta tableMeta : tableMetas) {
+          jsonTableMetaList.add(serializer.toString(tableMeta, StandardCharsets.UTF_8.name()));
+        }
+        response.setTableMetas(jsonTableMetaList);
+      }
+      return response;
+    }
+    catch (Exception e) {
+      context.getLogger().log("Exception: " + e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+}
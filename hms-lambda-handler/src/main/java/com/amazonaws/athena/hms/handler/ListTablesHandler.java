@@ -19,10 +19,13 @@
  */
 package com.amazonaws.athena.hms.handler;
 
+import com.amazonaws.athena.hms.FieldMask;
 import com.amazonaws.athena.hms.HiveMetaStoreClient;
 import com.amazonaws.athena.hms.HiveMetaStoreConf;
 import com.amazonaws.athena.hms.ListTablesRequest;
 import com.amazonaws.athena.hms.ListTablesResponse;
+import com.amazonaws.athena.hms.MetadataChangeListener;
+import com.amazonaws.athena.hms.PagePrefetcher;
 import com.amazonaws.athena.hms.PaginatedResponse;
 import com.amazonaws.athena.hms.Paginator;
 import com.amazonaws.services.lambda.runtime.Context;
@@ -31,15 +34,55 @@ import org.apache.thrift.TException;
 import org.apache.thrift.TSerializer;
 
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
 public class ListTablesHandler extends BaseHMSHandler<ListTablesRequest, ListTablesResponse>
 {
+  // shared by the invocations of the Lambda container
+  private final PagePrefetcher<Table> prefetcher;
+
   public ListTablesHandler(HiveMetaStoreConf conf, HiveMetaStoreClient client)
   {
     super(conf, client);
+    this.prefetcher = new PagePrefetcher<>(conf.getPagePrefetchMaxEntries(), conf.getPagePrefetchTtlMs());
+    if (prefetcher.isEnabled() && client != null) {
+      // the prefetched tables must not outlive a change of their database or tables
+      client.addChangeListener(new PrefetchInvalidator());
+    }
+  }
+
+  // HMS names are case-insensitive, the key is followed by the filter and the page token
+  private static String prefetchKey(String dbName)
+  {
+    return dbName.toLowerCase() + "\n";
+  }
+
+  private class PrefetchInvalidator implements MetadataChangeListener
+  {
+    @Override
+    public void onDatabaseChanged(String dbName)
+    {
+      prefetcher.invalidate(prefetchKey(dbName));
+    }
+
+    @Override
+    public void onTableChanged(String dbName, String tableName)
+    {
+      prefetcher.invalidate(prefetchKey(dbName));
+    }
+
+    @Override
+    public void onPartitionsChanged(String dbName, String tableName)
+    {
+      // the tables themselves didn't change
+    }
+
+    @Override
+    public void onReset()
+    {
+      prefetcher.invalidateAll();
+    }
   }
 
   private static class TablePaginator extends Paginator<Table>
@@ -68,6 +111,18 @@ public class ListTablesHandler extends BaseHMSHandler<ListTablesRequest, ListTab
     {
       return client.getTablesByNames(request.getDbName(), names);
     }
+
+    @Override
+    protected boolean isBusy()
+    {
+      return client.isBusy();
+    }
+
+    @Override
+    protected String getName(Table table)
+    {
+      return table.getTableName();
+    }
   }
 
   @Override
@@ -79,16 +134,17 @@ public class ListTablesHandler extends BaseHMSHandler<ListTablesRequest, ListTab
       HiveMetaStoreClient client = getClient();
       ListTablesResponse response = new ListTablesResponse();
       TablePaginator paginator = new TablePaginator(context, request, client);
-      PaginatedResponse<Table> paginatedResponse = paginator.paginateByNames(request.getNextToken(), request.getMaxSize());
+      if (prefetcher.isEnabled()) {
+        paginator.setPrefetcher(prefetcher, prefetchKey(request.getDbName()) + request.getFilter());
+      }
+      TSerializer serializer = new TSerializer(getTProtocolFactory());
+      FieldMask fieldMask = FieldMask.of(request.getFields());
+      PaginatedResponse<String> paginatedResponse = paginator.paginateByNames(request.getNextToken(), request.getMaxSize(),
+          getPageMaxBytes(request.getMaxBytes()), table -> serializer.toString(fieldMask.apply(table), StandardCharsets.UTF_8.name()));
       if (paginatedResponse != null) {
         response.setNextToken(paginatedResponse.getNextToken());
-        List<Table> tables = paginatedResponse.getEntries();
-        if (tables != null && !tables.isEmpty()) {
-          TSerializer serializer = new TSerializer(getTProtocolFactory());
-          List<String> jsonTableList = new ArrayList<>();
-          for (Table table : tables) {
-            jsonTableList.add(serializer.toString(table, StandardCharsets.UTF_8.name()));
-          }
+        List<String> jsonTableList = paginatedResponse.getEntries();
+        if (jsonTableList != null && !jsonTableList.isEmpty()) {
           response.setTables(jsonTableList);
           context.getLogger().log("Paginated response: entry size: " + jsonTableList.size()
               + ", nextToken: " + response.getNextToken());
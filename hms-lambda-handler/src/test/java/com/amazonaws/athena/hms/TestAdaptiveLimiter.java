@@ -0,0 +1,99 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestAdaptiveLimiter {
+  @Test
+  public void testAcquireUpToLimit() throws InterruptedException {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(2, 2.0);
+    assertTrue(limiter.acquire(0L));
+    assertTrue(limiter.acquire(0L));
+    assertFalse(limiter.acquire(10L));
+    limiter.onIgnored();
+    assertTrue(limiter.acquire(0L));
+    assertEquals(2, limiter.getInFlight());
+  }
+
+  @Test
+  public void testDecreaseOnDrop() throws InterruptedException {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(10, 2.0);
+    assertTrue(limiter.acquire(0L));
+    limiter.onDropped();
+    assertEquals(9, limiter.getLimit());
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  public void testDecreaseOnLatencyIncrease() throws InterruptedException {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(10, 2.0);
+    for (int i = 0; i < 100; i++) {
+      assertTrue(limiter.acquire(0L));
+      limiter.onSuccess("read", 10L);
+    }
+    assertEquals(10, limiter.getLimit());
+    // HMS starts queueing
+    for (int i = 0; i < 5; i++) {
+      assertTrue(limiter.acquire(0L));
+      limiter.onSuccess("read", 100L);
+    }
+    assertTrue(limiter.getLimit() < 10);
+  }
+
+  @Test
+  public void testDisabled() throws InterruptedException {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(10, 0);
+    assertTrue(limiter.acquire(0L));
+    limiter.onDropped();
+    assertEquals(10, limiter.getLimit());
+  }
+
+  @Test
+  public void testLatencyPerOperationClass() throws InterruptedException {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(10, 2.0);
+    for (int i = 0; i < 100; i++) {
+      assertTrue(limiter.acquire(0L));
+      limiter.onSuccess("read", 10L);
+      assertTrue(limiter.acquire(0L));
+      limiter.onSuccess("bulkRead", 1000L);
+    }
+    // bulk reads are slower than point reads, but not slower than they used to be
+    for (int i = 0; i < 5; i++) {
+      assertTrue(limiter.acquire(0L));
+      limiter.onSuccess("bulkRead", 1000L);
+    }
+    assertEquals(10, limiter.getLimit());
+  }
+
+  @Test
+  public void testIgnoreJitterOfFastCalls() throws InterruptedException {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(10, 2.0);
+    for (int i = 0; i < 100; i++) {
+      assertTrue(limiter.acquire(0L));
+      limiter.onSuccess("read", i % 10 == 0 ? 1L : 0L);
+    }
+    assertEquals(10, limiter.getLimit());
+  }
+}
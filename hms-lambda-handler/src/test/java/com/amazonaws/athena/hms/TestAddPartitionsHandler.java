@@ -0,0 +1,134 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import com.amazonaws.athena.hms.handler.AddPartitionsHandler;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+
+import org.apache.hadoop.hive.metastore.api.AlreadyExistsException;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TJSONProtocol;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestAddPartitionsHandler {
+  private static Context createContext() {
+    Context context = mock(Context.class);
+    when(context.getLogger()).thenReturn(mock(LambdaLogger.class));
+    return context;
+  }
+
+  private static AddPartitionsRequest createRequest(int numPartitions) throws TException {
+    TSerializer serializer = new TSerializer(new TJSONProtocol.Factory());
+    List<String> partitionDescs = new ArrayList<>();
+    for (int i = 0; i < numPartitions; i++) {
+      Partition partition = new Partition();
+      partition.setDbName("default");
+      partition.setTableName("test");
+      partition.setValues(Collections.singletonList(String.valueOf(i)));
+      partitionDescs.add(serializer.toString(partition, "UTF-8"));
+    }
+    AddPartitionsRequest request = new AddPartitionsRequest();
+    request.setPartitionDescs(partitionDescs);
+    return request;
+  }
+
+  @Test
+  public void testIfNotExistsIsOffByDefault() throws TException {
+    assertFalse(new AddPartitionsRequest().isIfNotExists());
+    HiveMetaStoreClient client = mock(HiveMetaStoreClient.class);
+    List<Boolean> ifNotExists = new ArrayList<>();
+    when(client.addPartitions(anyListOf(Partition.class), anyBoolean())).thenAnswer(invocation -> {
+      ifNotExists.add((Boolean) invocation.getArguments()[1]);
+      return Collections.singletonList(new BatchResult(0, 1, null));
+    });
+    new AddPartitionsHandler(HiveMetaStoreConf.load(), client).handleRequest(createRequest(1), createContext());
+    assertEquals(Collections.singletonList(false), ifNotExists);
+  }
+
+  @Test
+  public void testBatchResults() throws TException {
+    HiveMetaStoreClient client = mock(HiveMetaStoreClient.class);
+    when(client.addPartitions(anyListOf(Partition.class), anyBoolean())).thenReturn(Arrays.asList(
+        new BatchResult(0, 2, null),
+        new BatchResult(2, 2, new AlreadyExistsException("Partition already exists")),
+        new BatchResult(4, 1, null)));
+    AddPartitionsHandler handler = new AddPartitionsHandler(HiveMetaStoreConf.load(), client);
+    AddPartitionsResponse response = handler.handleRequest(createRequest(5), createContext());
+    List<PartitionBatchResult> results = response.getBatchResults();
+    assertEquals(3, results.size());
+    assertEquals(0, results.get(0).getOffset());
+    assertEquals(2, results.get(0).getSize());
+    assertTrue(results.get(0).isSucceeded());
+    assertNull(results.get(0).getErrorMessage());
+    // the caller only retries the failed batch
+    assertEquals(2, results.get(1).getOffset());
+    assertEquals(2, results.get(1).getSize());
+    assertFalse(results.get(1).isSucceeded());
+    assertEquals("AlreadyExistsException: Partition already exists", results.get(1).getErrorMessage());
+    assertEquals(4, results.get(2).getOffset());
+    assertEquals(1, results.get(2).getSize());
+    assertTrue(results.get(2).isSucceeded());
+  }
+
+  @Test
+  public void testFailWhenNoBatchSucceeded() throws TException {
+    HiveMetaStoreClient client = mock(HiveMetaStoreClient.class);
+    when(client.addPartitions(anyListOf(Partition.class), anyBoolean())).thenReturn(Arrays.asList(
+        new BatchResult(0, 2, new AlreadyExistsException("Partition already exists")),
+        new BatchResult(2, 1, new TException("Timed out"))));
+    AddPartitionsHandler handler = new AddPartitionsHandler(HiveMetaStoreConf.load(), client);
+    try {
+      handler.handleRequest(createRequest(3), createContext());
+      fail("expected a RuntimeException");
+    }
+    catch (RuntimeException e) {
+      // the error of the first failed batch
+      assertTrue(e.getCause() instanceof AlreadyExistsException);
+    }
+  }
+
+  @Test
+  public void testNoPartitions() throws TException {
+    HiveMetaStoreClient client = mock(HiveMetaStoreClient.class);
+    AddPartitionsHandler handler = new AddPartitionsHandler(HiveMetaStoreConf.load(), client);
+    AddPartitionsResponse response = handler.handleRequest(new AddPartitionsRequest(), createContext());
+    assertTrue(response.getBatchResults().isEmpty());
+  }
+}
@@ -0,0 +1,149 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import com.amazonaws.athena.hms.handler.AlterPartitionsHandler;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+
+import org.apache.hadoop.hive.metastore.api.InvalidOperationException;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TJSONProtocol;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestAlterPartitionsHandler {
+  private static Context createContext() {
+    Context context = mock(Context.class);
+    when(context.getLogger()).thenReturn(mock(LambdaLogger.class));
+    return context;
+  }
+
+  private static AlterPartitionsRequest createRequest(int numPartitions, int startOffset) throws TException {
+    TSerializer serializer = new TSerializer(new TJSONProtocol.Factory());
+    List<String> partitionDescs = new ArrayList<>();
+    for (int i = 0; i < numPartitions; i++) {
+      Partition partition = new Partition();
+      partition.setDbName("default");
+      partition.setTableName("test");
+      partition.setValues(Collections.singletonList(String.valueOf(i)));
+      partitionDescs.add(serializer.toString(partition, "UTF-8"));
+    }
+    return new AlterPartitionsRequest().withDbName("default").withTableName("test")
+        .withPartitionDescs(partitionDescs).withStartOffset(startOffset);
+  }
+
+  @Test
+  public void testAllBatchesAltered() throws TException {
+    HiveMetaStoreClient client = mock(HiveMetaStoreClient.class);
+    when(client.alterPartitions(anyString(), anyString(), anyListOf(Partition.class))).thenReturn(Arrays.asList(
+        new BatchResult(0, 2, null),
+        new BatchResult(2, 1, null)));
+    AlterPartitionsHandler handler = new AlterPartitionsHandler(HiveMetaStoreConf.load(), client);
+    AlterPartitionsResponse response = handler.handleRequest(createRequest(3, 0), createContext());
+    assertEquals(2, response.getBatchResults().size());
+    assertTrue(response.getBatchResults().get(0).isSucceeded());
+    assertTrue(response.getBatchResults().get(1).isSucceeded());
+    assertNull(response.getNextOffset());
+  }
+
+  @Test
+  public void testNextOffsetIsFirstFailedBatch() throws TException {
+    HiveMetaStoreClient client = mock(HiveMetaStoreClient.class);
+    when(client.alterPartitions(anyString(), anyString(), anyListOf(Partition.class))).thenReturn(Arrays.asList(
+        new BatchResult(0, 2, null),
+        new BatchResult(2, 2, new InvalidOperationException("alter is not possible")),
+        new BatchResult(4, 2, new TException("Timed out"))));
+    AlterPartitionsHandler handler = new AlterPartitionsHandler(HiveMetaStoreConf.load(), client);
+    AlterPartitionsResponse response = handler.handleRequest(createRequest(6, 0), createContext());
+    assertEquals(Integer.valueOf(2), response.getNextOffset());
+    assertFalse(response.getBatchResults().get(1).isSucceeded());
+    assertEquals("InvalidOperationException: alter is not possible",
+        response.getBatchResults().get(1).getErrorMessage());
+  }
+
+  @Test
+  public void testResumeFromStartOffset() throws TException {
+    HiveMetaStoreClient client = mock(HiveMetaStoreClient.class);
+    List<List<String>> altered = new ArrayList<>();
+    when(client.alterPartitions(anyString(), anyString(), anyListOf(Partition.class))).thenAnswer(invocation -> {
+      @SuppressWarnings("unchecked")
+      List<Partition> partitions = (List<Partition>) invocation.getArguments()[2];
+      for (Partition partition : partitions) {
+        altered.add(partition.getValues());
+      }
+      return Arrays.asList(
+          new BatchResult(0, 2, null),
+          new BatchResult(2, 2, new TException("Timed out")));
+    });
+    AlterPartitionsHandler handler = new AlterPartitionsHandler(HiveMetaStoreConf.load(), client);
+    AlterPartitionsResponse response = handler.handleRequest(createRequest(7, 3), createContext());
+    // the partitions before the start offset are not altered again
+    assertEquals(4, altered.size());
+    assertEquals(Collections.singletonList("3"), altered.get(0));
+    // the offsets are relative to the partitions of the request, not to the resumed ones
+    assertEquals(3, response.getBatchResults().get(0).getOffset());
+    assertEquals(5, response.getBatchResults().get(1).getOffset());
+    assertEquals(Integer.valueOf(5), response.getNextOffset());
+  }
+
+  @Test
+  public void testStartOffsetPastTheEnd() throws TException {
+    HiveMetaStoreClient client = mock(HiveMetaStoreClient.class);
+    AlterPartitionsHandler handler = new AlterPartitionsHandler(HiveMetaStoreConf.load(), client);
+    AlterPartitionsResponse response = handler.handleRequest(createRequest(3, 3), createContext());
+    assertTrue(response.getBatchResults().isEmpty());
+    assertNull(response.getNextOffset());
+  }
+
+  @Test
+  public void testFailWhenNothingAltered() throws TException {
+    HiveMetaStoreClient client = mock(HiveMetaStoreClient.class);
+    when(client.alterPartitions(anyString(), anyString(), anyListOf(Partition.class))).thenReturn(Arrays.asList(
+        new BatchResult(0, 2, new InvalidOperationException("alter is not possible")),
+        new BatchResult(2, 1, new TException("Timed out"))));
+    AlterPartitionsHandler handler = new AlterPartitionsHandler(HiveMetaStoreConf.load(), client);
+    try {
+      handler.handleRequest(createRequest(3, 0), createContext());
+      fail("expected a RuntimeException");
+    }
+    catch (RuntimeException e) {
+      assertTrue(e.getCause() instanceof InvalidOperationException);
+    }
+  }
+}
@@ -0,0 +1,264 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.apache.hadoop.hive.metastore.api.Database;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestCachingHiveMetaStoreClient {
+  private static final long TTL_MS = 60000L;
+
+  private final HiveMetaStoreClient delegate = mock(HiveMetaStoreClient.class);
+  private final CachingHiveMetaStoreClient client =
+      new CachingHiveMetaStoreClient(delegate, 1024 * 1024L, 1024 * 1024L, TTL_MS, TTL_MS, TTL_MS);
+  private final AtomicInteger getTableCalls = new AtomicInteger();
+  // the names passed to each getTablesByNames call of the delegate
+  private final List<List<String>> fetchedNames = new ArrayList<>();
+
+  private static Table createTable(String dbName, String tableName, String owner) {
+    Table table = new Table();
+    table.setDbName(dbName);
+    table.setTableName(tableName);
+    table.setOwner(owner);
+    return table;
+  }
+
+  private void mockTables() throws Exception {
+    when(delegate.getTable(anyString(), anyString())).thenAnswer(invocation -> {
+      getTableCalls.incrementAndGet();
+      Object[] args = invocation.getArguments();
+      return createTable((String) args[0], (String) args[1], "owner" + getTableCalls.get());
+    });
+    when(delegate.getTablesByNames(anyString(), anyListOf(String.class))).thenAnswer(invocation -> {
+      Object[] args = invocation.getArguments();
+      @SuppressWarnings("unchecked")
+      List<String> names = (List<String>) args[1];
+      fetchedNames.add(new ArrayList<>(names));
+      List<Table> tables = new ArrayList<>();
+      for (String name : names) {
+        // HMS leaves out the missing tables
+        if (!name.startsWith("missing")) {
+          tables.add(createTable((String) args[0], name, "owner"));
+        }
+      }
+      return tables;
+    });
+  }
+
+  @Test
+  public void testCacheTable() throws Exception {
+    mockTables();
+    assertEquals("owner1", client.getTable("db", "t1").getOwner());
+    // HMS names are case-insensitive
+    assertEquals("owner1", client.getTable("DB", "T1").getOwner());
+    assertEquals(1, getTableCalls.get());
+    assertEquals(1, client.getCache().getHits());
+    assertEquals(1, client.getCache().getMisses());
+  }
+
+  @Test
+  public void testInvalidateOnWrite() throws Exception {
+    mockTables();
+    when(delegate.alterTable(anyString(), anyString(), any(Table.class))).thenReturn(true);
+    when(delegate.dropTable(anyString(), anyString(), anyBoolean())).thenReturn(true);
+    client.getTable("db", "t1");
+    client.alterTable("db", "t1", createTable("db", "t1", "new_owner"));
+    assertEquals("owner2", client.getTable("db", "t1").getOwner());
+    client.dropTable("db", "t1", false);
+    assertEquals("owner3", client.getTable("db", "t1").getOwner());
+    assertEquals(3, getTableCalls.get());
+  }
+
+  @Test
+  public void testInvalidateOnFailedWrite() throws Exception {
+    mockTables();
+    when(delegate.alterTable(anyString(), anyString(), any(Table.class))).thenThrow(new RuntimeException("failed"));
+    client.getTable("db", "t1");
+    try {
+      client.alterTable("db", "t1", createTable("db", "t1", "new_owner"));
+    }
+    catch (RuntimeException e) {
+      // the write might have been applied before it failed
+    }
+    assertEquals("owner2", client.getTable("db", "t1").getOwner());
+  }
+
+  @Test
+  public void testInvalidateTablesOfDroppedDatabase() throws Exception {
+    mockTables();
+    when(delegate.getDatabase(anyString())).thenReturn(new Database("db", null, null, null));
+    when(delegate.dropDatabase(anyString())).thenReturn(true);
+    client.getDatabase("db");
+    client.getTable("db", "t1");
+    client.dropDatabase("db");
+    client.getTable("db", "t1");
+    assertEquals(2, getTableCalls.get());
+  }
+
+  @Test
+  public void testReturnCopies() throws Exception {
+    mockTables();
+    Table table = client.getTable("db", "t1");
+    table.setOwner("changed");
+    assertEquals("owner1", client.getTable("db", "t1").getOwner());
+    List<Table> tables = client.getTablesByNames("db", Collections.singletonList("t1"));
+    tables.get(0).setOwner("changed");
+    assertEquals("owner1", client.getTable("db", "t1").getOwner());
+  }
+
+  @Test
+  public void testFetchOnlyUncachedTables() throws Exception {
+    mockTables();
+    client.getTable("db", "t2");
+    List<Table> tables = client.getTablesByNames("db", Arrays.asList("t1", "T2", "missing", "t3"));
+    // only the tables that are not cached are fetched, in one call
+    assertEquals(Collections.singletonList(Arrays.asList("t1", "missing", "t3")), fetchedNames);
+    // in the order of the names, without the missing table
+    assertEquals(3, tables.size());
+    assertEquals("t1", tables.get(0).getTableName());
+    assertEquals("t2", tables.get(1).getTableName());
+    assertEquals("owner1", tables.get(1).getOwner());
+    assertEquals("t3", tables.get(2).getTableName());
+
+    // all of them are cached now
+    client.getTablesByNames("db", Arrays.asList("t1", "t2", "t3"));
+    assertEquals(1, fetchedNames.size());
+  }
+
+  @Test
+  public void testRebuildSnapshotForFirstPage() throws Exception {
+    AtomicInteger snapshotCalls = new AtomicInteger();
+    when(delegate.getPartitionNameSnapshot(anyString(), anyString(), anyBoolean())).thenAnswer(invocation -> {
+      snapshotCalls.incrementAndGet();
+      return NameSnapshot.of(Arrays.asList("dt=1", "dt=2"));
+    });
+    NameSnapshot first = client.getPartitionNameSnapshot("db", "t1", false);
+    // the continuation pages reuse the snapshot of the first page
+    assertSame(first, client.getPartitionNameSnapshot("db", "t1", true));
+    assertEquals(1, snapshotCalls.get());
+    // a new listing sees the partitions added by other clients since
+    NameSnapshot second = client.getPartitionNameSnapshot("db", "t1", false);
+    assertEquals(2, snapshotCalls.get());
+    assertSame(second, client.getPartitionNameSnapshot("db", "t1", true));
+  }
+
+  @Test
+  public void testCacheSnapshotLargerThanMetadataCache() throws Exception {
+    CachingHiveMetaStoreClient client = new CachingHiveMetaStoreClient(delegate,
+        HiveMetaStoreConf.DEFAULT_HMS_CLIENT_METADATA_CACHE_MAX_BYTES,
+        HiveMetaStoreConf.DEFAULT_HMS_CLIENT_METADATA_CACHE_PARTITION_NAMES_MAX_BYTES, TTL_MS, TTL_MS, TTL_MS);
+    mockTables();
+    client.getTable("db", "t1");
+    List<String> names = new ArrayList<>();
+    long stringBytes = 0;
+    for (int i = 0; i < 500000; i++) {
+      String name = String.format("year=%d/month=%02d/day=%02d/id=%07d", 2000 + i % 20, i % 12, i % 28, i);
+      names.add(name);
+      // a String object and its reference besides the characters
+      stringBytes += 48 + 2L * name.length();
+    }
+    // as Strings, the names alone would not fit in the cache of databases and tables
+    assertTrue(stringBytes > HiveMetaStoreConf.DEFAULT_HMS_CLIENT_METADATA_CACHE_MAX_BYTES);
+    AtomicInteger snapshotCalls = new AtomicInteger();
+    when(delegate.getPartitionNameSnapshot(anyString(), anyString(), anyBoolean())).thenAnswer(invocation -> {
+      snapshotCalls.incrementAndGet();
+      return NameSnapshot.of(names);
+    });
+    NameSnapshot snapshot = client.getPartitionNameSnapshot("db", "t1", false);
+    assertTrue(snapshot.estimateSizeBytes() < stringBytes / 2);
+    assertEquals(names.size(), snapshot.getSortedNames().size());
+    assertSame(snapshot, client.getPartitionNameSnapshot("db", "t1", true));
+    assertEquals(1, snapshotCalls.get());
+    assertEquals(1, client.getPartitionNamesCache().size());
+    // the cached table is not evicted by the names
+    client.getTable("db", "t1");
+    assertEquals(1, getTableCalls.get());
+  }
+
+  @Test
+  public void testSnapshotTooLargeToCache() throws Exception {
+    CachingHiveMetaStoreClient client = new CachingHiveMetaStoreClient(delegate, 1024 * 1024L, 16L, TTL_MS, TTL_MS, TTL_MS);
+    AtomicInteger snapshotCalls = new AtomicInteger();
+    when(delegate.getPartitionNameSnapshot(anyString(), anyString(), anyBoolean())).thenAnswer(invocation -> {
+      snapshotCalls.incrementAndGet();
+      return NameSnapshot.of(Arrays.asList("dt=1", "dt=2"));
+    });
+    client.getPartitionNameSnapshot("db", "t1", false);
+    client.getPartitionNameSnapshot("db", "t1", true);
+    assertEquals(2, snapshotCalls.get());
+    assertEquals(0, client.getPartitionNamesCache().size());
+  }
+
+  @Test
+  public void testNotifyListenersOfLocalWrites() throws Exception {
+    List<String> changes = new ArrayList<>();
+    client.addChangeListener(new MetadataChangeListener() {
+      @Override
+      public void onDatabaseChanged(String dbName) {
+        changes.add("db:" + dbName);
+      }
+
+      @Override
+      public void onTableChanged(String dbName, String tableName) {
+        changes.add("table:" + dbName + "." + tableName);
+      }
+
+      @Override
+      public void onPartitionsChanged(String dbName, String tableName) {
+        changes.add("partitions:" + dbName + "." + tableName);
+      }
+
+      @Override
+      public void onReset() {
+        changes.add("reset");
+      }
+    });
+    client.alterPartitions("db", "t1", Collections.emptyList());
+    client.dropPartitions("db", "t2", Collections.emptyList(), false, false);
+    client.dropTable("db", "t3", false);
+    client.dropDatabase("db2");
+    assertEquals(Arrays.asList("partitions:db.t1", "partitions:db.t2", "table:db.t3", "db:db2"), changes);
+  }
+
+  @Test
+  public void testPackedNames() {
+    NameSnapshot snapshot = NameSnapshot.of(Arrays.asList("k=\u00e9t\u00e9", "k=b", "", "k=a"));
+    assertEquals(Arrays.asList("", "k=a", "k=b", "k=\u00e9t\u00e9"), snapshot.getSortedNames());
+    assertEquals(NameSnapshot.of(Arrays.asList("k=a", "", "k=\u00e9t\u00e9", "k=b")).getFingerprint(),
+        snapshot.getFingerprint());
+  }
+}
@@ -0,0 +1,124 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestCircuitBreaker {
+  @Test
+  public void testOpenOnFailureRate() {
+    CircuitBreaker breaker = new CircuitBreaker(0.5, 60000L);
+    for (int i = 0; i < 10; i++) {
+      breaker.recordSuccess(breaker.allowRequest());
+      breaker.recordFailure(breaker.allowRequest());
+    }
+    assertTrue(breaker.isOpen());
+    assertNull(breaker.allowRequest());
+  }
+
+  @Test
+  public void testStayClosedBelowFailureRate() {
+    CircuitBreaker breaker = new CircuitBreaker(0.5, 60000L);
+    for (int i = 0; i < 100; i++) {
+      breaker.recordSuccess(breaker.allowRequest());
+      breaker.recordSuccess(breaker.allowRequest());
+      breaker.recordFailure(breaker.allowRequest());
+    }
+    assertFalse(breaker.isOpen());
+    assertNotNull(breaker.allowRequest());
+  }
+
+  @Test
+  public void testProbeAfterOpenPeriod() throws InterruptedException {
+    CircuitBreaker breaker = new CircuitBreaker(0.5, 10L);
+    for (int i = 0; i < 20; i++) {
+      breaker.recordFailure(breaker.allowRequest());
+    }
+    assertNull(breaker.allowRequest());
+    Thread.sleep(20L);
+    // a single probe is let through
+    CircuitBreaker.Permit probe = breaker.allowRequest();
+    assertNotNull(probe);
+    assertNull(breaker.allowRequest());
+    breaker.recordSuccess(probe);
+    assertFalse(breaker.isOpen());
+    assertNotNull(breaker.allowRequest());
+  }
+
+  @Test
+  public void testInFlightSuccessAfterOpen() throws InterruptedException {
+    CircuitBreaker breaker = new CircuitBreaker(0.5, 10L);
+    // let through before the breaker opened
+    CircuitBreaker.Permit inFlight = breaker.allowRequest();
+    for (int i = 0; i < 20; i++) {
+      breaker.recordFailure(breaker.allowRequest());
+    }
+    assertTrue(breaker.isOpen());
+    // no probe was sent, so the late success doesn't close the breaker
+    breaker.recordSuccess(inFlight);
+    assertTrue(breaker.isOpen());
+    assertNull(breaker.allowRequest());
+    Thread.sleep(20L);
+    CircuitBreaker.Permit probe = breaker.allowRequest();
+    assertNotNull(probe);
+    // nor while a probe is in flight
+    breaker.recordSuccess(inFlight);
+    assertTrue(breaker.isOpen());
+    // the failed probe keeps it open for another period
+    breaker.recordFailure(probe);
+    assertTrue(breaker.isOpen());
+    assertNull(breaker.allowRequest());
+  }
+
+  @Test
+  public void testProbeAgainAfterIgnoredProbe() throws InterruptedException {
+    CircuitBreaker breaker = new CircuitBreaker(0.5, 10L);
+    for (int i = 0; i < 20; i++) {
+      breaker.recordFailure(breaker.allowRequest());
+    }
+    Thread.sleep(20L);
+    CircuitBreaker.Permit probe = breaker.allowRequest();
+    assertNull(breaker.allowRequest());
+    // e.g., cut by the deadline of its request
+    breaker.recordIgnored(probe);
+    assertTrue(breaker.isOpen());
+    CircuitBreaker.Permit nextProbe = breaker.allowRequest();
+    assertNotNull(nextProbe);
+    // the outcome of the old probe no longer counts
+    breaker.recordSuccess(probe);
+    assertTrue(breaker.isOpen());
+    breaker.recordSuccess(nextProbe);
+    assertFalse(breaker.isOpen());
+  }
+
+  @Test
+  public void testDisabled() {
+    CircuitBreaker breaker = new CircuitBreaker(0, 60000L);
+    for (int i = 0; i < 100; i++) {
+      breaker.recordFailure(breaker.allowRequest());
+    }
+    assertNotNull(breaker.allowRequest());
+  }
+}
@@ -0,0 +1,69 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestExistenceCache {
+  @Test
+  public void testPositiveAndNegativeEntries() {
+    ExistenceCache cache = new ExistenceCache(60000L);
+    assertNull(cache.get("db1"));
+    cache.put("db1", true);
+    cache.put("db2", false);
+    assertTrue(cache.get("db1"));
+    assertFalse(cache.get("db2"));
+  }
+
+  @Test
+  public void testExpiredEntry() throws InterruptedException {
+    ExistenceCache cache = new ExistenceCache(10L);
+    cache.put("db1", true);
+    Thread.sleep(20L);
+    assertNull(cache.get("db1"));
+  }
+
+  @Test
+  public void testDisabledCache() {
+    ExistenceCache cache = new ExistenceCache(0L);
+    assertFalse(cache.isEnabled());
+    cache.put("db1", true);
+    assertNull(cache.get("db1"));
+  }
+
+  @Test
+  public void testInvalidate() {
+    ExistenceCache cache = new ExistenceCache(60000L);
+    cache.put("db1", true);
+    cache.put("db1.t1", true);
+    cache.put("db1.t2", false);
+    cache.put("db2.t1", true);
+    cache.invalidate("db1");
+    assertNull(cache.get("db1"));
+    cache.invalidateIf(key -> key.startsWith("db1."));
+    assertNull(cache.get("db1.t1"));
+    assertNull(cache.get("db1.t2"));
+    assertTrue(cache.get("db2.t1"));
+  }
+}
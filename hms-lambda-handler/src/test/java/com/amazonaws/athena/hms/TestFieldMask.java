@@ -0,0 +1,161 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestFieldMask {
+  private static Partition createPartition() {
+    StorageDescriptor sd = new StorageDescriptor();
+    sd.setLocation("s3://bucket/table/dt=2020-01-01");
+    sd.setInputFormat("org.apache.hadoop.mapred.TextInputFormat");
+    sd.setOutputFormat("org.apache.hadoop.hive.ql.io.HiveIgnoreKeyTextOutputFormat");
+    sd.setCols(new ArrayList<>(Arrays.asList(new FieldSchema("id", "bigint", "the id"),
+        new FieldSchema("name", "string", "the name"))));
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put("numRows", "10");
+    Partition partition = new Partition();
+    partition.setDbName("db");
+    partition.setTableName("table");
+    partition.setValues(new ArrayList<>(Collections.singletonList("2020-01-01")));
+    partition.setCreateTime(1577836800);
+    partition.setParameters(parameters);
+    partition.setSd(sd);
+    return partition;
+  }
+
+  @Test
+  public void testNoMaskKeepsAllFields() {
+    Partition partition = createPartition();
+    assertTrue(FieldMask.of(null).isAll());
+    assertTrue(FieldMask.of(new ArrayList<>()).isAll());
+    assertSame(partition, FieldMask.of(null).apply(partition));
+  }
+
+  @Test
+  public void testTopLevelFields() {
+    Partition partition = createPartition();
+    Partition pruned = FieldMask.of(Arrays.asList("values", "sd")).apply(partition);
+    assertEquals(partition.getValues(), pruned.getValues());
+    assertEquals(partition.getSd(), pruned.getSd());
+    assertFalse(pruned.isSetDbName());
+    assertFalse(pruned.isSetTableName());
+    assertFalse(pruned.isSetCreateTime());
+    assertFalse(pruned.isSetParameters());
+  }
+
+  @Test
+  public void testNestedPaths() {
+    Partition partition = createPartition();
+    Partition pruned = FieldMask.of(Arrays.asList("values", "sd.location", "sd.inputFormat")).apply(partition);
+    assertEquals(partition.getValues(), pruned.getValues());
+    assertEquals("s3://bucket/table/dt=2020-01-01", pruned.getSd().getLocation());
+    assertEquals("org.apache.hadoop.mapred.TextInputFormat", pruned.getSd().getInputFormat());
+    assertNull(pruned.getSd().getOutputFormat());
+    assertFalse(pruned.getSd().isSetCols());
+    assertFalse(pruned.isSetParameters());
+  }
+
+  @Test
+  public void testCollectionFields() {
+    Partition partition = createPartition();
+    Partition pruned = FieldMask.of(Arrays.asList("sd.cols.name")).apply(partition);
+    assertEquals(2, pruned.getSd().getColsSize());
+    for (FieldSchema column : pruned.getSd().getCols()) {
+      assertTrue(column.isSetName());
+      assertFalse(column.isSetType());
+      assertFalse(column.isSetComment());
+    }
+    assertEquals("id", pruned.getSd().getCols().get(0).getName());
+    assertEquals("name", pruned.getSd().getCols().get(1).getName());
+  }
+
+  @Test
+  public void testOriginalIsNotModified() {
+    Partition partition = createPartition();
+    FieldMask.of(Arrays.asList("sd.cols.name")).apply(partition);
+    assertEquals(createPartition(), partition);
+  }
+
+  @Test
+  public void testPathsAreTrimmed() {
+    Partition pruned = FieldMask.of(Arrays.asList(" values ", "sd.location ")).apply(createPartition());
+    assertTrue(pruned.isSetValues());
+    assertTrue(pruned.getSd().isSetLocation());
+  }
+
+  @Test
+  public void testUnknownField() {
+    FieldMask mask = FieldMask.of(Arrays.asList("values", "sd.locaton"));
+    try {
+      mask.apply(createPartition());
+      fail("expected an IllegalArgumentException");
+    }
+    catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("locaton"));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownTopLevelField() {
+    FieldMask.of(Arrays.asList("partitionName")).apply(createPartition());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSubFieldOfPrimitiveCollection() {
+    FieldMask.of(Arrays.asList("values.name")).apply(createPartition());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSubFieldOfScalar() {
+    FieldMask.of(Arrays.asList("dbName.name")).apply(createPartition());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyPath() {
+    FieldMask.of(Arrays.asList("values", " "));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyName() {
+    FieldMask.of(Arrays.asList("sd..location"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTrailingDot() {
+    FieldMask.of(Arrays.asList("sd."));
+  }
+}
@@ -21,7 +21,29 @@ package com.amazonaws.athena.hms;
 
 import org.junit.Test;
 
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_CLIENT_CIRCUIT_BREAKER_FAILURE_RATE;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_CLIENT_CIRCUIT_BREAKER_OPEN_MS;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_CLIENT_EXISTENCE_CACHE_TTL_MS;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_CLIENT_HEDGE_PERCENTILE;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_CLIENT_LIMITER_LATENCY_TOLERANCE;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_CLIENT_METADATA_CACHE_DATABASE_TTL_MS;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_CLIENT_METADATA_CACHE_MAX_BYTES;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_CLIENT_METADATA_CACHE_PARTITION_NAMES_MAX_BYTES;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_CLIENT_METADATA_CACHE_PARTITION_NAMES_TTL_MS;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_CLIENT_METADATA_CACHE_TABLE_TTL_MS;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_CLIENT_NOTIFICATION_POLL_INTERVAL_MS;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_CLIENT_PARALLELISM;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_CLIENT_PARTITION_BATCH_SIZE;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_CLIENT_PARTITION_WRITE_BATCH_SIZE;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_CLIENT_POOL_SIZE;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_CLIENT_POOL_VALIDATION_INTERVAL_MS;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_CLIENT_RETRY_BACKOFF_MS;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_CLIENT_RETRY_MAX_ATTEMPTS;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_DEADLINE_RESERVE_MS;
 import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_HANDLER_NAME_PREFIX;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_KERBEROS_RENEW_INTERVAL_MS;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_PAGE_PREFETCH_MAX_ENTRIES;
+import static com.amazonaws.athena.hms.HiveMetaStoreConf.DEFAULT_HMS_PAGE_PREFETCH_TTL_MS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -43,5 +65,27 @@ public class TestHiveMetaStoreConf {
     assertEquals("s3://my-hms/lambda/functions/spill", conf.getResponseSpillLocation());
     assertEquals(4194304L, conf.getResponseSpillThreshold());
     assertEquals(DEFAULT_HMS_HANDLER_NAME_PREFIX, conf.getHandlerNamePrefix());
+    assertEquals(DEFAULT_HMS_CLIENT_POOL_SIZE, conf.getClientPoolSize());
+    assertEquals(DEFAULT_HMS_CLIENT_POOL_VALIDATION_INTERVAL_MS, conf.getClientPoolValidationIntervalMs());
+    assertEquals(DEFAULT_HMS_CLIENT_RETRY_MAX_ATTEMPTS, conf.getClientRetryMaxAttempts());
+    assertEquals(DEFAULT_HMS_CLIENT_RETRY_BACKOFF_MS, conf.getClientRetryBackoffMs());
+    assertEquals(DEFAULT_HMS_CLIENT_PARALLELISM, conf.getClientParallelism());
+    assertEquals(DEFAULT_HMS_CLIENT_PARTITION_BATCH_SIZE, conf.getClientPartitionBatchSize());
+    assertEquals(DEFAULT_HMS_CLIENT_EXISTENCE_CACHE_TTL_MS, conf.getClientExistenceCacheTtlMs());
+    assertEquals(DEFAULT_HMS_KERBEROS_RENEW_INTERVAL_MS, conf.getKerberosRenewIntervalMs());
+    assertEquals(DEFAULT_HMS_DEADLINE_RESERVE_MS, conf.getDeadlineReserveMs());
+    assertEquals(DEFAULT_HMS_CLIENT_HEDGE_PERCENTILE, conf.getClientHedgePercentile(), 0.0);
+    assertEquals(DEFAULT_HMS_CLIENT_PARTITION_WRITE_BATCH_SIZE, conf.getClientPartitionWriteBatchSize());
+    assertEquals(DEFAULT_HMS_CLIENT_LIMITER_LATENCY_TOLERANCE, conf.getClientLimiterLatencyTolerance(), 0.0);
+    assertEquals(DEFAULT_HMS_CLIENT_CIRCUIT_BREAKER_FAILURE_RATE, conf.getClientCircuitBreakerFailureRate(), 0.0);
+    assertEquals(DEFAULT_HMS_CLIENT_CIRCUIT_BREAKER_OPEN_MS, conf.getClientCircuitBreakerOpenMs());
+    assertEquals(DEFAULT_HMS_CLIENT_NOTIFICATION_POLL_INTERVAL_MS, conf.getClientNotificationPollIntervalMs());
+    assertEquals(DEFAULT_HMS_CLIENT_METADATA_CACHE_MAX_BYTES, conf.getClientMetadataCacheMaxBytes());
+    assertEquals(DEFAULT_HMS_CLIENT_METADATA_CACHE_DATABASE_TTL_MS, conf.getClientMetadataCacheDatabaseTtlMs());
+    assertEquals(DEFAULT_HMS_CLIENT_METADATA_CACHE_TABLE_TTL_MS, conf.getClientMetadataCacheTableTtlMs());
+    assertEquals(DEFAULT_HMS_CLIENT_METADATA_CACHE_PARTITION_NAMES_TTL_MS, conf.getClientMetadataCachePartitionNamesTtlMs());
+    assertEquals(DEFAULT_HMS_CLIENT_METADATA_CACHE_PARTITION_NAMES_MAX_BYTES, conf.getClientMetadataCachePartitionNamesMaxBytes());
+    assertEquals(DEFAULT_HMS_PAGE_PREFETCH_MAX_ENTRIES, conf.getPagePrefetchMaxEntries());
+    assertEquals(DEFAULT_HMS_PAGE_PREFETCH_TTL_MS, conf.getPagePrefetchTtlMs());
   }
 }
@@ -0,0 +1,113 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import com.amazonaws.athena.hms.handler.ListPartitionsHandler;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.thrift.TDeserializer;
+import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TJSONProtocol;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestListPartitionsHandler {
+  private static Partition createPartition(String dt, String hr) {
+    Partition partition = new Partition();
+    partition.setDbName("default");
+    partition.setTableName("test");
+    partition.setValues(Arrays.asList(dt, hr));
+    return partition;
+  }
+
+  @Test
+  public void testCutPageByBytesWithoutFetchingTable() throws TException {
+    HiveMetaStoreClient client = mock(HiveMetaStoreClient.class);
+    when(client.getPartitionNameSnapshot(anyString(), anyString(), anyBoolean())).thenReturn(
+        NameSnapshot.of(Arrays.asList("dt=1/hr=0", "dt=1/hr=1", "dt=2/hr=0")));
+    // HMS returns the partitions in any order
+    when(client.getPartitionsByNames(anyString(), anyString(), anyListOf(String.class))).thenReturn(
+        Arrays.asList(createPartition("2", "0"), createPartition("1", "1"), createPartition("1", "0")));
+    // the partition keys come from the partition names
+    when(client.getTable(anyString(), anyString())).thenThrow(new RuntimeException("the table should not be fetched"));
+    ListPartitionsHandler handler = new ListPartitionsHandler(HiveMetaStoreConf.load(), client);
+    ListPartitionsRequest request = new ListPartitionsRequest();
+    request.setDbName("default");
+    request.setTableName("test");
+    request.setMaxSize((short) 10);
+    request.setMaxBytes(1024 * 1024L);
+    Context context = mock(Context.class);
+    when(context.getLogger()).thenReturn(mock(LambdaLogger.class));
+    ListPartitionsResponse response = handler.handleRequest(request, context);
+    assertNull(response.getNextToken());
+    // in the order of the names
+    TDeserializer deserializer = new TDeserializer(new TJSONProtocol.Factory());
+    List<List<String>> values = new ArrayList<>();
+    for (String json : response.getPartitions()) {
+      Partition partition = new Partition();
+      deserializer.fromString(partition, json);
+      values.add(partition.getValues());
+    }
+    assertEquals(Arrays.asList(Arrays.asList("1", "0"), Arrays.asList("1", "1"), Arrays.asList("2", "0")), values);
+  }
+
+  @Test
+  public void testFailOnUnrequestedPartition() throws TException {
+    HiveMetaStoreClient client = mock(HiveMetaStoreClient.class);
+    when(client.getPartitionNameSnapshot(anyString(), anyString(), anyBoolean())).thenReturn(
+        NameSnapshot.of(Collections.singletonList("dt=1/hr=0")));
+    when(client.getPartitionsByNames(anyString(), anyString(), anyListOf(String.class))).thenReturn(
+        Collections.singletonList(createPartition("1", "1")));
+    ListPartitionsHandler handler = new ListPartitionsHandler(HiveMetaStoreConf.load(), client);
+    ListPartitionsRequest request = new ListPartitionsRequest();
+    request.setDbName("default");
+    request.setTableName("test");
+    request.setMaxSize((short) 10);
+    request.setMaxBytes(1024 * 1024L);
+    Context context = mock(Context.class);
+    when(context.getLogger()).thenReturn(mock(LambdaLogger.class));
+    try {
+      handler.handleRequest(request, context);
+      fail("expected a RuntimeException");
+    }
+    catch (RuntimeException e) {
+      // rather than leaving the partition out of the page
+      assertTrue(e.getCause().getMessage().contains("dt=1/hr=1 which is not one of the requested names"));
+    }
+  }
+}
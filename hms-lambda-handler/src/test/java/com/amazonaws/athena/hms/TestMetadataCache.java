@@ -0,0 +1,104 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class TestMetadataCache
+{
+  @Test
+  public void testHitsAndMisses()
+  {
+    MetadataCache<String> cache = new MetadataCache<>(100L);
+    assertNull(cache.get("db1"));
+    cache.put("db1", "database1", 10L, 60000L);
+    assertEquals("database1", cache.get("db1"));
+    assertEquals(1L, cache.getHits());
+    assertEquals(1L, cache.getMisses());
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsedBySize()
+  {
+    MetadataCache<String> cache = new MetadataCache<>(100L);
+    cache.put("db1.t1", "table1", 40L, 60000L);
+    cache.put("db1.t2", "table2", 40L, 60000L);
+    // t1 becomes the most recently used so that t2 is evicted
+    assertEquals("table1", cache.get("db1.t1"));
+    cache.put("db1.t3", "table3", 30L, 60000L);
+    assertNull(cache.get("db1.t2"));
+    assertEquals("table1", cache.get("db1.t1"));
+    assertEquals("table3", cache.get("db1.t3"));
+    assertEquals(70L, cache.getSizeBytes());
+    assertEquals(1L, cache.getEvictions());
+    // an object larger than the cache is not cached and evicts nothing
+    cache.put("db1.t4", "table4", 200L, 60000L);
+    assertNull(cache.get("db1.t4"));
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void testReplaceEntry()
+  {
+    MetadataCache<String> cache = new MetadataCache<>(100L);
+    cache.put("db1", "database1", 60L, 60000L);
+    cache.put("db1", "database1v2", 70L, 60000L);
+    assertEquals("database1v2", cache.get("db1"));
+    assertEquals(70L, cache.getSizeBytes());
+  }
+
+  @Test
+  public void testExpiredEntry() throws InterruptedException
+  {
+    MetadataCache<String> cache = new MetadataCache<>(100L);
+    cache.put("db1", "database1", 10L, 10L);
+    Thread.sleep(20L);
+    assertNull(cache.get("db1"));
+    assertEquals(0L, cache.getSizeBytes());
+  }
+
+  @Test
+  public void testDisabledCache()
+  {
+    MetadataCache<String> cache = new MetadataCache<>(0L);
+    assertFalse(cache.isEnabled());
+    cache.put("db1", "database1", 10L, 60000L);
+    assertNull(cache.get("db1"));
+  }
+
+  @Test
+  public void testInvalidate()
+  {
+    MetadataCache<String> cache = new MetadataCache<>(100L);
+    cache.put("db1", "database1", 10L, 60000L);
+    cache.put("db1.t1", "table1", 10L, 60000L);
+    cache.put("db2.t1", "table1", 10L, 60000L);
+    cache.invalidate("db1");
+    cache.invalidateIf(key -> key.startsWith("db1."));
+    assertNull(cache.get("db1"));
+    assertNull(cache.get("db1.t1"));
+    assertEquals("table1", cache.get("db2.t1"));
+    assertEquals(10L, cache.getSizeBytes());
+  }
+}
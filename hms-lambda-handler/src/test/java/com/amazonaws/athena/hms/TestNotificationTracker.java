@@ -0,0 +1,153 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.apache.hadoop.hive.metastore.api.NotificationEvent;
+import org.apache.thrift.TException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestNotificationTracker {
+  // a notification log with the events in memory
+  private static class Log implements NotificationTracker.Source {
+    private final List<NotificationEvent> events = new ArrayList<>();
+    private long nextEventId = 1;
+
+    void add(String eventType, String dbName, String tableName) {
+      NotificationEvent event = new NotificationEvent();
+      event.setEventId(nextEventId++);
+      event.setEventType(eventType);
+      event.setDbName(dbName);
+      event.setTableName(tableName);
+      events.add(event);
+    }
+
+    @Override
+    public long getCurrentEventId() {
+      return nextEventId - 1;
+    }
+
+    @Override
+    public List<NotificationEvent> getNextEvents(long lastEventId, int maxEvents) {
+      List<NotificationEvent> result = new ArrayList<>();
+      for (NotificationEvent event : events) {
+        if (event.getEventId() > lastEventId && result.size() < maxEvents) {
+          result.add(event);
+        }
+      }
+      return result;
+    }
+  }
+
+  private static class RecordingListener implements MetadataChangeListener {
+    private final List<String> changes = new ArrayList<>();
+
+    @Override
+    public void onDatabaseChanged(String dbName) {
+      changes.add("db:" + dbName);
+    }
+
+    @Override
+    public void onTableChanged(String dbName, String tableName) {
+      changes.add("table:" + dbName + "." + tableName);
+    }
+
+    @Override
+    public void onPartitionsChanged(String dbName, String tableName) {
+      changes.add("partitions:" + dbName + "." + tableName);
+    }
+
+    @Override
+    public void onReset() {
+      changes.add("reset");
+    }
+  }
+
+  @Test
+  public void testInvalidateChangedObjects() throws TException {
+    Log log = new Log();
+    log.add("CREATE_TABLE", "db1", "t0");
+    NotificationTracker tracker = new NotificationTracker(log, 1L);
+    RecordingListener listener = new RecordingListener();
+    tracker.addListener(listener);
+    // the first poll starts from the current event
+    tracker.poll();
+    assertEquals(1, tracker.getLastEventId());
+    assertEquals(0, listener.changes.size());
+
+    log.add("CREATE_DATABASE", "db2", null);
+    log.add("ALTER_TABLE", "db1", "t1");
+    log.add("ADD_PARTITION", "db1", "t2");
+    log.add("CREATE_FUNCTION", "db1", null);
+    sleep(5L);
+    tracker.poll();
+    assertEquals(5, tracker.getLastEventId());
+    assertEquals(3, listener.changes.size());
+    assertEquals("db:db2", listener.changes.get(0));
+    // an alter could be a rename, which changes another table of the database as well
+    assertEquals("db:db1", listener.changes.get(1));
+    assertEquals("partitions:db1.t2", listener.changes.get(2));
+  }
+
+  @Test
+  public void testResetOnMissedEvents() throws TException {
+    Log log = new Log();
+    NotificationTracker tracker = new NotificationTracker(log, 1L);
+    RecordingListener listener = new RecordingListener();
+    tracker.addListener(listener);
+    tracker.poll();
+    log.add("DROP_TABLE", "db1", "t1");
+    log.add("DROP_TABLE", "db1", "t2");
+    // HMS cleaned up the first event
+    log.events.remove(0);
+    sleep(5L);
+    tracker.poll();
+    assertEquals(2, listener.changes.size());
+    assertEquals("reset", listener.changes.get(0));
+    assertEquals("table:db1.t2", listener.changes.get(1));
+  }
+
+  @Test
+  public void testPollInterval() throws TException {
+    Log log = new Log();
+    NotificationTracker tracker = new NotificationTracker(log, 60000L);
+    RecordingListener listener = new RecordingListener();
+    tracker.addListener(listener);
+    tracker.poll();
+    log.add("DROP_TABLE", "db1", "t1");
+    // too early to poll again
+    tracker.poll();
+    assertEquals(0, listener.changes.size());
+    assertEquals(0, tracker.getLastEventId());
+  }
+
+  private static void sleep(long ms) {
+    try {
+      Thread.sleep(ms);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -23,15 +23,22 @@ import org.apache.thrift.TException;
 
 import org.junit.Test;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -97,7 +104,7 @@ public class TestPaginator {
     StringPaginator paginator = new StringPaginator(getData(9));
     PaginatedResponse<String> result = paginator.paginateByNames(null, (short) 4);
     assertNotNull(result);
-    assertEquals(Paginator.encrypt("k4"), result.getNextToken());
+    assertEquals("k4", Paginator.decrypt(result.getNextToken()));
     assertNotNull(result.getEntries());
     List<String> list = result.getEntries();
     assertEquals(4, list.size());
@@ -106,7 +113,7 @@ public class TestPaginator {
     }
     result = paginator.paginateByNames(result.getNextToken(), (short) 4);
     assertNotNull(result);
-    assertEquals(Paginator.encrypt("k8"), result.getNextToken());
+    assertEquals("k8", Paginator.decrypt(result.getNextToken()));
     assertNotNull(result.getEntries());
     list = result.getEntries();
     assertEquals(4, list.size());
@@ -160,6 +167,393 @@ public class TestPaginator {
     }
   }
 
+  @Test
+  public void testPartialPageAtDeadline() throws TException {
+    // the deadline passes after the first batch of 2 entries
+    StringPaginator paginator = new StringPaginator(getData(9)) {
+      private int calls = 0;
+
+      @Override
+      protected int getBatchSize() {
+        return 2;
+      }
+
+      @Override
+      protected List<String> getEntriesByNames(List<String> names) throws TException {
+        if (calls++ > 0) {
+          throw new DeadlineExceededException("timeout");
+        }
+        return super.getEntriesByNames(names);
+      }
+    };
+    Deadline.set(Deadline.after(60000L));
+    try {
+      PaginatedResponse<String> result = paginator.paginateByNames(null, (short) 6);
+      assertEquals(2, result.getEntries().size());
+      assertEquals("v0", result.getEntries().get(0));
+      assertEquals("v1", result.getEntries().get(1));
+      // continue from the first entry that was not fetched
+      assertEquals("k2", Paginator.decrypt(result.getNextToken()));
+    }
+    finally {
+      Deadline.clear();
+    }
+  }
+
+  @Test
+  public void testFullPageInBatchesWithDeadline() throws TException {
+    StringPaginator paginator = new StringPaginator(getData(9)) {
+      @Override
+      protected int getBatchSize() {
+        return 2;
+      }
+    };
+    Deadline.set(Deadline.after(60000L));
+    try {
+      PaginatedResponse<String> result = paginator.paginateByNames(null, (short) 5);
+      assertEquals(5, result.getEntries().size());
+      assertEquals("k5", Paginator.decrypt(result.getNextToken()));
+    }
+    finally {
+      Deadline.clear();
+    }
+  }
+
+  @Test
+  public void testConcurrentWavesWithDeadline() throws TException {
+    List<Integer> callSizes = new ArrayList<>();
+    StringPaginator paginator = new StringPaginator(getData(20)) {
+      @Override
+      protected int getBatchSize() {
+        return 2;
+      }
+
+      @Override
+      protected int getConcurrency() {
+        return 4;
+      }
+
+      @Override
+      protected List<String> getEntriesByNames(List<String> names) throws TException {
+        callSizes.add(names.size());
+        return super.getEntriesByNames(names);
+      }
+    };
+    Deadline.set(Deadline.after(60000L));
+    try {
+      PaginatedResponse<String> result = paginator.paginateByNames(null, (short) 18);
+      assertEquals(18, result.getEntries().size());
+      // each call gets a wave of 4 batches for the client to fetch concurrently
+      assertEquals(Arrays.asList(8, 8, 2), callSizes);
+    }
+    finally {
+      Deadline.clear();
+    }
+  }
+
+  @Test
+  public void testFreshSnapshotForFirstPage() throws TException {
+    Map<String, String> data = getData(9);
+    List<Boolean> continuations = new ArrayList<>();
+    StringPaginator paginator = new StringPaginator(data) {
+      @Override
+      protected NameSnapshot getSnapshot(boolean continuation) {
+        continuations.add(continuation);
+        return NameSnapshot.of(data.keySet());
+      }
+    };
+    PaginatedResponse<String> result = paginator.paginateByNames(null, (short) 5);
+    paginator.paginateByNames(result.getNextToken(), (short) 5);
+    // only the continuation page could reuse a cached snapshot
+    assertEquals(Arrays.asList(false, true), continuations);
+  }
+
+  @Test
+  public void testPagesFromSnapshot() throws TException {
+    Map<String, String> data = getData(9);
+    // the names are listed and sorted once for all the pages
+    NameSnapshot snapshot = NameSnapshot.of(data.keySet());
+    StringPaginator paginator = new StringPaginator(data) {
+      @Override
+      protected Collection<String> getNames() throws TException {
+        throw new AssertionError("the names should come from the snapshot");
+      }
+
+      @Override
+      protected NameSnapshot getSnapshot(boolean continuation) {
+        return snapshot;
+      }
+    };
+    PaginatedResponse<String> result = paginator.paginateByNames(null, (short) 5);
+    assertEquals(5, result.getEntries().size());
+    assertEquals("k5", Paginator.decrypt(result.getNextToken()));
+    result = paginator.paginateByNames(result.getNextToken(), (short) 5);
+    assertEquals(4, result.getEntries().size());
+    assertEquals("v8", result.getEntries().get(3));
+    assertNull(result.getNextToken());
+  }
+
+  @Test
+  public void testTokenOfDroppedName() throws TException {
+    Map<String, String> data = getData(9);
+    StringPaginator paginator = new StringPaginator(data);
+    PaginatedResponse<String> result = paginator.paginateByNames(null, (short) 4);
+    assertEquals("k4", Paginator.decrypt(result.getNextToken()));
+    // the next page starts from the first name after the dropped one
+    data.remove("k4");
+    result = paginator.paginateByNames(result.getNextToken(), (short) 4);
+    assertEquals(4, result.getEntries().size());
+    assertEquals("v5", result.getEntries().get(0));
+    assertNull(result.getNextToken());
+    // no name is left after the token
+    result = paginator.paginateByNames(Paginator.encrypt("k9"), (short) 4);
+    assertTrue(result.getEntries().isEmpty());
+    assertNull(result.getNextToken());
+    result = paginator.paginateByNames(Paginator.encrypt("k9"), (short) -1);
+    assertTrue(result.getEntries().isEmpty());
+  }
+
+  @Test
+  public void testFindStartIndexInMillionNames() {
+    int num = 1000000;
+    List<String> names = new ArrayList<>(num);
+    for (int i = 0; i < num; i++) {
+      names.add(String.format("dt=%07d", i * 2));
+    }
+    // counts the names compared with the cursor
+    AtomicInteger probes = new AtomicInteger();
+    List<String> sortedNames = new CountingList(names, probes);
+    assertEquals(0, Paginator.findStartIndex(sortedNames, "dt="));
+    assertEquals(num, Paginator.findStartIndex(sortedNames, "dt=9999999"));
+    // resolve the cursors of all the 1000 pages of 1000 names, each of them would be a scan
+    // of half a million names on average with List.indexOf
+    for (int i = 0; i < num; i += 1000) {
+      probes.set(0);
+      assertEquals(i, Paginator.findStartIndex(sortedNames, names.get(i)));
+      // a binary search, i.e., at most log2(num) + 1 names
+      assertTrue(probes.get() <= 21);
+      probes.set(0);
+      // the odd names were dropped
+      assertEquals(i + 1, Paginator.findStartIndex(sortedNames, String.format("dt=%07d", i * 2 + 1)));
+      assertTrue(probes.get() <= 21);
+    }
+  }
+
+  private static class CountingList extends AbstractList<String> implements RandomAccess {
+    private final List<String> names;
+    private final AtomicInteger probes;
+
+    private CountingList(List<String> names, AtomicInteger probes) {
+      this.names = names;
+      this.probes = probes;
+    }
+
+    @Override
+    public String get(int index) {
+      probes.incrementAndGet();
+      return names.get(index);
+    }
+
+    @Override
+    public int size() {
+      return names.size();
+    }
+  }
+
+  @Test
+  public void testVersionedToken() throws TException {
+    NameSnapshot snapshot = new NameSnapshot(getData(9).keySet(), 42L);
+    String token = PageToken.of(snapshot, 4).encode();
+    PageToken pageToken = PageToken.decode(token);
+    assertEquals("k4", pageToken.getName());
+    assertEquals(4, pageToken.getPosition());
+    assertEquals(42L, pageToken.getSnapshotVersion());
+    assertEquals(snapshot.getFingerprint(), pageToken.getSnapshotFingerprint());
+    // a snapshot of the same names in another container
+    assertEquals(4, pageToken.positionIn(new NameSnapshot(getData(9).keySet(), 43L)));
+    // the names changed
+    assertEquals(-1, pageToken.positionIn(new NameSnapshot(getData(10).keySet(), 43L)));
+  }
+
+  @Test
+  public void testVersionedTokenAfterNamesChanged() throws TException {
+    Map<String, String> data = getData(9);
+    StringPaginator paginator = new StringPaginator(data);
+    PaginatedResponse<String> result = paginator.paginateByNames(null, (short) 4);
+    String token = result.getNextToken();
+    assertEquals("k4", Paginator.decrypt(token));
+    // a name is added before the token, the position is stale and the name is searched instead
+    data.put("k10", "v10");
+    result = paginator.paginateByNames(token, (short) 4);
+    assertEquals("v4", result.getEntries().get(0));
+    assertEquals("k8", Paginator.decrypt(result.getNextToken()));
+    // a version 1 token is still accepted
+    result = paginator.paginateByNames(Paginator.encrypt("k4"), (short) 4);
+    assertEquals("v4", result.getEntries().get(0));
+  }
+
+  @Test
+  public void testPagesCutByBytes() throws TException {
+    Map<String, String> data = getData(9);
+    // v3 is much larger than the other entries
+    data.put("k3", "v3-0123456789");
+    StringPaginator paginator = new StringPaginator(data) {
+      @Override
+      protected int getBatchSize() {
+        return 2;
+      }
+    };
+    // each entry of 2 characters takes 5 bytes in the response
+    PaginatedResponse<String> result = paginator.paginateByNames(null, (short) 6, 12L, String::toUpperCase);
+    assertEquals(2, result.getEntries().size());
+    assertEquals("V0", result.getEntries().get(0));
+    assertEquals("k2", Paginator.decrypt(result.getNextToken()));
+    result = paginator.paginateByNames(result.getNextToken(), (short) 6, 12L, String::toUpperCase);
+    assertEquals(1, result.getEntries().size());
+    assertEquals("k3", Paginator.decrypt(result.getNextToken()));
+    // a page has at least one entry even if it is over the limit
+    result = paginator.paginateByNames(result.getNextToken(), (short) 6, 12L, String::toUpperCase);
+    assertEquals(1, result.getEntries().size());
+    assertEquals("V3-0123456789", result.getEntries().get(0));
+    // the entries dropped since the names were listed are skipped
+    data.remove("k5");
+    result = paginator.paginateByNames(result.getNextToken(), (short) 6, 12L, String::toUpperCase);
+    assertEquals(2, result.getEntries().size());
+    assertEquals("V6", result.getEntries().get(1));
+    assertEquals("k7", Paginator.decrypt(result.getNextToken()));
+    // no byte limit
+    result = paginator.paginateByNames(result.getNextToken(), (short) 6, 0L, String::toUpperCase);
+    assertEquals(2, result.getEntries().size());
+    assertNull(result.getNextToken());
+  }
+
+  @Test
+  public void testPrefetchNextPage() throws TException {
+    Map<String, String> data = getData(9);
+    PagePrefetcher<String> prefetcher = new PagePrefetcher<>(100, 60000L);
+    StringPaginator paginator = new StringPaginator(data);
+    paginator.setPrefetcher(prefetcher, "data");
+    PaginatedResponse<String> result = paginator.paginateByNames(null, (short) 4);
+    assertEquals("k4", Paginator.decrypt(result.getNextToken()));
+    // the next invocation takes the prefetched page instead of fetching it
+    StringPaginator nextPaginator = new StringPaginator(data) {
+      @Override
+      protected List<String> getEntriesByNames(List<String> names) throws TException {
+        assertFalse(names.contains("k4"));
+        return super.getEntriesByNames(names);
+      }
+    };
+    nextPaginator.setPrefetcher(prefetcher, "data");
+    result = nextPaginator.paginateByNames(result.getNextToken(), (short) 4);
+    assertEquals(4, result.getEntries().size());
+    assertEquals("v4", result.getEntries().get(0));
+    assertEquals(1L, prefetcher.getHits());
+    // a page of other names is fetched
+    result = nextPaginator.paginateByNames(Paginator.encrypt("k5"), (short) 4);
+    assertEquals("v5", result.getEntries().get(0));
+    assertEquals(1L, prefetcher.getHits());
+    prefetcher.shutdown();
+  }
+
+  @Test
+  public void testSkipPrefetchWhenBusy() throws TException {
+    Map<String, String> data = getData(9);
+    PagePrefetcher<String> prefetcher = new PagePrefetcher<>(100, 60000L);
+    StringPaginator paginator = new StringPaginator(data) {
+      @Override
+      protected boolean isBusy() {
+        return true;
+      }
+    };
+    paginator.setPrefetcher(prefetcher, "data");
+    PaginatedResponse<String> result = paginator.paginateByNames(null, (short) 4);
+    // nothing was prefetched for the next page
+    StringPaginator nextPaginator = new StringPaginator(data);
+    nextPaginator.setPrefetcher(prefetcher, "data");
+    result = nextPaginator.paginateByNames(result.getNextToken(), (short) 4);
+    assertEquals("v4", result.getEntries().get(0));
+    assertEquals(0L, prefetcher.getHits());
+    assertEquals(1L, prefetcher.getMisses());
+    prefetcher.shutdown();
+  }
+
+  @Test
+  public void testPrefetchWithDeadline() throws TException {
+    Map<String, String> data = getData(9);
+    PagePrefetcher<String> prefetcher = new PagePrefetcher<>(100, 60000L);
+    List<Long> remainingMillis = new ArrayList<>();
+    StringPaginator paginator = new StringPaginator(data) {
+      @Override
+      protected List<String> getEntriesByNames(List<String> names) throws TException {
+        Deadline deadline = Deadline.current();
+        synchronized (remainingMillis) {
+          remainingMillis.add(deadline == null ? -1L : deadline.getRemainingMillis());
+        }
+        return super.getEntriesByNames(names);
+      }
+    };
+    paginator.setPrefetcher(prefetcher, "data");
+    PaginatedResponse<String> result = paginator.paginateByNames(null, (short) 4);
+    assertEquals("v4", prefetcher.take("data\n" + result.getNextToken(),
+        Arrays.asList("k4", "k5", "k6", "k7")).get(0));
+    // the page itself has no deadline, the prefetch is bounded by the TTL
+    assertEquals(2, remainingMillis.size());
+    assertEquals(-1L, (long) remainingMillis.get(0));
+    assertTrue(remainingMillis.get(1) > 0L && remainingMillis.get(1) <= 60000L);
+    prefetcher.shutdown();
+  }
+
+  @Test
+  public void testNoPrefetchAfterShutdown() throws TException {
+    Map<String, String> data = getData(9);
+    PagePrefetcher<String> prefetcher = new PagePrefetcher<>(100, 60000L);
+    prefetcher.prefetch("data\nk0", Arrays.asList("k0"), () -> Arrays.asList("v0"));
+    prefetcher.shutdown();
+    assertNull(prefetcher.take("data\nk0", Arrays.asList("k0")));
+    StringPaginator paginator = new StringPaginator(data);
+    paginator.setPrefetcher(prefetcher, "data");
+    PaginatedResponse<String> result = paginator.paginateByNames(null, (short) 4);
+    assertNull(prefetcher.take("data\n" + result.getNextToken(), Arrays.asList("k4", "k5", "k6", "k7")));
+    assertEquals(0L, prefetcher.getHits());
+  }
+
+  @Test
+  public void testCancelPrefetchOfOtherNames() throws InterruptedException {
+    PagePrefetcher<String> prefetcher = new PagePrefetcher<>(100, 60000L);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    prefetcher.prefetch("data\nk4", Arrays.asList("k4", "k5"), () -> {
+      started.countDown();
+      try {
+        // a slow HMS call
+        Thread.sleep(60000L);
+      }
+      catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+      return Arrays.asList("v4", "v5");
+    });
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    // the names changed since the prefetch started
+    assertNull(prefetcher.take("data\nk4", Arrays.asList("k4", "k6")));
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    prefetcher.shutdown();
+  }
+
+  @Test
+  public void testInvalidatePrefetches() {
+    PagePrefetcher<String> prefetcher = new PagePrefetcher<>(100, 60000L);
+    prefetcher.prefetch("db.t1\nk0", Arrays.asList("k0"), () -> Arrays.asList("v0"));
+    prefetcher.prefetch("db.t10\nk0", Arrays.asList("k0"), () -> Arrays.asList("v0"));
+    prefetcher.prefetch("db.t2\nk0", Arrays.asList("k0"), () -> Arrays.asList("v0"));
+    prefetcher.invalidate("db.t1\n");
+    assertNull(prefetcher.take("db.t1\nk0", Arrays.asList("k0")));
+    assertEquals(Arrays.asList("v0"), prefetcher.take("db.t10\nk0", Arrays.asList("k0")));
+    prefetcher.invalidateAll();
+    assertNull(prefetcher.take("db.t2\nk0", Arrays.asList("k0")));
+    prefetcher.shutdown();
+  }
+
   @Test
   public void testEncrypDecrypt() {
     String original = "";
@@ -201,5 +595,10 @@ public class TestPaginator {
 
       return list;
     }
+
+    @Override
+    protected String getName(String entry) {
+      return "k" + entry.substring(1).split("-")[0];
+    }
   }
 }
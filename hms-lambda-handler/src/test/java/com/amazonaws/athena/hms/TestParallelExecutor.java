@@ -0,0 +1,165 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.apache.thrift.TException;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestParallelExecutor {
+  @Test
+  public void testEmptyInputs() throws TException {
+    ParallelExecutor executor = new ParallelExecutor(4);
+    assertTrue(executor.map(new ArrayList<String>(), s -> s).isEmpty());
+    assertTrue(executor.map(null, s -> s).isEmpty());
+    executor.shutdown();
+  }
+
+  @Test
+  public void testResultsKeepInputOrder() throws TException {
+    ParallelExecutor executor = new ParallelExecutor(4);
+    List<Integer> inputs = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      inputs.add(i);
+    }
+    List<String> results = executor.map(inputs, i -> {
+      try {
+        // finish the tasks out of order
+        Thread.sleep(50 - i);
+      }
+      catch (InterruptedException e) {
+        throw new TException(e);
+      }
+      return "v" + i;
+    });
+    assertEquals(50, results.size());
+    for (int i = 0; i < 50; i++) {
+      assertEquals("v" + i, results.get(i));
+    }
+    executor.shutdown();
+  }
+
+  @Test
+  public void testConcurrencyIsBounded() throws TException {
+    ParallelExecutor executor = new ParallelExecutor(3);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    List<Integer> inputs = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      inputs.add(i);
+    }
+    executor.map(inputs, i -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(5);
+      }
+      catch (InterruptedException e) {
+        throw new TException(e);
+      }
+      running.decrementAndGet();
+      return i;
+    });
+    assertTrue(maxRunning.get() <= 3);
+    executor.shutdown();
+  }
+
+  @Test
+  public void testFailFast() {
+    ParallelExecutor executor = new ParallelExecutor(2);
+    AtomicInteger calls = new AtomicInteger();
+    List<Integer> inputs = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      inputs.add(i);
+    }
+    try {
+      executor.map(inputs, i -> {
+        calls.incrementAndGet();
+        if (i == 1) {
+          throw new TException("failed " + i);
+        }
+        try {
+          // the other worker blocks until the failure cancels it, so it cannot process all the
+          // inputs before the failing one is reached
+          Thread.sleep(60000L);
+        }
+        catch (InterruptedException e) {
+          throw new TException(e);
+        }
+        return i;
+      });
+      fail("expected a TException");
+    }
+    catch (TException e) {
+      assertEquals("failed 1", e.getMessage());
+    }
+    // the remaining inputs are not processed after the first failure
+    assertEquals(2, calls.get());
+    executor.shutdown();
+  }
+
+  @Test
+  public void testInterruptRunningTasksOnFailure() throws InterruptedException {
+    ParallelExecutor executor = new ParallelExecutor(2);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    List<Integer> inputs = new ArrayList<>();
+    inputs.add(0);
+    inputs.add(1);
+    try {
+      executor.map(inputs, i -> {
+        if (i == 0) {
+          started.countDown();
+          try {
+            // a slow call which would hold up the caller if it was not cancelled
+            Thread.sleep(60000L);
+          }
+          catch (InterruptedException e) {
+            interrupted.countDown();
+          }
+          return i;
+        }
+        try {
+          started.await();
+        }
+        catch (InterruptedException e) {
+          throw new TException(e);
+        }
+        throw new TException("failed " + i);
+      });
+      fail("expected a TException");
+    }
+    catch (TException e) {
+      assertEquals("failed 1", e.getMessage());
+    }
+    // the failure is thrown without waiting for the slow task, which is interrupted
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,70 @@
+/*-
+ * #%L
+ * hms-lambda-handler
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestPartitionValues
+{
+  private final List<List<String>> rows = Arrays.asList(
+      Arrays.asList("2020-01-02", "10", "us"),
+      Arrays.asList("2020-01-01", "9", "us"),
+      Arrays.asList("2020-01-01", "10", "eu"),
+      Arrays.asList("2020-01-01", "__HIVE_DEFAULT_PARTITION__", "us"),
+      Arrays.asList("2020-01-01", "9", "eu"));
+  private final List<String> types = Arrays.asList("string", "int", "string");
+
+  @Test
+  public void testSelectAllKeys()
+  {
+    List<List<String>> result = PartitionValues.select(rows, new int[] {0, 1, 2}, types, true, true, -1);
+    assertEquals(Arrays.asList(
+        Arrays.asList("2020-01-01", "9", "eu"),
+        Arrays.asList("2020-01-01", "9", "us"),
+        Arrays.asList("2020-01-01", "10", "eu"),
+        Arrays.asList("2020-01-01", "__HIVE_DEFAULT_PARTITION__", "us"),
+        Arrays.asList("2020-01-02", "10", "us")), result);
+  }
+
+  @Test
+  public void testSelectDistinctKeys()
+  {
+    List<List<String>> result = PartitionValues.select(rows, new int[] {1}, Arrays.asList("int"), true, false, -1);
+    assertEquals(Arrays.asList(
+        Arrays.asList("__HIVE_DEFAULT_PARTITION__"),
+        Arrays.asList("10"),
+        Arrays.asList("9")), result);
+  }
+
+  @Test
+  public void testSelectWithoutDistinct()
+  {
+    List<List<String>> result = PartitionValues.select(rows, new int[] {2, 0}, Arrays.asList("string", "string"), false, true, 3);
+    assertEquals(Arrays.asList(
+        Arrays.asList("eu", "2020-01-01"),
+        Arrays.asList("eu", "2020-01-01"),
+        Arrays.asList("us", "2020-01-01")), result);
+  }
+}
@@ -24,6 +24,8 @@ import java.util.List;
 public class AddPartitionsRequest extends ApiRequest
 {
   private List<String> partitionDescs;
+  // skip the partitions that already exist instead of failing their batch
+  private boolean ifNotExists;
 
   public List<String> getPartitionDescs()
   {
@@ -40,4 +42,20 @@ public class AddPartitionsRequest extends ApiRequest
     this.partitionDescs = partitionDescs;
     return this;
   }
+
+  public boolean isIfNotExists()
+  {
+    return ifNotExists;
+  }
+
+  public void setIfNotExists(boolean ifNotExists)
+  {
+    this.ifNotExists = ifNotExists;
+  }
+
+  public AddPartitionsRequest withIfNotExists(boolean ifNotExists)
+  {
+    this.ifNotExists = ifNotExists;
+    return this;
+  }
 }
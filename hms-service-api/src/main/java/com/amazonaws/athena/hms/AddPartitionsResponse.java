@@ -19,6 +19,26 @@
  */
 package com.amazonaws.athena.hms;
 
+import java.util.List;
+
 public class AddPartitionsResponse extends ApiResponse
 {
+  // one result per batch in the order of the partitions in the request
+  private List<PartitionBatchResult> batchResults;
+
+  public List<PartitionBatchResult> getBatchResults()
+  {
+    return batchResults;
+  }
+
+  public void setBatchResults(List<PartitionBatchResult> batchResults)
+  {
+    this.batchResults = batchResults;
+  }
+
+  public AddPartitionsResponse withBatchResults(List<PartitionBatchResult> batchResults)
+  {
+    this.batchResults = batchResults;
+    return this;
+  }
 }
@@ -26,6 +26,8 @@ public class AlterPartitionsRequest extends ApiRequest
   private String dbName;
   private String tableName;
   private List<String> partitionDescs;
+  // resume from the nextOffset of a previous response, which skips the partitions already altered
+  private int startOffset;
 
   public String getDbName()
   {
@@ -74,4 +76,20 @@ public class AlterPartitionsRequest extends ApiRequest
     this.partitionDescs = partitionDescs;
     return this;
   }
+
+  public int getStartOffset()
+  {
+    return startOffset;
+  }
+
+  public void setStartOffset(int startOffset)
+  {
+    this.startOffset = startOffset;
+  }
+
+  public AlterPartitionsRequest withStartOffset(int startOffset)
+  {
+    this.startOffset = startOffset;
+    return this;
+  }
 }
@@ -19,6 +19,45 @@
  */
 package com.amazonaws.athena.hms;
 
+import java.util.List;
+
 public class AlterPartitionsResponse extends ApiResponse
 {
+  // one result per batch in the order of the partitions in the request
+  private List<PartitionBatchResult> batchResults;
+  // the offset of the first partition that might not have been altered, to be passed as the
+  // startOffset of the next request with the same partitions, null if all of them were altered
+  private Integer nextOffset;
+
+  public List<PartitionBatchResult> getBatchResults()
+  {
+    return batchResults;
+  }
+
+  public void setBatchResults(List<PartitionBatchResult> batchResults)
+  {
+    this.batchResults = batchResults;
+  }
+
+  public AlterPartitionsResponse withBatchResults(List<PartitionBatchResult> batchResults)
+  {
+    this.batchResults = batchResults;
+    return this;
+  }
+
+  public Integer getNextOffset()
+  {
+    return nextOffset;
+  }
+
+  public void setNextOffset(Integer nextOffset)
+  {
+    this.nextOffset = nextOffset;
+  }
+
+  public AlterPartitionsResponse withNextOffset(Integer nextOffset)
+  {
+    this.nextOffset = nextOffset;
+    return this;
+  }
 }
@@ -26,6 +26,10 @@ public class DropPartitionsRequest extends ApiRequest
   private String dbName;
   private String tableName;
   private List<String> partNames;
+  // delete the data of the partitions as well
+  private boolean deleteData = true;
+  // send the dropped partitions back, which could be large
+  private boolean needResult = true;
 
   public String getDbName()
   {
@@ -74,4 +78,36 @@ public class DropPartitionsRequest extends ApiRequest
     this.partNames = partNames;
     return this;
   }
+
+  public boolean isDeleteData()
+  {
+    return deleteData;
+  }
+
+  public void setDeleteData(boolean deleteData)
+  {
+    this.deleteData = deleteData;
+  }
+
+  public DropPartitionsRequest withDeleteData(boolean deleteData)
+  {
+    this.deleteData = deleteData;
+    return this;
+  }
+
+  public boolean isNeedResult()
+  {
+    return needResult;
+  }
+
+  public void setNeedResult(boolean needResult)
+  {
+    this.needResult = needResult;
+  }
+
+  public DropPartitionsRequest withNeedResult(boolean needResult)
+  {
+    this.needResult = needResult;
+    return this;
+  }
 }
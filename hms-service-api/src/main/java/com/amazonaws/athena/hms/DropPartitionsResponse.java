@@ -22,6 +22,10 @@ package com.amazonaws.athena.hms;
 public class DropPartitionsResponse extends ApiResponse
 {
   private String result;
+  // an upper bound unless needResult was set, the partitions that did not exist are counted as well
+  private int numDropped;
+  // false if the drop ran out of time or failed part way, sending the request again resumes it
+  private boolean complete;
 
   public String getResult()
   {
@@ -32,4 +36,36 @@ public class DropPartitionsResponse extends ApiResponse
   {
     this.result = result;
   }
+
+  public int getNumDropped()
+  {
+    return numDropped;
+  }
+
+  public void setNumDropped(int numDropped)
+  {
+    this.numDropped = numDropped;
+  }
+
+  public DropPartitionsResponse withNumDropped(int numDropped)
+  {
+    this.numDropped = numDropped;
+    return this;
+  }
+
+  public boolean isComplete()
+  {
+    return complete;
+  }
+
+  public void setComplete(boolean complete)
+  {
+    this.complete = complete;
+  }
+
+  public DropPartitionsResponse withComplete(boolean complete)
+  {
+    this.complete = complete;
+    return this;
+  }
 }
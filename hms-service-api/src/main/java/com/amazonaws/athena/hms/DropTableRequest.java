@@ -23,6 +23,9 @@ public class DropTableRequest extends ApiRequest
 {
   private String dbName;
   private String tableName;
+  // drop the partitions in batches before the table instead of in the same transaction, which is
+  // not atomic: the partitions stay dropped if the table cannot be dropped afterwards
+  private boolean dropPartitionsFirst;
 
   public String getDbName()
   {
@@ -55,4 +58,20 @@ public class DropTableRequest extends ApiRequest
     this.tableName = tableName;
     return this;
   }
+
+  public boolean isDropPartitionsFirst()
+  {
+    return dropPartitionsFirst;
+  }
+
+  public void setDropPartitionsFirst(boolean dropPartitionsFirst)
+  {
+    this.dropPartitionsFirst = dropPartitionsFirst;
+  }
+
+  public DropTableRequest withDropPartitionsFirst(boolean dropPartitionsFirst)
+  {
+    this.dropPartitionsFirst = dropPartitionsFirst;
+    return this;
+  }
 }
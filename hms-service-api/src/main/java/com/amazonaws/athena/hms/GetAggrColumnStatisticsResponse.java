@@ -0,0 +1,62 @@
+/*-
+ * #%L
+ * hms-service-api
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import java.util.List;
+
+public class GetAggrColumnStatisticsResponse extends ApiResponse
+{
+  // the serialized ColumnStatisticsObj of the columns aggregated over the partitions
+  private List<String> columnStats;
+  // the number of partitions that have statistics
+  private long partsFound;
+
+  public List<String> getColumnStats()
+  {
+    return columnStats;
+  }
+
+  public void setColumnStats(List<String> columnStats)
+  {
+    this.columnStats = columnStats;
+  }
+
+  public GetAggrColumnStatisticsResponse withColumnStats(List<String> columnStats)
+  {
+    this.columnStats = columnStats;
+    return this;
+  }
+
+  public long getPartsFound()
+  {
+    return partsFound;
+  }
+
+  public void setPartsFound(long partsFound)
+  {
+    this.partsFound = partsFound;
+  }
+
+  public GetAggrColumnStatisticsResponse withPartsFound(long partsFound)
+  {
+    this.partsFound = partsFound;
+    return this;
+  }
+}
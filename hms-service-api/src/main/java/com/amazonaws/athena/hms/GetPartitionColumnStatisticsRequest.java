@@ -0,0 +1,95 @@
+/*-
+ * #%L
+ * hms-service-api
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import java.util.List;
+
+public class GetPartitionColumnStatisticsRequest extends ApiRequest
+{
+  private String dbName;
+  private String tableName;
+  // null means all the partitions
+  private List<String> partNames;
+  private List<String> colNames;
+
+  public String getDbName()
+  {
+    return dbName;
+  }
+
+  public void setDbName(String dbName)
+  {
+    this.dbName = dbName;
+  }
+
+  public GetPartitionColumnStatisticsRequest withDbName(String dbName)
+  {
+    this.dbName = dbName;
+    return this;
+  }
+
+  public String getTableName()
+  {
+    return tableName;
+  }
+
+  public void setTableName(String tableName)
+  {
+    this.tableName = tableName;
+  }
+
+  public GetPartitionColumnStatisticsRequest withTableName(String tableName)
+  {
+    this.tableName = tableName;
+    return this;
+  }
+
+  public List<String> getPartNames()
+  {
+    return partNames;
+  }
+
+  public void setPartNames(List<String> partNames)
+  {
+    this.partNames = partNames;
+  }
+
+  public GetPartitionColumnStatisticsRequest withPartNames(List<String> partNames)
+  {
+    this.partNames = partNames;
+    return this;
+  }
+
+  public List<String> getColNames()
+  {
+    return colNames;
+  }
+
+  public void setColNames(List<String> colNames)
+  {
+    this.colNames = colNames;
+  }
+
+  public GetPartitionColumnStatisticsRequest withColNames(List<String> colNames)
+  {
+    this.colNames = colNames;
+    return this;
+  }
+}
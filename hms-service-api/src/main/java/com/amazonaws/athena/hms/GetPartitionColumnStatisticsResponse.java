@@ -0,0 +1,45 @@
+/*-
+ * #%L
+ * hms-service-api
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import java.util.List;
+import java.util.Map;
+
+public class GetPartitionColumnStatisticsResponse extends ApiResponse
+{
+  // the serialized ColumnStatisticsObj of each partition name, the partitions without statistics are left out
+  private Map<String, List<String>> partitionStats;
+
+  public Map<String, List<String>> getPartitionStats()
+  {
+    return partitionStats;
+  }
+
+  public void setPartitionStats(Map<String, List<String>> partitionStats)
+  {
+    this.partitionStats = partitionStats;
+  }
+
+  public GetPartitionColumnStatisticsResponse withPartitionStats(Map<String, List<String>> partitionStats)
+  {
+    this.partitionStats = partitionStats;
+    return this;
+  }
+}
@@ -0,0 +1,148 @@
+/*-
+ * #%L
+ * hms-service-api
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import java.util.List;
+
+public class GetPartitionValuesRequest extends ApiRequest
+{
+  private String dbName;
+  private String tableName;
+  // the partition keys to return the values of, null means all the partition keys
+  private List<String> partitionKeys;
+  // an optional filter on the partitions, e.g., "dt >= '2020-01-01'"
+  private String filter;
+  private boolean applyDistinct = true;
+  private boolean ascending = true;
+  // the maximum number of value rows to return, -1 means no limit
+  private int maxParts = -1;
+
+  public String getDbName()
+  {
+    return dbName;
+  }
+
+  public void setDbName(String dbName)
+  {
+    this.dbName = dbName;
+  }
+
+  public GetPartitionValuesRequest withDbName(String dbName)
+  {
+    this.dbName = dbName;
+    return this;
+  }
+
+  public String getTableName()
+  {
+    return tableName;
+  }
+
+  public void setTableName(String tableName)
+  {
+    this.tableName = tableName;
+  }
+
+  public GetPartitionValuesRequest withTableName(String tableName)
+  {
+    this.tableName = tableName;
+    return this;
+  }
+
+  public List<String> getPartitionKeys()
+  {
+    return partitionKeys;
+  }
+
+  public void setPartitionKeys(List<String> partitionKeys)
+  {
+    this.partitionKeys = partitionKeys;
+  }
+
+  public GetPartitionValuesRequest withPartitionKeys(List<String> partitionKeys)
+  {
+    this.partitionKeys = partitionKeys;
+    return this;
+  }
+
+  public String getFilter()
+  {
+    return filter;
+  }
+
+  public void setFilter(String filter)
+  {
+    this.filter = filter;
+  }
+
+  public GetPartitionValuesRequest withFilter(String filter)
+  {
+    this.filter = filter;
+    return this;
+  }
+
+  public boolean isApplyDistinct()
+  {
+    return applyDistinct;
+  }
+
+  public void setApplyDistinct(boolean applyDistinct)
+  {
+    this.applyDistinct = applyDistinct;
+  }
+
+  public GetPartitionValuesRequest withApplyDistinct(boolean applyDistinct)
+  {
+    this.applyDistinct = applyDistinct;
+    return this;
+  }
+
+  public boolean isAscending()
+  {
+    return ascending;
+  }
+
+  public void setAscending(boolean ascending)
+  {
+    this.ascending = ascending;
+  }
+
+  public GetPartitionValuesRequest withAscending(boolean ascending)
+  {
+    this.ascending = ascending;
+    return this;
+  }
+
+  public int getMaxParts()
+  {
+    return maxParts;
+  }
+
+  public void setMaxParts(int maxParts)
+  {
+    this.maxParts = maxParts;
+  }
+
+  public GetPartitionValuesRequest withMaxParts(int maxParts)
+  {
+    this.maxParts = maxParts;
+    return this;
+  }
+}
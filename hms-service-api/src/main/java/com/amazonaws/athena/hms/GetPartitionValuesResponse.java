@@ -0,0 +1,79 @@
+/*-
+ * #%L
+ * hms-service-api
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import java.util.List;
+
+public class GetPartitionValuesResponse extends ApiResponse
+{
+  private List<String> partitionKeys;
+  // the type of each partition key
+  private List<String> partitionKeyTypes;
+  // one row per partition, with a value for each partition key
+  private List<List<String>> partitionValues;
+
+  public List<String> getPartitionKeys()
+  {
+    return partitionKeys;
+  }
+
+  public void setPartitionKeys(List<String> partitionKeys)
+  {
+    this.partitionKeys = partitionKeys;
+  }
+
+  public GetPartitionValuesResponse withPartitionKeys(List<String> partitionKeys)
+  {
+    this.partitionKeys = partitionKeys;
+    return this;
+  }
+
+  public List<String> getPartitionKeyTypes()
+  {
+    return partitionKeyTypes;
+  }
+
+  public void setPartitionKeyTypes(List<String> partitionKeyTypes)
+  {
+    this.partitionKeyTypes = partitionKeyTypes;
+  }
+
+  public GetPartitionValuesResponse withPartitionKeyTypes(List<String> partitionKeyTypes)
+  {
+    this.partitionKeyTypes = partitionKeyTypes;
+    return this;
+  }
+
+  public List<List<String>> getPartitionValues()
+  {
+    return partitionValues;
+  }
+
+  public void setPartitionValues(List<List<String>> partitionValues)
+  {
+    this.partitionValues = partitionValues;
+  }
+
+  public GetPartitionValuesResponse withPartitionValues(List<List<String>> partitionValues)
+  {
+    this.partitionValues = partitionValues;
+    return this;
+  }
+}
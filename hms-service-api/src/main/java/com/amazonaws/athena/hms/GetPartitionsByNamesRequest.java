@@ -26,6 +26,8 @@ public class GetPartitionsByNamesRequest extends ApiRequest
   private String dbName;
   private String tableName;
   private List<String> names;
+  // optional field mask, e.g., ["values", "sd.location"], null means all the fields
+  private List<String> fields;
 
   public String getDbName()
   {
@@ -57,6 +59,16 @@ public class GetPartitionsByNamesRequest extends ApiRequest
     this.names = names;
   }
 
+  public List<String> getFields()
+  {
+    return fields;
+  }
+
+  public void setFields(List<String> fields)
+  {
+    this.fields = fields;
+  }
+
   public GetPartitionsByNamesRequest withDbName(String dbName)
   {
     this.dbName = dbName;
@@ -74,4 +86,10 @@ public class GetPartitionsByNamesRequest extends ApiRequest
     this.names = names;
     return this;
   }
+
+  public GetPartitionsByNamesRequest withFields(List<String> fields)
+  {
+    this.fields = fields;
+    return this;
+  }
 }
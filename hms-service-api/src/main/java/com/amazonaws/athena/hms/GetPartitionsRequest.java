@@ -19,12 +19,16 @@
  */
 package com.amazonaws.athena.hms;
 
+import java.util.List;
+
 public class GetPartitionsRequest extends ApiRequest
 {
   private String dbName;
   private String tableName;
   // default value "-1" means unlimited
   private short maxSize = -1;
+  // optional field mask, e.g., ["values", "sd.location"], null means all the fields
+  private List<String> fields;
 
   public String getDbName()
   {
@@ -56,6 +60,16 @@ public class GetPartitionsRequest extends ApiRequest
     this.maxSize = maxSize;
   }
 
+  public List<String> getFields()
+  {
+    return fields;
+  }
+
+  public void setFields(List<String> fields)
+  {
+    this.fields = fields;
+  }
+
   public GetPartitionsRequest withDbName(String dbName)
   {
     this.dbName = dbName;
@@ -73,4 +87,10 @@ public class GetPartitionsRequest extends ApiRequest
     this.maxSize = maxSize;
     return this;
   }
+
+  public GetPartitionsRequest withFields(List<String> fields)
+  {
+    this.fields = fields;
+    return this;
+  }
 }
@@ -0,0 +1,44 @@
+/*-
+ * #%L
+ * hms-service-api
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import java.util.List;
+
+public class GetTableColumnStatisticsResponse extends ApiResponse
+{
+  // the serialized ColumnStatisticsObj of the columns that have statistics
+  private List<String> columnStats;
+
+  public List<String> getColumnStats()
+  {
+    return columnStats;
+  }
+
+  public void setColumnStats(List<String> columnStats)
+  {
+    this.columnStats = columnStats;
+  }
+
+  public GetTableColumnStatisticsResponse withColumnStats(List<String> columnStats)
+  {
+    this.columnStats = columnStats;
+    return this;
+  }
+}
@@ -19,10 +19,14 @@
  */
 package com.amazonaws.athena.hms;
 
+import java.util.List;
+
 public class GetTableRequest extends ApiRequest
 {
   private String dbName;
   private String tableName;
+  // optional field mask, e.g., ["tableName", "partitionKeys", "sd.location"], null means all the fields
+  private List<String> fields;
 
   public String getDbName()
   {
@@ -44,6 +48,16 @@ public class GetTableRequest extends ApiRequest
     this.tableName = tableName;
   }
 
+  public List<String> getFields()
+  {
+    return fields;
+  }
+
+  public void setFields(List<String> fields)
+  {
+    this.fields = fields;
+  }
+
   public GetTableRequest withDbName(String dbName)
   {
     this.dbName = dbName;
@@ -55,4 +69,10 @@ public class GetTableRequest extends ApiRequest
     this.tableName = tableName;
     return this;
   }
+
+  public GetTableRequest withFields(List<String> fields)
+  {
+    this.fields = fields;
+    return this;
+  }
 }
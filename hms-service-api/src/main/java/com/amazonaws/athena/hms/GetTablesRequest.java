@@ -25,6 +25,8 @@ public class GetTablesRequest extends ApiRequest
 {
   private String dbName;
   private List<String> tableNames;
+  // optional field mask, e.g., ["tableName", "partitionKeys", "sd.location"], null means all the fields
+  private List<String> fields;
 
   public String getDbName()
   {
@@ -46,6 +48,16 @@ public class GetTablesRequest extends ApiRequest
     this.tableNames = tableNames;
   }
 
+  public List<String> getFields()
+  {
+    return fields;
+  }
+
+  public void setFields(List<String> fields)
+  {
+    this.fields = fields;
+  }
+
   public GetTablesRequest withDbName(String dbName)
   {
     this.dbName = dbName;
@@ -57,4 +69,10 @@ public class GetTablesRequest extends ApiRequest
     this.tableNames = tableNames;
     return this;
   }
+
+  public GetTablesRequest withFields(List<String> fields)
+  {
+    this.fields = fields;
+    return this;
+  }
 }
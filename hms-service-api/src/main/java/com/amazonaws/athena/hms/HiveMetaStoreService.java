@@ -27,14 +27,14 @@ public interface HiveMetaStoreService
   // HMS API:  Partition addPartition(Partition partition) throws TException;
   AddPartitionResponse addPartition(AddPartitionRequest request) throws Exception;
 
-  // HMS API: void addPartitions(List<Partition> partitions) throws TException;
+  // HMS API: List<BatchResult> addPartitions(List<Partition> partitions, boolean ifNotExists) throws TException;
   AddPartitionsResponse addPartitions(AddPartitionsRequest request) throws Exception;
 
   // HMS API:   void alterPartition(String dbName, String tableName,
   //                      Partition partition) throws TException;
   AlterPartitionResponse alterPartition(AlterPartitionRequest request) throws Exception;
 
-  // HMS API:   void alterPartitions(String dbName, String tableName,
+  // HMS API:   List<BatchResult> alterPartitions(String dbName, String tableName,
   //                       List<Partition> partitions) throws TException;
   AlterPartitionsResponse alterPartitions(AlterPartitionsRequest request) throws Exception;
 
@@ -79,7 +79,7 @@ public interface HiveMetaStoreService
   //                                      List<String> partNames) throws TException;
   DropPartitionsResponse dropPartitions(DropPartitionsRequest request) throws Exception;
 
-  // HMS API:   boolean dropTable(String dbName, String tableName) throws TException;
+  // HMS API:   boolean dropTable(String dbName, String tableName, boolean dropPartitionsFirst) throws TException;
   DropTableResponse dropTable(DropTableRequest request) throws Exception;
 
   // HMS API:   Set<String> getDatabaseNames(String filter) throws TException;
@@ -105,6 +105,14 @@ public interface HiveMetaStoreService
   // HMS API:   List<Partition> getPartitions(String dbName, String tableName) throws TException;
   GetPartitionsResponse getPartitions(GetPartitionsRequest request) throws Exception;
 
+  // HMS API:   List<Partition> getPartitionsByFilter(String dbName, String tableName,
+  //                                        String filter, short maxSize) throws TException;
+  GetPartitionsByFilterResponse getPartitionsByFilter(GetPartitionsByFilterRequest request) throws Exception;
+
+  // HMS API:   int getNumPartitionsByFilter(String dbName, String tableName,
+  //                                 String filter) throws TException;
+  GetNumPartitionsByFilterResponse getNumPartitionsByFilter(GetNumPartitionsByFilterRequest request) throws Exception;
+
   // HMS API:   Table getTable(String dbName, String tableName) throws TException;
   GetTableResponse getTable(GetTableRequest request) throws Exception;
 
@@ -119,4 +127,27 @@ public interface HiveMetaStoreService
 
   // HMS API: List Partition Objects with Pagination
   ListPartitionsResponse listPartitions(ListPartitionsRequest request) throws Exception;
+
+  // HMS API: List Partition Objects that match a filter with Pagination
+  ListPartitionsByFilterResponse listPartitionsByFilter(ListPartitionsByFilterRequest request) throws Exception;
+
+  // HMS API:   List<TableMeta> getTableMeta(String dbPatterns, String tablePatterns,
+  //                                 List<String> tableTypes) throws TException;
+  ListTableMetaResponse listTableMeta(ListTableMetaRequest request) throws Exception;
+
+  // HMS API:   List<ColumnStatisticsObj> getTableColumnStatistics(String dbName, String tableName,
+  //                                                      List<String> colNames) throws TException;
+  GetTableColumnStatisticsResponse getTableColumnStatistics(GetTableColumnStatisticsRequest request) throws Exception;
+
+  // HMS API:   Map<String, List<ColumnStatisticsObj>> getPartitionColumnStatistics(String dbName, String tableName,
+  //                                                      List<String> partNames, List<String> colNames) throws TException;
+  GetPartitionColumnStatisticsResponse getPartitionColumnStatistics(GetPartitionColumnStatisticsRequest request) throws Exception;
+
+  // HMS API:   AggrStats getAggrColumnStatistics(String dbName, String tableName,
+  //                                  List<String> partNames, List<String> colNames) throws TException;
+  GetAggrColumnStatisticsResponse getAggrColumnStatistics(GetAggrColumnStatisticsRequest request) throws Exception;
+
+  // HMS API:   List<List<String>> getPartitionValues(Table table, List<String> partitionKeys, String filter,
+  //                                       boolean applyDistinct, boolean ascending, int maxParts) throws TException;
+  GetPartitionValuesResponse getPartitionValues(GetPartitionValuesRequest request) throws Exception;
 }
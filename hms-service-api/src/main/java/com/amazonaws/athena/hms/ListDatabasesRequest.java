@@ -25,6 +25,8 @@ public class ListDatabasesRequest extends ApiRequest
   private String nextToken;
   // default value "-1" means unlimited
   private short maxSize = -1;
+  // the estimated bytes of the entries of a page, a page is cut short before going over it, default value "0" means unlimited
+  private long maxBytes;
 
   public String getFilter()
   {
@@ -73,4 +75,20 @@ public class ListDatabasesRequest extends ApiRequest
     this.maxSize = maxSize;
     return this;
   }
+
+  public long getMaxBytes()
+  {
+    return maxBytes;
+  }
+
+  public void setMaxBytes(long maxBytes)
+  {
+    this.maxBytes = maxBytes;
+  }
+
+  public ListDatabasesRequest withMaxBytes(long maxBytes)
+  {
+    this.maxBytes = maxBytes;
+    return this;
+  }
 }
@@ -0,0 +1,148 @@
+/*-
+ * #%L
+ * hms-service-api
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import java.util.List;
+
+public class ListPartitionsByFilterRequest extends ApiRequest
+{
+  private String dbName;
+  private String tableName;
+  private String filter;
+  private String nextToken;
+  // default value "-1" means unlimited
+  private short maxSize = -1;
+  // the estimated bytes of the entries of a page, a page is cut short before going over it, default value "0" means unlimited
+  private long maxBytes;
+  // optional field mask, e.g., ["values", "sd.location"], null means all the fields
+  private List<String> fields;
+
+  public String getDbName()
+  {
+    return dbName;
+  }
+
+  public void setDbName(String dbName)
+  {
+    this.dbName = dbName;
+  }
+
+  public String getTableName()
+  {
+    return tableName;
+  }
+
+  public void setTableName(String tableName)
+  {
+    this.tableName = tableName;
+  }
+
+  public String getFilter()
+  {
+    return filter;
+  }
+
+  public void setFilter(String filter)
+  {
+    this.filter = filter;
+  }
+
+  public String getNextToken()
+  {
+    return nextToken;
+  }
+
+  public void setNextToken(String nextToken)
+  {
+    this.nextToken = nextToken;
+  }
+
+  public short getMaxSize()
+  {
+    return maxSize;
+  }
+
+  public void setMaxSize(short maxSize)
+  {
+    this.maxSize = maxSize;
+  }
+
+  public List<String> getFields()
+  {
+    return fields;
+  }
+
+  public void setFields(List<String> fields)
+  {
+    this.fields = fields;
+  }
+
+  public ListPartitionsByFilterRequest withDbName(String dbName)
+  {
+    this.dbName = dbName;
+    return this;
+  }
+
+  public ListPartitionsByFilterRequest withTableName(String tableName)
+  {
+    this.tableName = tableName;
+    return this;
+  }
+
+  public ListPartitionsByFilterRequest withFilter(String filter)
+  {
+    this.filter = filter;
+    return this;
+  }
+
+  public ListPartitionsByFilterRequest withNextToken(String nextToken)
+  {
+    this.nextToken = nextToken;
+    return this;
+  }
+
+  public ListPartitionsByFilterRequest withMaxSize(short maxSize)
+  {
+    this.maxSize = maxSize;
+    return this;
+  }
+
+  public ListPartitionsByFilterRequest withFields(List<String> fields)
+  {
+    this.fields = fields;
+    return this;
+  }
+
+  public long getMaxBytes()
+  {
+    return maxBytes;
+  }
+
+  public void setMaxBytes(long maxBytes)
+  {
+    this.maxBytes = maxBytes;
+  }
+
+  public ListPartitionsByFilterRequest withMaxBytes(long maxBytes)
+  {
+    this.maxBytes = maxBytes;
+    return this;
+  }
+}
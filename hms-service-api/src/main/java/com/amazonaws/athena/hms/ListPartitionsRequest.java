@@ -19,6 +19,8 @@
  */
 package com.amazonaws.athena.hms;
 
+import java.util.List;
+
 public class ListPartitionsRequest extends ApiRequest
 {
   private String dbName;
@@ -26,6 +28,10 @@ public class ListPartitionsRequest extends ApiRequest
   private String nextToken;
   // default value "-1" means unlimited
   private short maxSize = -1;
+  // the estimated bytes of the entries of a page, a page is cut short before going over it, default value "0" means unlimited
+  private long maxBytes;
+  // optional field mask, e.g., ["values", "sd.location"], null means all the fields
+  private List<String> fields;
 
   public String getDbName()
   {
@@ -67,6 +73,16 @@ public class ListPartitionsRequest extends ApiRequest
     this.maxSize = maxSize;
   }
 
+  public List<String> getFields()
+  {
+    return fields;
+  }
+
+  public void setFields(List<String> fields)
+  {
+    this.fields = fields;
+  }
+
   public ListPartitionsRequest withDbName(String dbName)
   {
     this.dbName = dbName;
@@ -90,4 +106,26 @@ public class ListPartitionsRequest extends ApiRequest
     this.maxSize = maxSize;
     return this;
   }
+
+  public ListPartitionsRequest withFields(List<String> fields)
+  {
+    this.fields = fields;
+    return this;
+  }
+
+  public long getMaxBytes()
+  {
+    return maxBytes;
+  }
+
+  public void setMaxBytes(long maxBytes)
+  {
+    this.maxBytes = maxBytes;
+  }
+
+  public ListPartitionsRequest withMaxBytes(long maxBytes)
+  {
+    this.maxBytes = maxBytes;
+    return this;
+  }
 }
@@ -0,0 +1,80 @@
+/*-
+ * #%L
+ * hms-service-api
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+import java.util.List;
+
+public class ListTableMetaRequest extends ApiRequest
+{
+  // HMS patterns of the database names, e.g., "sales_*|marketing", null means all the databases
+  private String dbPatterns;
+  // HMS patterns of the table names, null means all the tables
+  private String tablePatterns;
+  // e.g., ["MANAGED_TABLE", "EXTERNAL_TABLE", "VIRTUAL_VIEW"], null means all the types
+  private List<String> tableTypes;
+
+  public String getDbPatterns()
+  {
+    return dbPatterns;
+  }
+
+  public void setDbPatterns(String dbPatterns)
+  {
+    this.dbPatterns = dbPatterns;
+  }
+
+  public ListTableMetaRequest withDbPatterns(String dbPatterns)
+  {
+    this.dbPatterns = dbPatterns;
+    return this;
+  }
+
+  public String getTablePatterns()
+  {
+    return tablePatterns;
+  }
+
+  public void setTablePatterns(String tablePatterns)
+  {
+    this.tablePatterns = tablePatterns;
+  }
+
+  public ListTableMetaRequest withTablePatterns(String tablePatterns)
+  {
+    this.tablePatterns = tablePatterns;
+    return this;
+  }
+
+  public List<String> getTableTypes()
+  {
+    return tableTypes;
+  }
+
+  public void setTableTypes(List<String> tableTypes)
+  {
+    this.tableTypes = tableTypes;
+  }
+
+  public ListTableMetaRequest withTableTypes(List<String> tableTypes)
+  {
+    this.tableTypes = tableTypes;
+    return this;
+  }
+}
@@ -25,6 +25,12 @@ public class MetadataResponse implements AutoCloseable
   public static final String IS_SPILLED = "spilled";
   public static final String SPILL_PATH = "spillPath";
   public static final String API_RESPONSE = "apiResponse";
+  public static final String ERROR_CODE = "errorCode";
+  public static final String ERROR_MESSAGE = "errorMessage";
+
+  // the metastore is overloaded or failing and the request was rejected without calling it,
+  // the client should retry it later with backoff
+  public static final String ERROR_CODE_METASTORE_OVERLOADED = "METASTORE_OVERLOADED";
 
   private final String apiName;
 
@@ -39,12 +45,32 @@ public class MetadataResponse implements AutoCloseable
 
   private final ApiResponse apiResponse;
 
+  // null if the request succeeded, otherwise, there is no API response
+  private final String errorCode;
+
+  // the reason of the error, also the field that older clients check to fail the request
+  private final String errorMessage;
+
   public MetadataResponse(String apiName, boolean spilled, String spillPath, ApiResponse apiResponse)
+  {
+    this(apiName, spilled, spillPath, apiResponse, null, null);
+  }
+
+  public MetadataResponse(String apiName, boolean spilled, String spillPath, ApiResponse apiResponse,
+                          String errorCode, String errorMessage)
   {
     this.apiName = apiName;
     this.spilled = spilled;
     this.spillPath = spillPath;
     this.apiResponse = apiResponse;
+    this.errorCode = errorCode;
+    this.errorMessage = errorMessage;
+  }
+
+  // a response for a request that failed with the given error code
+  public static MetadataResponse error(String apiName, String errorCode, String errorMessage)
+  {
+    return new MetadataResponse(apiName, false, null, null, errorCode, errorMessage);
   }
 
   public String getApiName()
@@ -67,6 +93,16 @@ public class MetadataResponse implements AutoCloseable
     return apiResponse;
   }
 
+  public String getErrorCode()
+  {
+    return errorCode;
+  }
+
+  public String getErrorMessage()
+  {
+    return errorMessage;
+  }
+
   @Override
   public void close() throws Exception
   {
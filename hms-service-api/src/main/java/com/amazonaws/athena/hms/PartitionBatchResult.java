@@ -0,0 +1,94 @@
+/*-
+ * #%L
+ * hms-service-api
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.hms;
+
+// the outcome of one batch of a bulk partition API, which covers the partitions
+// from the offset of the batch in the request
+public class PartitionBatchResult
+{
+  private int offset;
+  private int size;
+  private boolean succeeded;
+  private String errorMessage;
+
+  public int getOffset()
+  {
+    return offset;
+  }
+
+  public void setOffset(int offset)
+  {
+    this.offset = offset;
+  }
+
+  public PartitionBatchResult withOffset(int offset)
+  {
+    this.offset = offset;
+    return this;
+  }
+
+  public int getSize()
+  {
+    return size;
+  }
+
+  public void setSize(int size)
+  {
+    this.size = size;
+  }
+
+  public PartitionBatchResult withSize(int size)
+  {
+    this.size = size;
+    return this;
+  }
+
+  public boolean isSucceeded()
+  {
+    return succeeded;
+  }
+
+  public void setSucceeded(boolean succeeded)
+  {
+    this.succeeded = succeeded;
+  }
+
+  public PartitionBatchResult withSucceeded(boolean succeeded)
+  {
+    this.succeeded = succeeded;
+    return this;
+  }
+
+  public String getErrorMessage()
+  {
+    return errorMessage;
+  }
+
+  public void setErrorMessage(String errorMessage)
+  {
+    this.errorMessage = errorMessage;
+  }
+
+  public PartitionBatchResult withErrorMessage(String errorMessage)
+  {
+    this.errorMessage = errorMessage;
+    return this;
+  }
+}
@@ -33,12 +33,13 @@ import java.io.IOException;
 
 import static com.amazonaws.athena.hms.MetadataRequest.API_NAME;
 import static com.amazonaws.athena.hms.MetadataResponse.API_RESPONSE;
+import static com.amazonaws.athena.hms.MetadataResponse.ERROR_CODE;
+import static com.amazonaws.athena.hms.MetadataResponse.ERROR_MESSAGE;
 import static com.amazonaws.athena.hms.MetadataResponse.IS_SPILLED;
 import static com.amazonaws.athena.hms.MetadataResponse.SPILL_PATH;
 
 public class MetadataResponseDeserializer extends StdDeserializer<MetadataResponse>
 {
-  private static final String ERROR_MESSAGE = "errorMessage";
   private static final String STACK_TRACE = "stackTrace";
   private final ApiHelper apiHelper;
   private final S3Helper s3Helper;
@@ -64,6 +65,7 @@ public class MetadataResponseDeserializer extends StdDeserializer<MetadataRespon
     boolean isSpilled = false;
     String spillPath = null;
     ApiResponse apiResponse = null;
+    String errorCode = null;
     while (jsonParser.nextToken() != JsonToken.END_OBJECT) {
       if (jsonParser.getCurrentName() == null) {
         // for error message currentName() could return null at the end
@@ -94,6 +96,11 @@ public class MetadataResponseDeserializer extends StdDeserializer<MetadataRespon
           jsonParser.nextToken();
           spillPath = jsonParser.getValueAsString();
           break;
+        case ERROR_CODE:
+          // move to field value
+          jsonParser.nextToken();
+          errorCode = jsonParser.getValueAsString();
+          break;
         case API_RESPONSE:
           // move to field value
           jsonParser.nextToken();
@@ -114,10 +121,11 @@ public class MetadataResponseDeserializer extends StdDeserializer<MetadataRespon
       }
     }
 
-    if (errorMessage != null) {
+    // a failed request with an error code is returned, so that the client could tell whether to retry it
+    if (errorMessage != null && errorCode == null) {
       throw new IOException(errorMessage, new Throwable(stackTrace));
     }
 
-    return new MetadataResponse(apiName, isSpilled, spillPath, apiResponse);
+    return new MetadataResponse(apiName, isSpilled, spillPath, apiResponse, errorCode, errorMessage);
   }
 }
@@ -29,6 +29,8 @@ import java.io.IOException;
 
 import static com.amazonaws.athena.hms.MetadataResponse.API_NAME;
 import static com.amazonaws.athena.hms.MetadataResponse.API_RESPONSE;
+import static com.amazonaws.athena.hms.MetadataResponse.ERROR_CODE;
+import static com.amazonaws.athena.hms.MetadataResponse.ERROR_MESSAGE;
 import static com.amazonaws.athena.hms.MetadataResponse.IS_SPILLED;
 import static com.amazonaws.athena.hms.MetadataResponse.SPILL_PATH;
 
@@ -50,6 +52,12 @@ public class MetadataResponseSerializer extends StdSerializer<MetadataResponse>
     jsonGenerator.writeBooleanField(IS_SPILLED, metadataResponse.isSpilled());
     jsonGenerator.writeStringField(SPILL_PATH, metadataResponse.getSpillPath());
     jsonGenerator.writeObjectField(API_RESPONSE, metadataResponse.getApiResponse());
+    // only written for failed requests, older clients don't know the error code but fail the request
+    // on the error message like they do for a function error
+    if (metadataResponse.getErrorCode() != null) {
+      jsonGenerator.writeStringField(ERROR_CODE, metadataResponse.getErrorCode());
+      jsonGenerator.writeStringField(ERROR_MESSAGE, metadataResponse.getErrorMessage());
+    }
     jsonGenerator.writeEndObject();
   }
 }
@@ -56,11 +56,19 @@ public class TestApiHelper
     assertEquals("getPartitionNames", helper.getApiName(GetPartitionNamesRequest.class, GetPartitionNamesResponse.class));
     assertEquals("getPartitionsByNames", helper.getApiName(GetPartitionsByNamesRequest.class, GetPartitionsByNamesResponse.class));
     assertEquals("getPartitions", helper.getApiName(GetPartitionsRequest.class, GetPartitionsResponse.class));
+    assertEquals("getPartitionsByFilter", helper.getApiName(GetPartitionsByFilterRequest.class, GetPartitionsByFilterResponse.class));
+    assertEquals("getNumPartitionsByFilter", helper.getApiName(GetNumPartitionsByFilterRequest.class, GetNumPartitionsByFilterResponse.class));
     assertEquals("getTable", helper.getApiName(GetTableRequest.class, GetTableResponse.class));
     assertEquals("getTables", helper.getApiName(GetTablesRequest.class, GetTablesResponse.class));
     assertEquals("listDatabases", helper.getApiName(ListDatabasesRequest.class, ListDatabasesResponse.class));
     assertEquals("listTables", helper.getApiName(ListTablesRequest.class, ListTablesResponse.class));
     assertEquals("listPartitions", helper.getApiName(ListPartitionsRequest.class, ListPartitionsResponse.class));
+    assertEquals("listPartitionsByFilter", helper.getApiName(ListPartitionsByFilterRequest.class, ListPartitionsByFilterResponse.class));
+    assertEquals("listTableMeta", helper.getApiName(ListTableMetaRequest.class, ListTableMetaResponse.class));
+    assertEquals("getTableColumnStatistics", helper.getApiName(GetTableColumnStatisticsRequest.class, GetTableColumnStatisticsResponse.class));
+    assertEquals("getPartitionColumnStatistics", helper.getApiName(GetPartitionColumnStatisticsRequest.class, GetPartitionColumnStatisticsResponse.class));
+    assertEquals("getAggrColumnStatistics", helper.getApiName(GetAggrColumnStatisticsRequest.class, GetAggrColumnStatisticsResponse.class));
+    assertEquals("getPartitionValues", helper.getApiName(GetPartitionValuesRequest.class, GetPartitionValuesResponse.class));
   }
 
   @Test
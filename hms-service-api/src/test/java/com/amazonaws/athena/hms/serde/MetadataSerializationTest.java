@@ -96,6 +96,25 @@ public class MetadataSerializationTest
     assertTrue(result.getApiResponse() instanceof DbExistsResponse);
     DbExistsResponse resultResponse = (DbExistsResponse) result.getApiResponse();
     assertTrue(resultResponse.isExists());
+    assertNull(result.getErrorCode());
+  }
+
+  @Test
+  public void testMetadataResponseWithErrorCode() throws IOException
+  {
+    ApiHelper helper = new ApiHelper();
+    ObjectMapper mapper = ObjectMapperFactory.create(helper, mock(S3Helper.class));
+    MetadataResponse response = MetadataResponse.error(helper.getApiName(DbExistsRequest.class, DbExistsResponse.class),
+        MetadataResponse.ERROR_CODE_METASTORE_OVERLOADED, "Too many recent metastore calls failed");
+    String payload = mapper.writeValueAsString(response);
+    // older clients fail the request on the error message
+    assertTrue(payload.contains("\"errorMessage\":\"Too many recent metastore calls failed\""));
+    MetadataResponse result = mapper.readValue(payload, MetadataResponse.class);
+    assertNotNull(result);
+    assertEquals("dbExists", result.getApiName());
+    assertEquals(MetadataResponse.ERROR_CODE_METASTORE_OVERLOADED, result.getErrorCode());
+    assertEquals("Too many recent metastore calls failed", result.getErrorMessage());
+    assertNull(result.getApiResponse());
   }
 
   @Test